@@ -5,15 +5,26 @@ import static org.example.sorter.parameters.DefaultParameters.MIN_BUFFER_SIZE;
 import static org.example.sorter.parameters.DefaultParameters.MIN_CHUNK_SIZE;
 import static org.example.sorter.parameters.DefaultParameters.MIN_MEMORY_SIZE;
 
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
 import lombok.extern.log4j.Log4j2;
+import org.example.context.ApplicationContext;
 import org.example.context.DefaultApplicationContext;
+import org.example.context.DefaultStringContext;
+import org.example.context.SpillFileSystemContext;
+import org.example.context.StripedFileSystemContext;
+import org.example.io.FileStreamFactory;
+import org.example.io.MappedFileStreamFactory;
+import org.example.io.SpillStore;
+import org.example.io.SpillStreamFactory;
 import org.example.sorter.FileSorter;
 import org.example.sorter.parameters.ChunkParameters;
+import org.example.sorter.parameters.SortOptions;
+import org.example.utils.HeapUsageMonitor;
 import org.example.utils.TerminalHelper;
 import picocli.CommandLine;
 
@@ -50,14 +61,38 @@ public class SorterApplication {
         ? String.CASE_INSENSITIVE_ORDER
         : Comparator.naturalOrder();
 
-    var context = new DefaultApplicationContext(
-        /* prefixTemporaryDirectory = */ null, sorterCommand.isEnableReflection()
-    );
-    try (var fileSorter = new FileSorter(input, inputCharset, threadsCount, context)) {
+    var options = new SortOptions();
+    options.setParallelPartition(sorterCommand.isParallelPartition());
+    options.setReadAheadThreads(sorterCommand.getReadAheadThreads());
+    options.setWriteBehind(sorterCommand.isWriteBehind());
+    options.setCompressTemporaryFiles(sorterCommand.isCompressTemporary());
+    options.setFrontCoding(sorterCommand.isFrontCoding());
+    options.setSortEngine(sorterCommand.getSortEngine());
+    options.setReplacementSelection(sorterCommand.isReplacementSelection());
+    options.setNaturalRuns(sorterCommand.isNaturalRuns());
+    options.setParallelMerge(sorterCommand.isParallelMerge());
+    options.setPipelinedMerge(sorterCommand.isPipelinedMerge());
+    options.setEarlyMerge(sorterCommand.isEarlyMerge());
+    options.setOffHeapChunks(sorterCommand.isOffHeapChunks());
+    options.setRawMerge(sorterCommand.isRawMerge());
+
+    var spillStore = sorterCommand.isSpillFile() ? new SpillStore() : null;
+    var context = createContext(sorterCommand, spillStore);
+    try (spillStore;
+         var heapUsageMonitor = verbose ? new HeapUsageMonitor() : null;
+         var fileSorter = new FileSorter(input, inputCharset, threadsCount, context)) {
       var parameters = new ChunkParameters(
           availableChunks, chunkSize, bufferSize, threadsCount, memorySize
       );
-      fileSorter.sort(parameters, comparator, output, outputCharset, verbose);
+      fileSorter.sort(parameters, comparator, output, outputCharset, options, verbose);
+
+      if (heapUsageMonitor != null && memorySize != null) {
+        // live heap is checked against memory size, so memory size can be close to max heap
+        System.out.format(
+            "Peak heap usage after GC: %d bytes of memory size %d bytes%n",
+            heapUsageMonitor.getPeakUsage(), memorySize
+        );
+      }
     } catch (InterruptedException ex) {
       TerminalHelper.forceCloseTerminal();
     } catch (Exception ex) {
@@ -65,9 +100,38 @@ public class SorterApplication {
     }
   }
 
+  private static ApplicationContext createContext(
+      SorterArguments arguments, SpillStore spillStore
+  ) {
+    var streamFactory = arguments.isMappedInput()
+        ? MappedFileStreamFactory.getInstance()
+        : FileStreamFactory.getInstance();
+    var stringContext = new DefaultStringContext(arguments.isEnableReflection());
+
+    if (spillStore != null) {
+      return new DefaultApplicationContext(
+          new SpillStreamFactory(streamFactory, spillStore),
+          stringContext,
+          new SpillFileSystemContext(/* prefix = */ null, spillStore)
+      );
+    }
+
+    if (arguments.getTemporaryDirectories() != null) {
+      var roots = arguments.getTemporaryDirectories().stream().map(Path::toFile).toList();
+      return new DefaultApplicationContext(
+          streamFactory, stringContext, new StripedFileSystemContext(/* prefix = */ null, roots)
+      );
+    }
+
+    return new DefaultApplicationContext(
+        streamFactory, /* prefixTemporaryDirectory = */ null, arguments.isEnableReflection()
+    );
+  }
+
   private static boolean check(SorterArguments arguments) {
     List<String> invalidValues = check(
         () -> arguments.getThreadsCount() > 0 ? null : "--threads",
+        () -> arguments.getReadAheadThreads() >= 0 ? null : "--read-ahead-threads",
         () -> arguments.getBufferSize() > MIN_BUFFER_SIZE ? null : "--buffer-size",
         () -> isEmptyOr(arguments.getChunksCount(), value -> value >= MIN_AVAILABLE_CHUNKS)
             ? null
@@ -77,7 +141,13 @@ public class SorterApplication {
             : "--strings",
         () -> isEmptyOr(arguments.getMemorySize(), value -> value >= MIN_MEMORY_SIZE)
             ? null
-            : "--memorySize"
+            : "--memorySize",
+        // spill file is kept in one temporary directory
+        () -> arguments.getTemporaryDirectories() == null || !arguments.isSpillFile()
+            ? null
+            : "--temp-dirs",
+        // files of spill file are read by spill store without mapping
+        () -> !arguments.isMappedInput() || !arguments.isSpillFile() ? null : "--mapped-input"
     );
     if (!invalidValues.isEmpty()) {
       System.out.format("Invalid parameter(s): '%s'%n", invalidValues);
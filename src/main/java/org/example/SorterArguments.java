@@ -6,8 +6,10 @@ import static org.example.sorter.parameters.DefaultParameters.DEFAULT_CHUNK_SIZE
 
 import java.nio.charset.Charset;
 import java.nio.file.Path;
+import java.util.List;
 import java.util.function.Supplier;
 import lombok.Getter;
+import org.example.sorter.parameters.SortEngine;
 import org.example.utils.DataSizeHelper;
 import picocli.CommandLine.Command;
 import picocli.CommandLine.Option;
@@ -59,6 +61,101 @@ public class SorterArguments {
   @Option(names = {"-I", "--ignore-case"}, description = "ignore case in compare of two strings")
   private boolean ignoreCase;
 
+  @Option(
+      names = {"--parallel-partition"},
+      description = "read input file by several threads (only for ASCII compatible encodings)"
+  )
+  private boolean parallelPartition;
+
+  @Option(
+      names = {"--read-ahead-threads"},
+      description = "count of threads for reading ahead of temporary files (default: disabled)"
+  )
+  private int readAheadThreads;
+
+  @Option(
+      names = {"--write-behind"},
+      description = "write output by dedicated thread from pooled buffers"
+  )
+  private boolean writeBehind;
+
+  @Option(names = {"--compress-temporary"}, description = "compress temporary files by blocks")
+  private boolean compressTemporary;
+
+  @Option(
+      names = {"--front-coding"},
+      description = "store shared prefixes of neighboring strings in temporary files once"
+  )
+  private boolean frontCoding;
+
+  @Option(
+      names = {"--sort-engine"},
+      description = "algorithm of partition sorting: ${COMPLETION-CANDIDATES} "
+          + "(default: ${DEFAULT-VALUE})"
+  )
+  private SortEngine sortEngine = SortEngine.COMPARATOR;
+
+  @Option(
+      names = {"--replacement-selection"},
+      description = "generate runs of about twice the chunk size by replacement selection"
+  )
+  private boolean replacementSelection;
+
+  @Option(
+      names = {"--natural-runs"},
+      description = "write already sorted or reverse sorted parts of input without sorting"
+  )
+  private boolean naturalRuns;
+
+  @Option(
+      names = {"--parallel-merge"},
+      description = "merge ranges of strings of the last merges by several threads"
+  )
+  private boolean parallelMerge;
+
+  @Option(
+      names = {"--pipelined-merge"},
+      description = "merge the last levels of merges in one pass through memory, if it fits"
+  )
+  private boolean pipelinedMerge;
+
+  @Option(
+      names = {"--early-merge"},
+      description = "merge saved chunks by idle threads, while input is read"
+  )
+  private boolean earlyMerge;
+
+  @Option(
+      names = {"--off-heap"},
+      description = "keep strings of partition chunks out of heap"
+  )
+  private boolean offHeapChunks;
+
+  @Option(
+      names = {"--raw-merge"},
+      description = "merge serialized strings of temporary files without decoding them"
+  )
+  private boolean rawMerge;
+
+  @Option(
+      names = {"--mapped-input"},
+      description = "read temporary files through memory mapping instead of buffers"
+  )
+  private boolean mappedInput;
+
+  @Option(
+      names = {"--spill-file"},
+      description = "keep temporary files as extents of one preallocated spill file"
+  )
+  private boolean spillFile;
+
+  @Option(
+      names = {"--temp-dirs"},
+      split = ",",
+      description = "directories, across which temporary files are striped (e.g. one per disk)"
+  )
+  private List<Path> temporaryDirectories;
+
   @Option(names = {"--verbose"}, description = "show details information about process")
   private boolean verbose;
 
@@ -0,0 +1,109 @@
+package org.example.concurrent;
+
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongUnaryOperator;
+import java.util.stream.LongStream;
+
+/**
+ * Bag, which gives the lightest elements first. Weight of element is calculated once, when it's
+ * added. Elements with equal weights are taken in ascending order.
+ */
+public class BlockingWeightedBag implements BlockingBag {
+
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition added = lock.newCondition();
+
+  private final LongUnaryOperator weigher;
+  private final PriorityQueue<Element> elements = new PriorityQueue<>(
+      Comparator.comparingLong(Element::weight).thenComparingLong(Element::value)
+  );
+
+  public BlockingWeightedBag(LongUnaryOperator weigher) {
+    this.weigher = weigher;
+  }
+
+  public int countElements() {
+    final var lock = this.lock;
+    lock.lock();
+    try {
+      return elements.size();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public void add(long element) {
+    if (element < 0) {
+      throw new IllegalArgumentException("element must be greater than or equal to zero");
+    }
+
+    var weight = weigher.applyAsLong(element);
+
+    final var lock = this.lock;
+    lock.lock();
+    try {
+      elements.add(new Element(element, weight));
+      added.signal();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Wait until the bag has the given count of elements and take the lightest of them.
+   */
+  @Override
+  public LongStream takes(int countElements) throws InterruptedException {
+    if (countElements <= 0) {
+      return LongStream.empty();
+    }
+
+    var result = new long[countElements];
+
+    final var lock = this.lock;
+    lock.lockInterruptibly();
+    try {
+      while (elements.size() < countElements) {
+        added.await();
+      }
+
+      for (int i = 0; i < countElements; i++) {
+        result[i] = elements.poll().value();
+      }
+    } finally {
+      lock.unlock();
+    }
+
+    return LongStream.of(result);
+  }
+
+  /**
+   * Take the lightest elements, if the bag has the given count of elements.
+   *
+   * @return null if the bag has less elements
+   */
+  public LongStream tryTakes(int countElements) {
+    final var lock = this.lock;
+    lock.lock();
+    try {
+      if (elements.size() < countElements) {
+        return null;
+      }
+
+      var result = new long[countElements];
+      for (int i = 0; i < countElements; i++) {
+        result[i] = elements.poll().value();
+      }
+      return LongStream.of(result);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private record Element(long value, long weight) {
+  }
+}
@@ -54,6 +54,11 @@ public class DefaultFileSystemContext implements FileSystemContext {
     return file.isFile();
   }
 
+  @Override
+  public long length(File file) {
+    return file.length();
+  }
+
   @Override
   public boolean delete(File file) {
     try {
@@ -63,6 +68,10 @@ public class DefaultFileSystemContext implements FileSystemContext {
     }
   }
 
+  protected File getTemporaryDirectory() {
+    return tempDirectory;
+  }
+
   private static boolean deleteFile(File file) {
     if (file == null || !file.exists()) {
       return true;
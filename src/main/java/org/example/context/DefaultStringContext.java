@@ -85,6 +85,15 @@ public class DefaultStringContext implements StringContext {
     return count;
   }
 
+  @Override
+  public long getRetainedSize(String value) {
+    // compact string stores Latin-1 chars by bytes, so coder is checked by chars without reflection
+    byte coder = supportReflection ? getCoder(value) : -1;
+    boolean latin1 = coder < 0 ? StringHelper.isLatin1(value) : coder == 0;
+    int length = value.length();
+    return StringHelper.getRetainedSize(latin1 ? length : Character.BYTES * length);
+  }
+
   @Override
   public String createString(byte[] values, byte coder, int count, StringBuilder builder) {
     if (values == null) {
@@ -8,6 +8,14 @@ public interface FileSystemContext {
 
   long nextTemporaryFile();
 
+  /**
+   * Get id of the next temporary file, which is written by merge of the given files, so the file
+   * can be placed apart from the merged files.
+   */
+  default long nextTemporaryFile(long[] mergedFiles) {
+    return nextTemporaryFile();
+  }
+
   File getTemporaryFile(long id);
 
   boolean exists(File file);
@@ -16,5 +24,7 @@ public interface FileSystemContext {
 
   boolean isFile(File file);
 
+  long length(File file);
+
   boolean delete(File file);
 }
@@ -0,0 +1,50 @@
+package org.example.context;
+
+import java.io.File;
+import java.io.IOException;
+import org.example.io.SpillStore;
+
+/**
+ * File system context, which keeps temporary files in {@link SpillStore}, so checks and deletion
+ * of temporary files don't touch file system. Other files are checked in file system.
+ */
+public class SpillFileSystemContext extends DefaultFileSystemContext {
+
+  private final SpillStore store;
+
+  public SpillFileSystemContext(String prefix, SpillStore store) {
+    super(prefix);
+    this.store = store;
+  }
+
+  @Override
+  public void createTemporaryDirectory() throws IOException {
+    super.createTemporaryDirectory();
+    store.open(getTemporaryDirectory());
+  }
+
+  @Override
+  public boolean exists(File file) {
+    return store.owns(file) ? store.exists(file) : super.exists(file);
+  }
+
+  @Override
+  public boolean canRead(File file) {
+    return store.owns(file) ? store.exists(file) : super.canRead(file);
+  }
+
+  @Override
+  public boolean isFile(File file) {
+    return store.owns(file) ? store.exists(file) : super.isFile(file);
+  }
+
+  @Override
+  public long length(File file) {
+    return store.owns(file) ? store.length(file) : super.length(file);
+  }
+
+  @Override
+  public boolean delete(File file) {
+    return store.owns(file) ? store.delete(file) : super.delete(file);
+  }
+}
@@ -9,5 +9,11 @@ public interface StringContext {
 
   int getValueArray(String value, int offset, char[] chars, byte[] bytes);
 
+  /**
+   * Get count of bytes, which string retains. Coder of string is known only with reflection,
+   * otherwise it's found by chars of string.
+   */
+  long getRetainedSize(String value);
+
   String createString(byte[] values, byte coder, int count, StringBuilder builder);
 }
@@ -0,0 +1,109 @@
+package org.example.context;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileStore;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * File system context, which stripes temporary files across temporary directories of several
+ * roots, so temporary files are written and read by several disks at once. New files are placed
+ * by round robin. File of merge is placed on disk, which keeps the least bytes of merged files,
+ * so merge reads from one set of disks and writes to another one.
+ *
+ * <p>Index of directory is kept in id of file as remainder of division by count of directories,
+ * so file is found by id without map of files.
+ */
+public class StripedFileSystemContext extends DefaultFileSystemContext {
+
+  private final String prefix;
+  private final List<File> roots;
+  private final AtomicLong number = new AtomicLong();
+
+  // temporary directory of every root and index of the first root of the same disk
+  private volatile File[] directories;
+  private volatile int[] devices;
+
+  public StripedFileSystemContext(String prefix, List<File> roots) {
+    this(prefix, roots, null);
+  }
+
+  StripedFileSystemContext(String prefix, List<File> roots, int[] devices) {
+    super(prefix);
+    if (roots.isEmpty()) {
+      throw new IllegalArgumentException("roots must not be empty");
+    }
+
+    this.prefix = prefix;
+    this.roots = List.copyOf(roots);
+    this.devices = devices;
+  }
+
+  @Override
+  public synchronized void createTemporaryDirectory() throws IOException {
+    if (directories != null) {
+      return;
+    }
+
+    var result = new File[roots.size()];
+    for (int i = 0; i < result.length; i++) {
+      result[i] = Files.createTempDirectory(roots.get(i).toPath(), prefix).toFile();
+      result[i].deleteOnExit();
+    }
+
+    if (devices == null) {
+      devices = new int[result.length];
+      var stores = new FileStore[result.length];
+      for (int i = 0; i < result.length; i++) {
+        stores[i] = Files.getFileStore(result[i].toPath());
+        devices[i] = i;
+        for (int j = 0; j < i; j++) {
+          if (stores[j].equals(stores[i])) {
+            devices[i] = j;
+            break;
+          }
+        }
+      }
+    }
+    directories = result;
+  }
+
+  @Override
+  public long nextTemporaryFile() {
+    long next = number.getAndIncrement();
+    return next * roots.size() + next % roots.size();
+  }
+
+  /**
+   * Place file on disk with the least bytes of merged files. Disks with equal bytes are taken by
+   * round robin.
+   */
+  @Override
+  public long nextTemporaryFile(long[] mergedFiles) {
+    var bytes = new long[roots.size()];
+    for (long file : mergedFiles) {
+      bytes[devices[getDirectory(file)]] += length(getTemporaryFile(file));
+    }
+
+    long next = number.getAndIncrement();
+    int result = -1;
+    for (int i = 0; i < roots.size(); i++) {
+      int directory = (int) ((next + i) % roots.size());
+      if (result < 0 || bytes[devices[directory]] < bytes[devices[result]]) {
+        result = directory;
+      }
+    }
+    return next * roots.size() + result;
+  }
+
+  @Override
+  public File getTemporaryFile(long id) {
+    return new File(directories[getDirectory(id)], Long.toString(id));
+  }
+
+  private int getDirectory(long id) {
+    return (int) (id % roots.size());
+  }
+}
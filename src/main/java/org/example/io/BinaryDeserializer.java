@@ -4,6 +4,7 @@ import java.io.EOFException;
 import java.io.IOException;
 import lombok.RequiredArgsConstructor;
 import org.example.context.ApplicationContext;
+import org.example.utils.StringHelper;
 
 @RequiredArgsConstructor
 public class BinaryDeserializer implements StringDeserializer {
@@ -11,7 +12,7 @@ public class BinaryDeserializer implements StringDeserializer {
   private final ApplicationContext context;
 
   @Override
-  public int read(RandomAccessInputStream inputStream, String[] data, int offset)
+  public int read(RandomAccessInputStream inputStream, String[] data, int offset, long maxBytes)
       throws IOException {
 
     // MetaData:
@@ -20,9 +21,11 @@ public class BinaryDeserializer implements StringDeserializer {
     final var metaData = new byte[2];
 
     final var buffer = new StringBuilder(0);
+    final var stringContext = context.getStringContext();
 
     var bytes = new byte[0];
-    while (offset < data.length) {
+    long retainedBytes = 0;
+    while (offset < data.length && retainedBytes < maxBytes) {
       int count = inputStream.read(metaData, 0, 2);
       if (count <= 0) {
         return offset;
@@ -38,14 +41,20 @@ public class BinaryDeserializer implements StringDeserializer {
       }
 
       // TODO: add comments for explanation
-      if (context.getStringContext().hasSupportReflection() || bytes.length < len) {
+      boolean shared = stringContext.hasSupportReflection();
+      if (shared || bytes.length < len) {
         bytes = new byte[len];
       }
       if (inputStream.read(bytes, 0, len) != len) {
         throw new EOFException();
       }
 
-      data[offset++] = context.getStringContext().createString(bytes, metaData[0], len, buffer);
+      var value = stringContext.createString(bytes, metaData[0], len, buffer);
+      data[offset++] = value;
+      // string without reflection is copied from builder, so it can be compacted
+      retainedBytes += shared
+          ? StringHelper.getRetainedSize(len)
+          : stringContext.getRetainedSize(value);
     }
 
     return offset;
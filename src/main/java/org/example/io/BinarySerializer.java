@@ -13,7 +13,7 @@ public class BinarySerializer implements StringSerializer {
   private final StringContext context;
 
   @Override
-  public void write(OutputStream stream, String[] data, int from, int to) throws IOException {
+  public long write(OutputStream stream, String[] data, int from, int to) throws IOException {
     // MetaData:
     // first byte - coder
     // 2-6 bytes - decoded len of string as 128 Base varint
@@ -23,6 +23,7 @@ public class BinarySerializer implements StringSerializer {
     char[] chars = null;
     byte[] bytes = null;
 
+    long written = 0;
     for (int i = from; i < to; i++) {
       var line = data[i];
 
@@ -39,12 +40,15 @@ public class BinarySerializer implements StringSerializer {
         int len = StreamHelper.writeVarint32(metaData, 1, 2 * line.length());
         stream.write(metaData, 0, len);
         writeData(stream, line, chars, bytes);
+        written += len + 2L * line.length();
       } else {
         int len = StreamHelper.writeVarint32(metaData, 1, value.length);
         stream.write(metaData, 0, len);
         stream.write(value);
+        written += len + value.length;
       }
     }
+    return written;
   }
 
   private void writeData(OutputStream stream, String line, char[] chars, byte[] bytes)
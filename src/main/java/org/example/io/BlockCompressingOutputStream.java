@@ -0,0 +1,144 @@
+package org.example.io;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Stream, which splits data into blocks and compresses every block by {@link LzBlockCodec}. Block,
+ * which can't be compressed, is stored as is. Format of file:
+ * <pre>
+ * block: [type: 1 byte][raw length: 4 bytes][stored length: 4 bytes][stored data]
+ * footer: [total raw length: 8 bytes]
+ * </pre>
+ * The footer lets {@link BlockDecompressingInputStream} to know length of data without reading of
+ * all blocks.
+ */
+public class BlockCompressingOutputStream extends OutputStream {
+
+  static final int STORED_BLOCK = 0;
+  static final int COMPRESSED_BLOCK = 1;
+  static final int HEADER_SIZE = 9;
+  static final int FOOTER_SIZE = 8;
+
+  private final OutputStream out;
+  private final LzBlockCodec codec = new LzBlockCodec();
+
+  private final byte[] block;
+  private final byte[] compressed;
+  private int size;
+  private long totalLength;
+  private boolean closed;
+
+  public BlockCompressingOutputStream(OutputStream out, int blockSize) {
+    if (blockSize <= 0) {
+      throw new IllegalArgumentException("blockSize must be greater than zero");
+    }
+
+    this.out = out;
+    this.block = new byte[blockSize];
+    this.compressed = new byte[HEADER_SIZE + blockSize];
+  }
+
+  @Override
+  public void write(int b) throws IOException {
+    checkNotClosed();
+    block[size++] = (byte) b;
+    if (size == block.length) {
+      writeBlock();
+    }
+  }
+
+  @Override
+  public void write(byte[] b, int off, int len) throws IOException {
+    checkNotClosed();
+    while (len > 0) {
+      int count = Math.min(len, block.length - size);
+      System.arraycopy(b, off, block, size, count);
+      size += count;
+      off += count;
+      len -= count;
+
+      if (size == block.length) {
+        writeBlock();
+      }
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (closed) {
+      return;
+    }
+
+    try {
+      writeBlock();
+      writeLong(compressed, 0, totalLength);
+      out.write(compressed, 0, FOOTER_SIZE);
+    } finally {
+      closed = true;
+      out.close();
+    }
+  }
+
+  private void writeBlock() throws IOException {
+    if (size == 0) {
+      return;
+    }
+
+    // compressed block is used only if it's smaller than raw block
+    int len = codec.compress(block, 0, size, compressed, HEADER_SIZE, size - 1);
+    if (len > 0) {
+      writeHeader(COMPRESSED_BLOCK, len);
+      out.write(compressed, 0, HEADER_SIZE + len);
+    } else {
+      writeHeader(STORED_BLOCK, size);
+      out.write(compressed, 0, HEADER_SIZE);
+      out.write(block, 0, size);
+    }
+
+    totalLength += size;
+    size = 0;
+  }
+
+  private void writeHeader(int type, int storedLength) {
+    compressed[0] = (byte) type;
+    writeInt(compressed, 1, size);
+    writeInt(compressed, 5, storedLength);
+  }
+
+  private void checkNotClosed() throws IOException {
+    if (closed) {
+      throw new IOException("Stream closed");
+    }
+  }
+
+  static void writeInt(byte[] bytes, int offset, int value) {
+    for (int i = 3; i >= 0; i--) {
+      bytes[offset + i] = (byte) value;
+      value >>>= 8;
+    }
+  }
+
+  static void writeLong(byte[] bytes, int offset, long value) {
+    for (int i = 7; i >= 0; i--) {
+      bytes[offset + i] = (byte) value;
+      value >>>= 8;
+    }
+  }
+
+  static int readInt(byte[] bytes, int offset) {
+    int result = 0;
+    for (int i = 0; i < 4; i++) {
+      result = result << 8 | bytes[offset + i] & 0xFF;
+    }
+    return result;
+  }
+
+  static long readLong(byte[] bytes, int offset) {
+    long result = 0;
+    for (int i = 0; i < 8; i++) {
+      result = result << 8 | bytes[offset + i] & 0xFF;
+    }
+    return result;
+  }
+}
@@ -0,0 +1,207 @@
+package org.example.io;
+
+import static org.example.io.BlockCompressingOutputStream.COMPRESSED_BLOCK;
+import static org.example.io.BlockCompressingOutputStream.FOOTER_SIZE;
+import static org.example.io.BlockCompressingOutputStream.HEADER_SIZE;
+import static org.example.io.BlockCompressingOutputStream.STORED_BLOCK;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Reader of files written by {@link BlockCompressingOutputStream}. Positions of stream are
+ * positions in raw (decompressed) data. Offsets of read blocks are remembered, so seeking back is
+ * one read of block.
+ */
+public class BlockDecompressingInputStream implements RandomAccessInputStream {
+
+  private final RandomAccessInputStream in;
+  private final byte[] header = new byte[HEADER_SIZE];
+
+  private byte[] block = new byte[0];
+  private byte[] compressed = new byte[0];
+  private int blockSize;
+  private int blockPosition;
+  private long blockStart;
+  private long nextBlockOffset;
+
+  // raw length of data and offset of footer in file, they are loaded on demand
+  private long length = -1;
+  private long dataEnd;
+
+  // raw positions and file offsets of read blocks
+  private long[] blockStarts = new long[16];
+  private long[] blockOffsets = new long[16];
+  private int blocks;
+
+  public BlockDecompressingInputStream(RandomAccessInputStream in) {
+    this.in = in;
+  }
+
+  @Override
+  public long length() throws IOException {
+    loadFooter();
+    return length;
+  }
+
+  @Override
+  public long getFilePointer() {
+    return blockStart + blockPosition;
+  }
+
+  @Override
+  public void seek(long pos) throws IOException {
+    if (pos < 0) {
+      throw new IllegalArgumentException("pos must be greater than or equal to zero");
+    }
+
+    if (blockStart <= pos && pos <= blockStart + blockSize) {
+      blockPosition = (int) (pos - blockStart);
+      return;
+    }
+
+    int index = Arrays.binarySearch(blockStarts, 0, blocks, pos);
+    if (index < 0) {
+      index = -index - 2;
+    }
+    if (index < 0) {
+      blockStart = 0;
+      nextBlockOffset = 0;
+    } else {
+      blockStart = blockStarts[index];
+      nextBlockOffset = blockOffsets[index];
+    }
+    blockSize = 0;
+    blockPosition = 0;
+
+    while (pos > blockStart + blockSize) {
+      if (!readNextBlock()) {
+        // position after the end of data
+        blockStart = pos;
+        blockSize = 0;
+        break;
+      }
+    }
+    blockPosition = (int) (pos - blockStart);
+  }
+
+  @Override
+  public int read() throws IOException {
+    if (blockPosition == blockSize && !readNextBlock()) {
+      return -1;
+    }
+    return block[blockPosition++] & 0xFF;
+  }
+
+  /**
+   * Unlike {@link java.io.InputStream#read(byte[], int, int)} read all {@code len} bytes if stream
+   * has them.
+   */
+  @Override
+  public int read(byte[] bytes, int off, int len) throws IOException {
+    if (len == 0) {
+      return 0;
+    }
+
+    int result = 0;
+    while (result < len) {
+      if (blockPosition == blockSize && !readNextBlock()) {
+        break;
+      }
+
+      int count = Math.min(len - result, blockSize - blockPosition);
+      System.arraycopy(block, blockPosition, bytes, off + result, count);
+      blockPosition += count;
+      result += count;
+    }
+
+    return result == 0 ? -1 : result;
+  }
+
+  @Override
+  public void close() throws IOException {
+    in.close();
+  }
+
+  private boolean readNextBlock() throws IOException {
+    loadFooter();
+    if (nextBlockOffset >= dataEnd) {
+      return false;
+    }
+
+    blockStart += blockSize;
+    blockSize = 0;
+    blockPosition = 0;
+
+    in.seek(nextBlockOffset);
+    readFully(header, HEADER_SIZE);
+    int type = header[0];
+    int rawLength = BlockCompressingOutputStream.readInt(header, 1);
+    int storedLength = BlockCompressingOutputStream.readInt(header, 5);
+    if (rawLength <= 0 || storedLength <= 0 || storedLength > dataEnd - nextBlockOffset
+        || (type == STORED_BLOCK && storedLength != rawLength)
+        || (type != STORED_BLOCK && type != COMPRESSED_BLOCK)) {
+      throw new IOException("Compressed file is corrupted");
+    }
+
+    if (blocks == 0 || blockStarts[blocks - 1] < blockStart) {
+      addBlock(blockStart, nextBlockOffset);
+    }
+
+    if (block.length < rawLength) {
+      block = new byte[rawLength];
+    }
+    if (type == STORED_BLOCK) {
+      readFully(block, rawLength);
+    } else {
+      if (compressed.length < storedLength) {
+        compressed = new byte[storedLength];
+      }
+      readFully(compressed, storedLength);
+      LzBlockCodec.decompress(compressed, 0, storedLength, block, 0, rawLength);
+    }
+
+    blockSize = rawLength;
+    nextBlockOffset += HEADER_SIZE + storedLength;
+    return true;
+  }
+
+  private void loadFooter() throws IOException {
+    if (length >= 0) {
+      return;
+    }
+
+    long fileLength = in.length();
+    if (fileLength < FOOTER_SIZE) {
+      throw new EOFException();
+    }
+
+    var footer = new byte[FOOTER_SIZE];
+    in.seek(fileLength - FOOTER_SIZE);
+    readFully(footer, FOOTER_SIZE);
+    length = BlockCompressingOutputStream.readLong(footer, 0);
+    dataEnd = fileLength - FOOTER_SIZE;
+  }
+
+  private void addBlock(long start, long offset) {
+    if (blocks == blockStarts.length) {
+      blockStarts = Arrays.copyOf(blockStarts, blocks << 1);
+      blockOffsets = Arrays.copyOf(blockOffsets, blocks << 1);
+    }
+    blockStarts[blocks] = start;
+    blockOffsets[blocks] = offset;
+    blocks++;
+  }
+
+  private void readFully(byte[] bytes, int len) throws IOException {
+    int offset = 0;
+    while (offset < len) {
+      int count = in.read(bytes, offset, len - offset);
+      if (count <= 0) {
+        throw new EOFException();
+      }
+      offset += count;
+    }
+  }
+}
@@ -0,0 +1,63 @@
+package org.example.io;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+public class BoundedInputStream extends FilterInputStream {
+
+  private long remaining;
+
+  public BoundedInputStream(InputStream in, long length) {
+    super(in);
+    if (length < 0) {
+      throw new IllegalArgumentException("length must be greater than or equal to zero");
+    }
+    this.remaining = length;
+  }
+
+  @Override
+  public int read() throws IOException {
+    if (remaining <= 0) {
+      return -1;
+    }
+
+    int result = super.read();
+    if (result != -1) {
+      remaining--;
+    }
+    return result;
+  }
+
+  @Override
+  public int read(byte[] b, int off, int len) throws IOException {
+    if (remaining <= 0) {
+      return -1;
+    }
+
+    int count = super.read(b, off, (int) Math.min(len, remaining));
+    if (count > 0) {
+      remaining -= count;
+    }
+    return count;
+  }
+
+  @Override
+  public long skip(long n) throws IOException {
+    long count = super.skip(Math.min(n, remaining));
+    if (count > 0) {
+      remaining -= count;
+    }
+    return count;
+  }
+
+  @Override
+  public int available() throws IOException {
+    return (int) Math.min(super.available(), remaining);
+  }
+
+  @Override
+  public boolean markSupported() {
+    return false;
+  }
+}
@@ -0,0 +1,116 @@
+package org.example.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Buffered random access stream over {@link FileChannel}. Data is read by positional reads into
+ * reusable buffer, so small reads (e.g. varints) don't make system calls.
+ */
+public class ChannelInputStream implements RandomAccessInputStream {
+
+  private final FileChannel channel;
+  private final ByteBuffer buffer;
+
+  // position in file of the end of data in buffer
+  private long channelPosition;
+
+  public ChannelInputStream(FileChannel channel, int bufferSize) {
+    if (bufferSize <= 0) {
+      throw new IllegalArgumentException("bufferSize must be greater than zero");
+    }
+
+    this.channel = channel;
+    this.buffer = ByteBuffer.allocate(bufferSize).flip();
+    this.channelPosition = 0;
+  }
+
+  @Override
+  public long length() throws IOException {
+    return channel.size();
+  }
+
+  @Override
+  public long getFilePointer() {
+    return channelPosition - buffer.remaining();
+  }
+
+  @Override
+  public void seek(long pos) {
+    if (pos < 0) {
+      throw new IllegalArgumentException("pos must be greater than or equal to zero");
+    }
+
+    long bufferStart = channelPosition - buffer.limit();
+    if (bufferStart <= pos && pos <= channelPosition) {
+      buffer.position((int) (pos - bufferStart));
+    } else {
+      buffer.clear().flip();
+      channelPosition = pos;
+    }
+  }
+
+  @Override
+  public int read() throws IOException {
+    if (!buffer.hasRemaining() && fill() <= 0) {
+      return -1;
+    }
+    return buffer.get() & 0xFF;
+  }
+
+  /**
+   * Unlike {@link java.io.InputStream#read(byte[], int, int)} read all {@code len} bytes if stream
+   * has them.
+   */
+  @Override
+  public int read(byte[] bytes, int off, int len) throws IOException {
+    if (len == 0) {
+      return 0;
+    }
+
+    int result = 0;
+    while (result < len) {
+      if (!buffer.hasRemaining()) {
+        if (len - result >= buffer.capacity()) {
+          // big block is read directly without copying through buffer
+          var target = ByteBuffer.wrap(bytes, off + result, len - result);
+          int count = channel.read(target, channelPosition);
+          if (count <= 0) {
+            break;
+          }
+          channelPosition += count;
+          result += count;
+          // buffer has no data before the new position
+          buffer.clear().flip();
+          continue;
+        }
+
+        if (fill() <= 0) {
+          break;
+        }
+      }
+
+      int count = Math.min(len - result, buffer.remaining());
+      buffer.get(bytes, off + result, count);
+      result += count;
+    }
+
+    return result == 0 ? -1 : result;
+  }
+
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+
+  private int fill() throws IOException {
+    buffer.clear();
+    int count = channel.read(buffer, channelPosition);
+    if (count > 0) {
+      channelPosition += count;
+    }
+    buffer.flip();
+    return count;
+  }
+}
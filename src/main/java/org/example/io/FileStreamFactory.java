@@ -5,10 +5,14 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStreamReader;
 import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import lombok.Getter;
 
 public class FileStreamFactory implements StreamFactory {
@@ -20,14 +24,51 @@ public class FileStreamFactory implements StreamFactory {
     return new FileOutputStream(file, true);
   }
 
+  @Override
+  public OutputStream getOutputStream(File file, long position) throws IOException {
+    var channel = FileChannel.open(
+        file.toPath(), StandardOpenOption.WRITE, StandardOpenOption.CREATE
+    );
+    try {
+      channel.position(position);
+    } catch (IOException ex) {
+      channel.close();
+      throw ex;
+    }
+
+    return Channels.newOutputStream(channel);
+  }
+
   @Override
   public RandomAccessInputStream getRandomAccessInputStream(File file)
       throws FileNotFoundException {
     return new RandomAccessFileStream(file, "r");
   }
 
+  @Override
+  public RandomAccessInputStream getRandomAccessInputStream(File file, int bufferSize)
+      throws IOException {
+    var channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+    return new ChannelInputStream(channel, bufferSize);
+  }
+
   @Override
   public BufferedReader getBufferedReader(Path path, Charset cs) throws IOException {
     return Files.newBufferedReader(path, cs);
   }
+
+  @Override
+  public BufferedReader getBufferedReader(Path path, Charset cs, long position, long length)
+      throws IOException {
+    var channel = FileChannel.open(path, StandardOpenOption.READ);
+    try {
+      channel.position(position);
+    } catch (IOException ex) {
+      channel.close();
+      throw ex;
+    }
+
+    var stream = new BoundedInputStream(Channels.newInputStream(channel), length);
+    return new BufferedReader(new InputStreamReader(stream, cs.newDecoder()));
+  }
 }
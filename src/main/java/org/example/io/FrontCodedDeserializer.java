@@ -0,0 +1,90 @@
+package org.example.io;
+
+import java.io.EOFException;
+import java.io.IOException;
+import lombok.RequiredArgsConstructor;
+import org.example.context.ApplicationContext;
+import org.example.utils.StringHelper;
+
+/**
+ * Deserializer of strings written by {@link FrontCodedSerializer}. It keeps the last read string
+ * to rebuild the next one, so instance must be used only for one stream, which is read
+ * sequentially.
+ */
+@RequiredArgsConstructor
+public class FrontCodedDeserializer implements StringDeserializer {
+
+  private static final byte[] EMPTY = new byte[0];
+
+  private final ApplicationContext context;
+
+  private byte[] previous = EMPTY;
+  private int previousLength;
+  private byte previousCoder;
+
+  // previous array is owned by string, which is created by reflection
+  private boolean previousShared;
+
+  private byte[] current = EMPTY;
+
+  @Override
+  public int read(RandomAccessInputStream inputStream, String[] data, int offset, long maxBytes)
+      throws IOException {
+
+    final var buffer = new StringBuilder(0);
+    final var stringContext = context.getStringContext();
+
+    long retainedBytes = 0;
+    while (offset < data.length && retainedBytes < maxBytes) {
+      int coder = inputStream.read();
+      if (coder < 0) {
+        return offset;
+      }
+
+      int prefix = readVarint32(inputStream);
+      int suffix = readVarint32(inputStream);
+      if (prefix < 0 || suffix < 0 || prefix > previousLength
+          || (prefix != 0 && (byte) coder != previousCoder)) {
+        throw new IOException("Front-coded data is corrupted");
+      }
+
+      int len = prefix + suffix;
+      boolean shared = stringContext.hasSupportReflection();
+      var bytes = shared || current.length < len ? new byte[len] : current;
+
+      System.arraycopy(previous, 0, bytes, 0, prefix);
+      if (suffix != 0 && inputStream.read(bytes, prefix, suffix) != suffix) {
+        throw new EOFException();
+      }
+
+      var value = stringContext.createString(bytes, (byte) coder, len, buffer);
+      data[offset++] = value;
+      // string without reflection is copied from builder, so it can be compacted
+      retainedBytes += shared
+          ? StringHelper.getRetainedSize(len)
+          : stringContext.getRetainedSize(value);
+
+      // buffer of the previous string is reused, if no string owns it
+      current = previousShared ? EMPTY : previous;
+      previous = bytes;
+      previousShared = shared;
+      previousLength = len;
+      previousCoder = (byte) coder;
+    }
+
+    return offset;
+  }
+
+  @Override
+  public boolean hasIndependentRecords() {
+    return false;
+  }
+
+  private static int readVarint32(RandomAccessInputStream inputStream) throws IOException {
+    int firstByte = inputStream.read();
+    if (firstByte < 0) {
+      throw new EOFException();
+    }
+    return inputStream.readVarint32(firstByte);
+  }
+}
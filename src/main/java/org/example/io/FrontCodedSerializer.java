@@ -0,0 +1,101 @@
+package org.example.io;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import lombok.RequiredArgsConstructor;
+import org.example.context.StringContext;
+import org.example.utils.StreamHelper;
+
+/**
+ * Serializer for sorted data: every string is stored as length of prefix, which is shared with
+ * the previous string, and the rest of string. The first string of every call of
+ * {@link #write(OutputStream, String[], int, int)} is stored entirely.
+ */
+@RequiredArgsConstructor
+public class FrontCodedSerializer implements StringSerializer {
+
+  private final int bufferSize;
+  private final StringContext context;
+
+  @Override
+  public long write(OutputStream stream, String[] data, int from, int to) throws IOException {
+    // MetaData:
+    // first byte - coder
+    // next bytes - length of shared prefix and length of suffix as 128 Base varints
+    final var metaData = new byte[11];
+
+    // buffers
+    char[] chars = null;
+    byte[] bytes = null;
+
+    String previous = null;
+    byte[] previousValue = null;
+    byte previousCoder = 0;
+
+    long written = 0;
+    for (int i = from; i < to; i++) {
+      var line = data[i];
+
+      var coder = context.getCoder(line);
+      metaData[0] = coder;
+
+      var value = context.getValueArray(line);
+      if (value == null) {
+        if (chars == null) {
+          chars = new char[bufferSize >> 2];
+        }
+        if (bytes == null) {
+          bytes = new byte[bufferSize >> 1];
+        }
+
+        // every char is written as two bytes
+        int prefix = previous != null && previousValue == null && coder == previousCoder
+            ? getSharedPrefix(previous, line)
+            : 0;
+        int len = StreamHelper.writeVarint32(metaData, 1, 2 * prefix);
+        len = StreamHelper.writeVarint32(metaData, len, 2 * (line.length() - prefix));
+        stream.write(metaData, 0, len);
+        writeData(stream, line, prefix, chars, bytes);
+        written += len + 2L * (line.length() - prefix);
+      } else {
+        int prefix = previousValue != null && coder == previousCoder
+            ? getSharedPrefix(previousValue, value)
+            : 0;
+        int len = StreamHelper.writeVarint32(metaData, 1, prefix);
+        len = StreamHelper.writeVarint32(metaData, len, value.length - prefix);
+        stream.write(metaData, 0, len);
+        stream.write(value, prefix, value.length - prefix);
+        written += len + value.length - prefix;
+      }
+
+      previous = line;
+      previousValue = value;
+      previousCoder = coder;
+    }
+    return written;
+  }
+
+  private void writeData(OutputStream stream, String line, int offset, char[] chars, byte[] bytes)
+      throws IOException {
+    int count;
+    while ((count = context.getValueArray(line, offset, chars, bytes)) > 0) {
+      offset += count;
+      stream.write(bytes, 0, 2 * count);
+    }
+  }
+
+  private static int getSharedPrefix(byte[] first, byte[] second) {
+    int index = Arrays.mismatch(first, second);
+    return index < 0 ? first.length : index;
+  }
+
+  private static int getSharedPrefix(String first, String second) {
+    int len = Math.min(first.length(), second.length());
+    int index = 0;
+    while (index < len && first.charAt(index) == second.charAt(index)) {
+      index++;
+    }
+    return index;
+  }
+}
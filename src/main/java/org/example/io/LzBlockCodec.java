@@ -0,0 +1,228 @@
+package org.example.io;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Codec of blocks in format of LZ4 block: sequence of tokens, where every token has literals and
+ * match with offset up to 64 KiB. Compressor uses single-probe hash table, so it's fast and has
+ * moderate ratio. Instance of codec isn't thread safe.
+ */
+public class LzBlockCodec {
+
+  private static final int MIN_MATCH = 4;
+  private static final int LAST_LITERALS = 5;
+  private static final int MATCH_FIND_LIMIT = 12;
+  private static final int MAX_OFFSET = 0xFFFF;
+  private static final int HASH_LOG = 14;
+  private static final int SKIP_TRIGGER = 6;
+
+  private final int[] hashTable = new int[1 << HASH_LOG];
+
+  /**
+   * Compress {@code src[srcOff, srcOff + srcLen)} to {@code dst} starting from {@code dstOff}.
+   *
+   * @return size of compressed data or -1 if it's greater than {@code dstLen}
+   */
+  public int compress(byte[] src, int srcOff, int srcLen, byte[] dst, int dstOff, int dstLen) {
+    final int srcEnd = srcOff + srcLen;
+    final int dstEnd = dstOff + dstLen;
+    int anchor = srcOff;
+    int d = dstOff;
+
+    if (srcLen > MATCH_FIND_LIMIT) {
+      Arrays.fill(hashTable, -1);
+      final int matchLimit = srcEnd - LAST_LITERALS;
+      final int findLimit = srcEnd - MATCH_FIND_LIMIT;
+
+      int s = srcOff;
+      while (s < findLimit) {
+        int sequence = readInt(src, s);
+        int hash = hash(sequence);
+        int ref = hashTable[hash];
+        hashTable[hash] = s;
+
+        if (ref < 0 || s - ref > MAX_OFFSET || readInt(src, ref) != sequence) {
+          // incompressible data is skipped faster
+          s += 1 + ((s - anchor) >>> SKIP_TRIGGER);
+          continue;
+        }
+
+        while (s > anchor && ref > srcOff && src[s - 1] == src[ref - 1]) {
+          s--;
+          ref--;
+        }
+
+        int matchLen = MIN_MATCH;
+        while (s + matchLen < matchLimit && src[s + matchLen] == src[ref + matchLen]) {
+          matchLen++;
+        }
+
+        d = writeSequence(src, anchor, s - anchor, s - ref, matchLen, dst, d, dstEnd);
+        if (d < 0) {
+          return -1;
+        }
+
+        s += matchLen;
+        anchor = s;
+      }
+    }
+
+    int literalLen = srcEnd - anchor;
+    if (d + 1 + literalLen / 255 + 1 + literalLen > dstEnd) {
+      return -1;
+    }
+    int token = d++;
+    d = writeLiterals(src, anchor, literalLen, dst, token, d);
+    return d - dstOff;
+  }
+
+  /**
+   * Decompress block, which must have exactly {@code dstLen} bytes after decompression.
+   */
+  public static void decompress(
+      byte[] src, int srcOff, int srcLen, byte[] dst, int dstOff, int dstLen
+  ) throws IOException {
+    final int srcEnd = srcOff + srcLen;
+    final int dstEnd = dstOff + dstLen;
+    int s = srcOff;
+    int d = dstOff;
+
+    while (true) {
+      if (s >= srcEnd) {
+        throw corrupted();
+      }
+      int token = src[s++] & 0xFF;
+
+      int literalLen = token >>> 4;
+      if (literalLen == 0x0F) {
+        int b;
+        do {
+          if (s >= srcEnd) {
+            throw corrupted();
+          }
+          b = src[s++] & 0xFF;
+          literalLen += b;
+        } while (b == 0xFF);
+      }
+      if (literalLen > srcEnd - s || literalLen > dstEnd - d) {
+        throw corrupted();
+      }
+      System.arraycopy(src, s, dst, d, literalLen);
+      s += literalLen;
+      d += literalLen;
+
+      if (s == srcEnd) {
+        break; // the last sequence has only literals
+      }
+
+      if (srcEnd - s < 2) {
+        throw corrupted();
+      }
+      int offset = (src[s] & 0xFF) | (src[s + 1] & 0xFF) << 8;
+      s += 2;
+      if (offset == 0 || offset > d - dstOff) {
+        throw corrupted();
+      }
+
+      int matchLen = token & 0x0F;
+      if (matchLen == 0x0F) {
+        int b;
+        do {
+          if (s >= srcEnd) {
+            throw corrupted();
+          }
+          b = src[s++] & 0xFF;
+          matchLen += b;
+        } while (b == 0xFF);
+      }
+      matchLen += MIN_MATCH;
+      if (matchLen > dstEnd - d) {
+        throw corrupted();
+      }
+
+      int ref = d - offset;
+      if (offset >= matchLen) {
+        System.arraycopy(dst, ref, dst, d, matchLen);
+        d += matchLen;
+      } else {
+        // overlapped match repeats the last offset bytes
+        for (int i = 0; i < matchLen; i++) {
+          dst[d++] = dst[ref++];
+        }
+      }
+    }
+
+    if (d != dstEnd) {
+      throw corrupted();
+    }
+  }
+
+  private static int writeSequence(
+      byte[] src,
+      int literalOff,
+      int literalLen,
+      int offset,
+      int matchLen,
+      byte[] dst,
+      int d,
+      int dstEnd
+  ) {
+    int extraMatchLen = matchLen - MIN_MATCH;
+    int required = 1 + literalLen / 255 + 1 + literalLen + 2 + extraMatchLen / 255 + 1;
+    if (d + required > dstEnd) {
+      return -1;
+    }
+
+    int token = d++;
+    d = writeLiterals(src, literalOff, literalLen, dst, token, d);
+
+    dst[d++] = (byte) offset;
+    dst[d++] = (byte) (offset >>> 8);
+
+    if (extraMatchLen >= 0x0F) {
+      dst[token] |= 0x0F;
+      d = writeLength(extraMatchLen - 0x0F, dst, d);
+    } else {
+      dst[token] |= (byte) extraMatchLen;
+    }
+    return d;
+  }
+
+  private static int writeLiterals(
+      byte[] src, int literalOff, int literalLen, byte[] dst, int token, int d
+  ) {
+    if (literalLen >= 0x0F) {
+      dst[token] = (byte) 0xF0;
+      d = writeLength(literalLen - 0x0F, dst, d);
+    } else {
+      dst[token] = (byte) (literalLen << 4);
+    }
+    System.arraycopy(src, literalOff, dst, d, literalLen);
+    return d + literalLen;
+  }
+
+  private static int writeLength(int len, byte[] dst, int d) {
+    while (len >= 0xFF) {
+      dst[d++] = (byte) 0xFF;
+      len -= 0xFF;
+    }
+    dst[d++] = (byte) len;
+    return d;
+  }
+
+  private static int readInt(byte[] src, int position) {
+    return (src[position] & 0xFF)
+        | (src[position + 1] & 0xFF) << 8
+        | (src[position + 2] & 0xFF) << 16
+        | (src[position + 3] & 0xFF) << 24;
+  }
+
+  private static int hash(int sequence) {
+    return (sequence * -1640531535) >>> (32 - HASH_LOG);
+  }
+
+  private static IOException corrupted() {
+    return new IOException("Compressed block is corrupted");
+  }
+}
@@ -0,0 +1,25 @@
+package org.example.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import lombok.Getter;
+
+/**
+ * Factory of file streams, which maps files of buffered random access streams into memory.
+ * Buffered random access streams read temporary files, so all chunks of a wide merge are read
+ * through page cache without buffers in heap and without system call per load.
+ */
+public class MappedFileStreamFactory extends FileStreamFactory {
+  @Getter(lazy = true)
+  private static final StreamFactory instance = new MappedFileStreamFactory();
+
+  @Override
+  public RandomAccessInputStream getRandomAccessInputStream(File file, int bufferSize)
+      throws IOException {
+    try (var channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+      return new MappedInputStream(channel);
+    }
+  }
+}
@@ -0,0 +1,144 @@
+package org.example.io;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import org.example.utils.ReflectionHelper;
+
+/**
+ * Random access stream over file, which is mapped into memory. Data is copied straight from the
+ * mapping, so readahead and page cache of system buffer the file instead of buffer of stream and
+ * reads don't make system calls. File is mapped by segments, because size of one mapping is
+ * limited by size of buffer.
+ *
+ * <p>Mapping is released explicitly on close by cleaner of buffers, so deleted file doesn't keep
+ * its space on disk until garbage collection of buffers. Stream must not be read after close.
+ */
+public class MappedInputStream implements RandomAccessInputStream {
+
+  static final int SEGMENT_SIZE = 1 << 30;
+
+  // unmaps buffer at once, if it's available, else mapping is released by garbage collection
+  private static final MethodHandle CLEANER = getCleaner();
+
+  private final long length;
+  private MappedByteBuffer[] segments;
+  private long position;
+
+  /**
+   * Map the whole file of channel. Channel can be closed after that, mapping stays valid.
+   */
+  public MappedInputStream(FileChannel channel) throws IOException {
+    this(channel, SEGMENT_SIZE);
+  }
+
+  MappedInputStream(FileChannel channel, int segmentSize) throws IOException {
+    this.length = channel.size();
+    this.segments = new MappedByteBuffer[(int) ((length + segmentSize - 1) / segmentSize)];
+    for (int i = 0; i < segments.length; i++) {
+      long start = (long) i * segmentSize;
+      segments[i] = channel.map(
+          FileChannel.MapMode.READ_ONLY, start, Math.min(segmentSize, length - start)
+      );
+    }
+  }
+
+  @Override
+  public long length() {
+    return length;
+  }
+
+  @Override
+  public long getFilePointer() {
+    return position;
+  }
+
+  @Override
+  public void seek(long pos) {
+    if (pos < 0) {
+      throw new IllegalArgumentException("pos must be greater than or equal to zero");
+    }
+    position = pos;
+  }
+
+  @Override
+  public int read() {
+    if (position >= length) {
+      return -1;
+    }
+
+    var segment = segments[(int) (position / segments[0].capacity())];
+    int result = segment.get((int) (position % segments[0].capacity())) & 0xFF;
+    position++;
+    return result;
+  }
+
+  @Override
+  public int read(byte[] bytes, int off, int len) {
+    if (len == 0) {
+      return 0;
+    }
+    if (position >= length) {
+      return -1;
+    }
+
+    int segmentSize = segments[0].capacity();
+    int result = (int) Math.min(len, length - position);
+    for (int count = 0; count < result; ) {
+      var segment = segments[(int) (position / segmentSize)];
+      int offset = (int) (position % segmentSize);
+      int part = Math.min(result - count, segment.capacity() - offset);
+      segment.get(offset, bytes, off + count, part);
+      count += part;
+      position += part;
+    }
+    return result;
+  }
+
+  @Override
+  public void close() {
+    if (segments == null) {
+      return;
+    }
+
+    var released = segments;
+    segments = null;
+    if (CLEANER == null) {
+      return;
+    }
+    for (var segment : released) {
+      try {
+        CLEANER.invokeExact((ByteBuffer) segment);
+      } catch (Throwable ex) {
+        // mapping is released by garbage collection
+      }
+    }
+  }
+
+  /**
+   * Find {@code Unsafe.invokeCleaner} bound to instance of {@code Unsafe}. It's looked up by name,
+   * so compilation doesn't depend on internal API.
+   *
+   * @return null if the method isn't available
+   */
+  private static MethodHandle getCleaner() {
+    try {
+      var unsafeClass = Class.forName("sun.misc.Unsafe");
+      var field = ReflectionHelper.getField(unsafeClass, "theUnsafe");
+      if (field == null) {
+        return null;
+      }
+      return MethodHandles.lookup()
+          .findVirtual(
+              unsafeClass, "invokeCleaner", MethodType.methodType(void.class, ByteBuffer.class)
+          )
+          .bindTo(field.get(null));
+    } catch (ReflectiveOperationException ex) {
+      return null;
+    }
+  }
+}
@@ -0,0 +1,404 @@
+package org.example.io;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Store of temporary files, which keeps files as chains of extents of one spill file instead of
+ * files of file system. Extents of deleted files are marked in free-extent map and are reused by
+ * the next files, so creation, checks and deletion of temporary files don't change metadata of
+ * file system. Spill file is extended by many extents at once, so its size changes rarely too.
+ *
+ * <p>Store keeps files of the directory, where spill file is created. Spill file is read and
+ * written by positional operations of one channel, so files can be used by several threads.
+ * Extents of deleted file are freed, when the last stream of the file is closed.
+ */
+public class SpillStore implements Closeable {
+
+  private static final String SPILL_FILE_NAME = "spill";
+  static final int EXTENT_SIZE = 64 << 10;
+  static final int PREALLOCATED_EXTENTS = 1024;
+
+  private static final int DEFAULT_BUFFER_SIZE = 8192;
+
+  private final int extentSize;
+  private final Map<File, Entry> entries = new ConcurrentHashMap<>();
+
+  // free-extent map and count of extents of spill file, guarded by this
+  private final BitSet freeExtents = new BitSet();
+  private int extents;
+
+  private volatile File directory;
+  private FileChannel channel;
+
+  public SpillStore() {
+    this(EXTENT_SIZE);
+  }
+
+  SpillStore(int extentSize) {
+    this.extentSize = extentSize;
+  }
+
+  /**
+   * Create spill file in directory, files of the directory are kept in store after that.
+   */
+  public synchronized void open(File directory) throws IOException {
+    if (channel != null) {
+      return;
+    }
+
+    channel = FileChannel.open(
+        new File(directory, SPILL_FILE_NAME).toPath(),
+        StandardOpenOption.CREATE,
+        StandardOpenOption.TRUNCATE_EXISTING,
+        StandardOpenOption.READ,
+        StandardOpenOption.WRITE,
+        StandardOpenOption.DELETE_ON_CLOSE
+    );
+    this.directory = directory;
+  }
+
+  /**
+   * Check, if file is kept in store.
+   */
+  public boolean owns(File file) {
+    var storeDirectory = directory;
+    return storeDirectory != null && storeDirectory.equals(file.getParentFile());
+  }
+
+  public boolean exists(File file) {
+    return entries.containsKey(file);
+  }
+
+  public long length(File file) {
+    var entry = entries.get(file);
+    return entry == null ? 0 : entry.length;
+  }
+
+  /**
+   * Delete file. Extents of file, which is still read or written, are freed after close of its
+   * streams.
+   */
+  public boolean delete(File file) {
+    var entry = entries.remove(file);
+    if (entry != null) {
+      boolean unused;
+      synchronized (entry) {
+        entry.deleted = true;
+        unused = entry.streams == 0;
+      }
+      if (unused) {
+        free(entry);
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Open stream, which appends data to file. File is created, if it doesn't exist.
+   */
+  public OutputStream getOutputStream(File file) {
+    var entry = entries.computeIfAbsent(file, key -> new Entry());
+    entry.acquire();
+    return new Output(entry);
+  }
+
+  public RandomAccessInputStream getInputStream(File file) throws FileNotFoundException {
+    return getInputStream(file, DEFAULT_BUFFER_SIZE);
+  }
+
+  public RandomAccessInputStream getInputStream(File file, int bufferSize)
+      throws FileNotFoundException {
+    if (bufferSize <= 0) {
+      throw new IllegalArgumentException("bufferSize must be greater than zero");
+    }
+
+    var entry = entries.get(file);
+    if (entry == null) {
+      throw new FileNotFoundException(file + " (No such file in spill file)");
+    }
+    entry.acquire();
+    return new Input(entry, bufferSize);
+  }
+
+  /**
+   * Get size of spill file, which is extended by many extents at once.
+   */
+  synchronized long size() throws IOException {
+    return channel.size();
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    entries.clear();
+    if (channel != null) {
+      channel.close();
+    }
+  }
+
+  /**
+   * Take free extent with the least position, so spill file stays compact.
+   */
+  private synchronized int allocate() throws IOException {
+    int extent = freeExtents.nextSetBit(0);
+    if (extent < 0) {
+      extent = extents;
+      extents += PREALLOCATED_EXTENTS;
+      channel.write(ByteBuffer.allocate(1), (long) extents * extentSize - 1);
+      freeExtents.set(extent + 1, extents);
+      return extent;
+    }
+
+    freeExtents.clear(extent);
+    return extent;
+  }
+
+  private void free(Entry entry) {
+    int[] freed;
+    synchronized (entry) {
+      freed = Arrays.copyOf(entry.extents, entry.count);
+      entry.count = 0;
+    }
+
+    synchronized (this) {
+      for (int extent : freed) {
+        freeExtents.set(extent);
+      }
+    }
+  }
+
+  private void release(Entry entry) {
+    boolean unused;
+    synchronized (entry) {
+      entry.streams--;
+      unused = entry.deleted && entry.streams == 0;
+    }
+    if (unused) {
+      free(entry);
+    }
+  }
+
+  /**
+   * Read data of entry from offset into buffer up to the end of extent.
+   *
+   * @return count of read bytes or -1 at the end of entry
+   */
+  private int read(Entry entry, ByteBuffer buffer, long offset) throws IOException {
+    long length = entry.length;
+    if (offset >= length) {
+      return -1;
+    }
+
+    int count = (int) Math.min(
+        Math.min(buffer.remaining(), extentSize - offset % extentSize), length - offset
+    );
+    var target = buffer.slice(buffer.position(), count);
+    long position = entry.getPosition(offset);
+    while (target.hasRemaining()) {
+      if (channel.read(target, position + target.position()) < 0) {
+        throw new IOException("Unexpected end of spill file");
+      }
+    }
+    buffer.position(buffer.position() + count);
+    return count;
+  }
+
+  /**
+   * File of store: extents in order of data and length of data.
+   */
+  private final class Entry {
+
+    private int[] extents = new int[1];
+    private int count;
+    private volatile long length;
+
+    private int streams;
+    private boolean deleted;
+
+    synchronized void acquire() {
+      streams++;
+    }
+
+    synchronized void addExtent(int extent) {
+      if (count == extents.length) {
+        extents = Arrays.copyOf(extents, 2 * count);
+      }
+      extents[count++] = extent;
+    }
+
+    synchronized long getPosition(long offset) {
+      return (long) extents[(int) (offset / extentSize)] * extentSize + offset % extentSize;
+    }
+
+    synchronized boolean isFull() {
+      return length == (long) count * extentSize;
+    }
+  }
+
+  private final class Output extends OutputStream {
+
+    private final Entry entry;
+    private boolean closed;
+
+    Output(Entry entry) {
+      this.entry = entry;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+      write(new byte[] {(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+      if (closed) {
+        throw new IOException("Stream is closed");
+      }
+
+      while (len > 0) {
+        if (entry.isFull()) {
+          entry.addExtent(allocate());
+        }
+
+        long offset = entry.length;
+        int count = (int) Math.min(len, extentSize - offset % extentSize);
+        var source = ByteBuffer.wrap(b, off, count);
+        long position = entry.getPosition(offset);
+        while (source.hasRemaining()) {
+          position += channel.write(source, position);
+        }
+
+        entry.length = offset + count;
+        off += count;
+        len -= count;
+      }
+    }
+
+    @Override
+    public void close() {
+      if (!closed) {
+        closed = true;
+        release(entry);
+      }
+    }
+  }
+
+  /**
+   * Buffered stream of file, which reads data by extents.
+   */
+  private final class Input implements RandomAccessInputStream {
+
+    private final Entry entry;
+    private final ByteBuffer buffer;
+    private boolean closed;
+
+    // offset in file of the end of data in buffer
+    private long bufferEnd;
+
+    Input(Entry entry, int bufferSize) {
+      this.entry = entry;
+      this.buffer = ByteBuffer.allocate(bufferSize).flip();
+    }
+
+    @Override
+    public long length() {
+      return entry.length;
+    }
+
+    @Override
+    public long getFilePointer() {
+      return bufferEnd - buffer.remaining();
+    }
+
+    @Override
+    public void seek(long pos) {
+      if (pos < 0) {
+        throw new IllegalArgumentException("pos must be greater than or equal to zero");
+      }
+
+      long bufferStart = bufferEnd - buffer.limit();
+      if (bufferStart <= pos && pos <= bufferEnd) {
+        buffer.position((int) (pos - bufferStart));
+      } else {
+        buffer.clear().flip();
+        bufferEnd = pos;
+      }
+    }
+
+    @Override
+    public int read() throws IOException {
+      if (!buffer.hasRemaining() && fill() <= 0) {
+        return -1;
+      }
+      return buffer.get() & 0xFF;
+    }
+
+    /**
+     * Unlike {@link java.io.InputStream#read(byte[], int, int)} read all {@code len} bytes if
+     * stream has them.
+     */
+    @Override
+    public int read(byte[] bytes, int off, int len) throws IOException {
+      if (len == 0) {
+        return 0;
+      }
+
+      int result = 0;
+      while (result < len) {
+        if (!buffer.hasRemaining()) {
+          if (len - result >= buffer.capacity()) {
+            // big block is read directly without copying through buffer
+            var target = ByteBuffer.wrap(bytes, off + result, len - result);
+            int count = SpillStore.this.read(entry, target, bufferEnd);
+            if (count <= 0) {
+              break;
+            }
+            bufferEnd += count;
+            result += count;
+            // buffer has no data before the new position
+            buffer.clear().flip();
+            continue;
+          }
+
+          if (fill() <= 0) {
+            break;
+          }
+        }
+
+        int count = Math.min(len - result, buffer.remaining());
+        buffer.get(bytes, off + result, count);
+        result += count;
+      }
+
+      return result == 0 ? -1 : result;
+    }
+
+    @Override
+    public void close() {
+      if (!closed) {
+        closed = true;
+        release(entry);
+      }
+    }
+
+    private int fill() throws IOException {
+      buffer.clear();
+      int count = SpillStore.this.read(entry, buffer, bufferEnd);
+      if (count > 0) {
+        bufferEnd += count;
+      }
+      buffer.flip();
+      return count;
+    }
+  }
+}
@@ -0,0 +1,61 @@
+package org.example.io;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Factory of streams, which opens files of {@link SpillStore} in the store and other files by
+ * delegate factory.
+ */
+@RequiredArgsConstructor
+public class SpillStreamFactory implements StreamFactory {
+
+  private final StreamFactory delegate;
+  private final SpillStore store;
+
+  @Override
+  public OutputStream getOutputStream(File file) throws FileNotFoundException {
+    return store.owns(file) ? store.getOutputStream(file) : delegate.getOutputStream(file);
+  }
+
+  @Override
+  public OutputStream getOutputStream(File file, long position) throws IOException {
+    if (store.owns(file)) {
+      throw new IOException("Spill store doesn't write file '" + file + "' from position");
+    }
+    return delegate.getOutputStream(file, position);
+  }
+
+  @Override
+  public RandomAccessInputStream getRandomAccessInputStream(File file)
+      throws FileNotFoundException {
+    return store.owns(file)
+        ? store.getInputStream(file)
+        : delegate.getRandomAccessInputStream(file);
+  }
+
+  @Override
+  public RandomAccessInputStream getRandomAccessInputStream(File file, int bufferSize)
+      throws IOException {
+    return store.owns(file)
+        ? store.getInputStream(file, bufferSize)
+        : delegate.getRandomAccessInputStream(file, bufferSize);
+  }
+
+  @Override
+  public BufferedReader getBufferedReader(Path path, Charset cs) throws IOException {
+    return delegate.getBufferedReader(path, cs);
+  }
+
+  @Override
+  public BufferedReader getBufferedReader(Path path, Charset cs, long position, long length)
+      throws IOException {
+    return delegate.getBufferedReader(path, cs, position, length);
+  }
+}
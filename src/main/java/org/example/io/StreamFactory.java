@@ -11,7 +11,20 @@ import java.nio.file.Path;
 public interface StreamFactory {
   OutputStream getOutputStream(File file) throws FileNotFoundException;
 
+  /**
+   * Open stream, which writes file from the given position without truncation of file.
+   */
+  OutputStream getOutputStream(File file, long position) throws IOException;
+
   RandomAccessInputStream getRandomAccessInputStream(File file) throws FileNotFoundException;
 
+  /**
+   * Open buffered stream, which is intended to be kept open for many sequential reads.
+   */
+  RandomAccessInputStream getRandomAccessInputStream(File file, int bufferSize) throws IOException;
+
   BufferedReader getBufferedReader(Path path, Charset cs) throws IOException;
+
+  BufferedReader getBufferedReader(Path path, Charset cs, long position, long length)
+      throws IOException;
 }
@@ -3,5 +3,25 @@ package org.example.io;
 import java.io.IOException;
 
 public interface StringDeserializer {
-  int read(RandomAccessInputStream inputStream, String[] data, int offset) throws IOException;
+  default int read(RandomAccessInputStream inputStream, String[] data, int offset)
+      throws IOException {
+    return read(inputStream, data, offset, Long.MAX_VALUE);
+  }
+
+  /**
+   * Read strings into array, until the array is full or read strings retain the given count of
+   * bytes. So the last string can exceed the count of bytes.
+   *
+   * @return offset after the last read string
+   */
+  int read(RandomAccessInputStream inputStream, String[] data, int offset, long maxBytes)
+      throws IOException;
+
+  /**
+   * Check that every record can be read without previous records, so data can be copied by raw
+   * bytes from any boundary of records.
+   */
+  default boolean hasIndependentRecords() {
+    return true;
+  }
 }
@@ -4,5 +4,10 @@ import java.io.IOException;
 import java.io.OutputStream;
 
 public interface StringSerializer {
-  void write(OutputStream stream, String[] data, int from, int to) throws IOException;
+  /**
+   * Write strings of range {@code [from; to)} into stream.
+   *
+   * @return count of written bytes
+   */
+  long write(OutputStream stream, String[] data, int from, int to) throws IOException;
 }
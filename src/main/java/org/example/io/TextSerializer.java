@@ -1,5 +1,7 @@
 package org.example.io;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
+
 import java.io.IOException;
 import java.io.OutputStream;
 import java.nio.charset.Charset;
@@ -8,18 +10,77 @@ public class TextSerializer implements StringSerializer {
 
   private final Charset charset;
   private final byte[] newLineBytes;
+  // every char is encoded into one byte, pair of surrogates is replaced by one byte
+  private final boolean singleByte;
 
   public TextSerializer(Charset charset) {
     this.charset = charset;
     this.newLineBytes = System.lineSeparator().getBytes(charset);
+    this.singleByte = charset.canEncode() && charset.newEncoder().maxBytesPerChar() == 1;
   }
 
   @Override
-  public void write(OutputStream stream, String[] data, int from, int to) throws IOException {
+  public long write(OutputStream stream, String[] data, int from, int to) throws IOException {
+    long written = 0;
     for (int i = from; i < to; i++) {
       var bytes = data[i].getBytes(charset);
       stream.write(bytes);
       stream.write(newLineBytes);
+      written += bytes.length + newLineBytes.length;
+    }
+    return written;
+  }
+
+  /**
+   * Count bytes, which are written for the string. Strings of UTF-8 and single byte charsets are
+   * counted by chars without encoding.
+   */
+  public long getLength(String value) {
+    if (charset.equals(UTF_8)) {
+      return getUtf8Length(value) + newLineBytes.length;
     }
+    if (singleByte) {
+      return value.length() - countSurrogatePairs(value) + newLineBytes.length;
+    }
+    return value.getBytes(charset).length + newLineBytes.length;
+  }
+
+  /**
+   * Count bytes of string in UTF-8. Unpaired surrogate is replaced by one byte.
+   */
+  private static long getUtf8Length(String value) {
+    int length = value.length();
+    long result = 0;
+    for (int i = 0; i < length; i++) {
+      char c = value.charAt(i);
+      if (c < 0x80) {
+        result++;
+      } else if (c < 0x800) {
+        result += 2;
+      } else if (isSurrogatePair(value, i)) {
+        result += 4;
+        i++;
+      } else {
+        result += Character.isSurrogate(c) ? 1 : 3;
+      }
+    }
+    return result;
+  }
+
+  private static int countSurrogatePairs(String value) {
+    int result = 0;
+    for (int i = 0; i < value.length(); i++) {
+      if (isSurrogatePair(value, i)) {
+        result++;
+        i++;
+      }
+    }
+    return result;
+  }
+
+  private static boolean isSurrogatePair(String value, int index) {
+    return Character.isHighSurrogate(value.charAt(index))
+        && index + 1 < value.length()
+        && Character.isLowSurrogate(value.charAt(index + 1));
   }
 }
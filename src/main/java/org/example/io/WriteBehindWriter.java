@@ -0,0 +1,190 @@
+package org.example.io;
+
+import java.io.Closeable;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import lombok.extern.log4j.Log4j2;
+import org.example.utils.ExecutorHelper;
+
+/**
+ * Write-behind pipeline: streams created by {@link #wrap(OutputStream)} serialize data into pooled
+ * direct buffers and a dedicated writer thread writes filled buffers to files. So threads, which
+ * produce data, don't wait for system calls until the pool of buffers is exhausted.
+ *
+ * <p>Every open stream can hold one partially filled buffer, so count of buffers must be greater
+ * than count of streams, which are written at the same time.
+ */
+@Log4j2
+public class WriteBehindWriter implements Closeable {
+
+  private final ExecutorService executor = Executors.newSingleThreadExecutor();
+  private final BlockingQueue<ByteBuffer> buffers;
+
+  public WriteBehindWriter(int bufferSize, int buffersCount) {
+    if (bufferSize <= 0 || buffersCount <= 0) {
+      throw new IllegalArgumentException("bufferSize and buffersCount must be greater than zero");
+    }
+
+    this.buffers = new ArrayBlockingQueue<>(buffersCount);
+    for (int i = 0; i < buffersCount; i++) {
+      buffers.add(ByteBuffer.allocateDirect(bufferSize));
+    }
+  }
+
+  public OutputStream wrap(OutputStream target) {
+    return new WriteBehindOutputStream(target);
+  }
+
+  @Override
+  public void close() {
+    if (!ExecutorHelper.close(executor)) {
+      log.error("Executor in WriteBehindWriter did not terminate");
+    }
+  }
+
+  private class WriteBehindOutputStream extends OutputStream {
+
+    private final OutputStream target;
+    private final WritableByteChannel channel;
+
+    private ByteBuffer buffer;
+    private Future<?> lastWrite;
+    private volatile IOException failure;
+    private boolean closed;
+
+    WriteBehindOutputStream(OutputStream target) {
+      this.target = target;
+      this.channel = target instanceof FileOutputStream fileStream
+          ? fileStream.getChannel()
+          : Channels.newChannel(target);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+      takeBuffer().put((byte) b);
+      if (!buffer.hasRemaining()) {
+        submit();
+      }
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+      while (len > 0) {
+        var current = takeBuffer();
+        int count = Math.min(len, current.remaining());
+        current.put(b, off, count);
+        off += count;
+        len -= count;
+
+        if (!current.hasRemaining()) {
+          submit();
+        }
+      }
+    }
+
+    @Override
+    public void flush() throws IOException {
+      checkNotClosed();
+      if (buffer != null && buffer.position() > 0) {
+        submit();
+      }
+      await();
+    }
+
+    @Override
+    public void close() throws IOException {
+      if (closed) {
+        return;
+      }
+
+      try {
+        flush();
+      } finally {
+        closed = true;
+        if (buffer != null) {
+          releaseBuffer(buffer);
+          buffer = null;
+        }
+        target.close();
+      }
+    }
+
+    private ByteBuffer takeBuffer() throws IOException {
+      checkNotClosed();
+      checkFailure();
+      if (buffer == null) {
+        try {
+          buffer = buffers.take();
+        } catch (InterruptedException ex) {
+          Thread.currentThread().interrupt();
+          throw new InterruptedIOException("Interrupted while waiting for buffer");
+        }
+      }
+      return buffer;
+    }
+
+    private void submit() {
+      final var data = buffer.flip();
+      buffer = null;
+
+      // the writer is single thread, so buffers of stream are written in order of submitting
+      lastWrite = executor.submit(() -> {
+        try {
+          if (failure == null) {
+            while (data.hasRemaining()) {
+              channel.write(data);
+            }
+          }
+        } catch (IOException ex) {
+          failure = ex;
+        } finally {
+          releaseBuffer(data);
+        }
+      });
+    }
+
+    private void await() throws IOException {
+      if (lastWrite != null) {
+        try {
+          lastWrite.get();
+        } catch (InterruptedException ex) {
+          Thread.currentThread().interrupt();
+          throw new InterruptedIOException("Interrupted while waiting for writing");
+        } catch (ExecutionException ex) {
+          throw new IOException(ex.getCause());
+        }
+        lastWrite = null;
+      }
+      checkFailure();
+    }
+
+    private void checkFailure() throws IOException {
+      var exception = failure;
+      if (exception != null) {
+        throw exception;
+      }
+    }
+
+    private void checkNotClosed() throws IOException {
+      if (closed) {
+        throw new IOException("Stream closed");
+      }
+    }
+  }
+
+  private void releaseBuffer(ByteBuffer buffer) {
+    buffer.clear();
+    buffers.add(buffer);
+  }
+}
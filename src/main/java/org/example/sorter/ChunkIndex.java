@@ -0,0 +1,112 @@
+package org.example.sorter;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Sparse index of saved sorted chunk: the first strings of blocks and positions of blocks in
+ * stream. Strings can be read from position of any block without previous data. Position of block
+ * in text of output is known, if all previous strings were counted by text serializer.
+ */
+public final class ChunkIndex {
+
+  private String[] keys = new String[8];
+  private long[] positions = new long[8];
+  private long[] textPositions = new long[8];
+  private int size;
+  private long length;
+
+  public void add(String key, long position) {
+    add(key, position, -1);
+  }
+
+  /**
+   * Add block, which starts at the given positions of stream and text of output.
+   *
+   * @param textPosition position in text of output, -1 if it isn't known
+   */
+  public void add(String key, long position, long textPosition) {
+    if (size == keys.length) {
+      keys = Arrays.copyOf(keys, 2 * size);
+      positions = Arrays.copyOf(positions, 2 * size);
+      textPositions = Arrays.copyOf(textPositions, 2 * size);
+    }
+    keys[size] = key;
+    positions[size] = position;
+    textPositions[size] = textPosition;
+    size++;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public String getKey(int block) {
+    return keys[block];
+  }
+
+  public long getPosition(int block) {
+    return positions[block];
+  }
+
+  /**
+   * Get count of bytes of output text, which are written for strings before block.
+   *
+   * @return -1 if it isn't known
+   */
+  public long getTextPosition(int block) {
+    return textPositions[block];
+  }
+
+  /**
+   * Get length of block in bytes. Data, which isn't indexed, belongs to the previous block.
+   */
+  public long getBlockLength(int block) {
+    return (block + 1 < size ? positions[block + 1] : length) - positions[block];
+  }
+
+  public long getLength() {
+    return length;
+  }
+
+  public void setLength(long length) {
+    this.length = length;
+  }
+
+  /**
+   * Find position, from which all strings, which are not less than key, are read.
+   *
+   * @param key the least string of read range, null if range is unbounded
+   * @return position of the last block, which starts before key
+   */
+  public long findPosition(String key, Comparator<String> comparator) {
+    int block = findBlock(key, comparator);
+    return block < 0 ? 0 : positions[block];
+  }
+
+  /**
+   * Find the last block, which starts before key. All strings less than key are in this block
+   * and blocks before it.
+   *
+   * @param key the least string of read range, null if range is unbounded
+   * @return -1 if no block starts before key
+   */
+  public int findBlock(String key, Comparator<String> comparator) {
+    if (key == null) {
+      return -1;
+    }
+
+    // block, which starts by string less than key, can end by strings equal to key
+    int low = 0;
+    int high = size - 1;
+    while (low <= high) {
+      int middle = (low + high) >>> 1;
+      if (comparator.compare(keys[middle], key) < 0) {
+        low = middle + 1;
+      } else {
+        high = middle - 1;
+      }
+    }
+    return high;
+  }
+}
@@ -0,0 +1,7 @@
+package org.example.sorter;
+
+/**
+ * Range of strings of sorted chunk: the least and the greatest strings.
+ */
+public record ChunkRange(String first, String last) {
+}
@@ -0,0 +1,191 @@
+package org.example.sorter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.LongStream;
+
+/**
+ * Ranges of strings of saved chunks. Chunks, whose ranges don't overlap, are chained: chain is
+ * read chunk by chunk without comparisons. Chain can be saved as a chunk without copying of data,
+ * it's only a list of files.
+ */
+class ChunkRanges {
+
+  private final Comparator<String> comparator;
+  private final Map<Long, ChunkRange> ranges = new ConcurrentHashMap<>();
+  private final Map<Long, long[]> chainedFiles = new ConcurrentHashMap<>();
+  private final Map<Long, ChunkIndex> indexes = new ConcurrentHashMap<>();
+
+  ChunkRanges(Comparator<String> comparator) {
+    this.comparator = comparator;
+  }
+
+  /**
+   * Remember range of saved chunk. It must be called before chunk is available for merging.
+   */
+  void put(long id, ChunkRange range) {
+    if (range != null) {
+      ranges.put(id, range);
+    }
+  }
+
+  /**
+   * Remember index of file of saved chunk.
+   */
+  void putIndex(long file, ChunkIndex index) {
+    if (index != null) {
+      indexes.put(file, index);
+    }
+  }
+
+  /**
+   * Take index of file. Indexes of files are forgotten, when files of chunk are taken.
+   *
+   * @return null if index is unknown
+   */
+  ChunkIndex takeIndex(long file) {
+    return indexes.remove(file);
+  }
+
+  /**
+   * Save chain as chunk with the given id.
+   */
+  void putChain(long id, Chain chain) {
+    var files = Arrays.stream(chain.ids())
+        .mapToObj(this::removeFiles)
+        .flatMapToLong(LongStream::of)
+        .toArray();
+    chainedFiles.put(id, files);
+    put(id, chain.range());
+  }
+
+  /**
+   * Take files of chunk in order of its strings. Saved chunk has one file, chain has several.
+   */
+  long[] takeFiles(long id) {
+    var files = removeFiles(id);
+    for (long file : files) {
+      indexes.remove(file);
+    }
+    return files;
+  }
+
+  /**
+   * Get files of chunk as {@link #takeFiles(long)}, but keep them.
+   */
+  long[] getFiles(long id) {
+    var files = chainedFiles.get(id);
+    return files == null ? new long[] {id} : files;
+  }
+
+  /**
+   * Get files of all chunks of chains.
+   */
+  long[] getFiles(List<Chain> chains) {
+    return chains.stream()
+        .flatMapToLong(chain -> LongStream.of(chain.ids()))
+        .flatMap(id -> LongStream.of(getFiles(id)))
+        .toArray();
+  }
+
+  private long[] removeFiles(long id) {
+    var files = chainedFiles.remove(id);
+    return files == null ? new long[] {id} : files;
+  }
+
+  /**
+   * Split chunks into the least count of chains. Chunk with unknown range is a chain of one
+   * chunk. Ranges of chunks are forgotten.
+   */
+  List<Chain> chain(long[] ids) {
+    List<Chain> result = new ArrayList<>(ids.length);
+    List<Member> members = new ArrayList<>(ids.length);
+    for (long id : ids) {
+      var range = ranges.remove(id);
+      if (range == null) {
+        result.add(new Chain(new long[] {id}, null));
+      } else {
+        members.add(new Member(id, range));
+      }
+    }
+    members.sort((a, b) -> comparator.compare(a.range.first(), b.range.first()));
+
+    // chunk is appended to the chain with the least last string, if chunk starts after it
+    var chains = new PriorityQueue<Builder>(
+        (a, b) -> comparator.compare(a.range.last(), b.range.last())
+    );
+    for (var member : members) {
+      var chain = chains.peek();
+      if (chain != null && comparator.compare(chain.range.last(), member.range.first()) <= 0) {
+        chains.poll();
+        chain.append(member);
+      } else {
+        chain = new Builder(member);
+      }
+      chains.add(chain);
+    }
+
+    for (var chain : chains) {
+      result.add(new Chain(chain.ids.stream().mapToLong(Long::longValue).toArray(), chain.range));
+    }
+    return result;
+  }
+
+  /**
+   * Get range of merged chains.
+   *
+   * @return null if range of some chain is unknown
+   */
+  ChunkRange union(List<Chain> chains) {
+    ChunkRange result = null;
+    for (var chain : chains) {
+      var range = chain.range();
+      if (range == null) {
+        return null;
+      }
+
+      if (result == null) {
+        result = range;
+      } else {
+        result = new ChunkRange(
+            comparator.compare(range.first(), result.first()) < 0 ? range.first() : result.first(),
+            comparator.compare(range.last(), result.last()) > 0 ? range.last() : result.last()
+        );
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Chunks, which are read one by one.
+   *
+   * @param ids ids of chunks in order of their strings
+   * @param range range of chain, null if it's unknown
+   */
+  record Chain(long[] ids, ChunkRange range) {
+  }
+
+  private record Member(long id, ChunkRange range) {
+  }
+
+  private static class Builder {
+
+    private final List<Long> ids = new ArrayList<>();
+    private ChunkRange range;
+
+    Builder(Member member) {
+      ids.add(member.id());
+      range = member.range();
+    }
+
+    void append(Member member) {
+      ids.add(member.id());
+      range = new ChunkRange(range.first(), member.range().last());
+    }
+  }
+}
@@ -1,9 +1,6 @@
 package org.example.sorter;
 
 import java.util.Comparator;
-import java.util.PriorityQueue;
-import java.util.Queue;
-import lombok.AllArgsConstructor;
 import lombok.RequiredArgsConstructor;
 
 @RequiredArgsConstructor
@@ -43,59 +40,50 @@ public class ChunksMerger {
       return;
     }
 
-    var priorityQueue = new PriorityQueue<QueueItem>(
-        chunks.length, (a, b) -> comparator.compare(a.data, b.data)
-    );
-
+    var keys = new String[chunks.length];
+    int activeChunks = 0;
     for (int i = 0; i < chunks.length; i++) {
-      var data = chunks[i].pop();
-      if (data != null) {
-        priorityQueue.add(new QueueItem(data, i));
+      keys[i] = chunks[i].pop();
+      if (keys[i] != null) {
+        activeChunks++;
       } else {
         chunks[i] = null; // for GC
       }
     }
 
-    switch (priorityQueue.size()) {
-      case 0:
-        return;
-      case 1: {
-        var item = priorityQueue.poll();
-        outputChunk.add(item.data);
-        outputChunk.copyAndSave(chunks[item.index]);
-        break;
-      }
-      case 2: {
-        mergeOfTwoArrays(chunks, priorityQueue);
-        break;
+    if (activeChunks <= 2) {
+      mergeRemainingChunks(chunks, keys, activeChunks);
+      return;
+    }
+
+    var tree = new LoserTree(keys, comparator);
+    int previousWinner = -1;
+    do {
+      int winner = tree.getWinner();
+
+      outputChunk.add(tree.getKey(winner));
+
+      String data;
+      if (winner == previousWinner) {
+        // the chunk has won twice in a row, so copy a block of its strings less than all others
+        final var nextString = tree.getRunnerUpKey();
+        data = outputChunk.copyWithSaveUtil(
+            chunks[winner], v -> comparator.compare(v, nextString) < 0
+        );
+      } else {
+        data = chunks[winner].pop();
       }
-      default: {
-        do {
-          var item = priorityQueue.poll();
-
-          // objects can't be null because priorityQueue.size() > 3
-          //noinspection ConstantConditions
-          final var nextString = priorityQueue.peek().data;
-          //noinspection ConstantConditions
-          var data = item.data;
-
-          outputChunk.add(data);
-          data = outputChunk.copyWithSaveUtil(
-              chunks[item.index], v -> comparator.compare(v, nextString) < 0
-          );
-          if (data != null) {
-            item.data = data;
-            priorityQueue.add(item);
-          } else {
-            chunks[item.index] = null; // for GC
-            if (priorityQueue.size() == 2) {
-              mergeOfTwoArrays(chunks, priorityQueue);
-              return;
-            }
-          }
-        } while (true);
+      previousWinner = winner;
+
+      tree.replaceWinner(data);
+      if (data == null) {
+        chunks[winner] = null; // for GC
+        if (--activeChunks == 2) {
+          mergeRemainingChunks(chunks, keys, activeChunks);
+          return;
+        }
       }
-    }
+    } while (true);
   }
 
   private void merge(
@@ -124,11 +112,32 @@ public class ChunksMerger {
     } while (true);
   }
 
-  private void mergeOfTwoArrays(InputChunk[] chunks, Queue<QueueItem> queue) {
-    var first = queue.poll();
-    var second = queue.poll();
-    //noinspection ConstantConditions
-    merge(chunks[first.index], first.data, chunks[second.index], second.data);
+  private void mergeRemainingChunks(InputChunk[] chunks, String[] keys, int activeChunks) {
+    int first = -1;
+    int second = -1;
+    for (int i = 0; i < keys.length && second < 0; i++) {
+      if (keys[i] != null) {
+        if (first < 0) {
+          first = i;
+        } else {
+          second = i;
+        }
+      }
+    }
+
+    switch (activeChunks) {
+      case 0:
+        return;
+      case 1:
+        outputChunk.add(keys[first]);
+        outputChunk.copyAndSave(chunks[first]);
+        break;
+      case 2:
+        merge(chunks[first], keys[first], chunks[second], keys[second]);
+        break;
+      default:
+        throw new IllegalArgumentException("activeChunks must be less than 3");
+    }
   }
 
   private String copyUtilHasOrder(
@@ -145,11 +154,4 @@ public class ChunksMerger {
     }
     return nextString;
   }
-
-  @AllArgsConstructor
-  private static class QueueItem {
-    private String data;
-
-    private final int index;
-  }
 }
@@ -0,0 +1,140 @@
+package org.example.sorter;
+
+import static org.example.sorter.SortState.MERGE;
+import static org.example.sorter.SortState.PARTITION_SORT;
+import static org.example.sorter.parameters.DefaultParameters.MIN_AVAILABLE_CHUNKS;
+import static org.example.sorter.parameters.DefaultParameters.MIN_CHUNK_SIZE;
+
+import java.util.Arrays;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.LongStream;
+import lombok.RequiredArgsConstructor;
+import org.example.concurrent.BlockingWeightedBag;
+import org.example.context.ApplicationContext;
+import org.example.progressbar.ProgressBar;
+import org.example.sorter.chunks.ChunkFactory;
+import org.example.sorter.parameters.ChunkParameters;
+
+/**
+ * Merges of saved chunks, while input is partitioned, so threads merge, while input is read.
+ * Chunks are merged only while saved chunks need intermediate merges anyway, so early merges
+ * don't add levels of merges. Merge takes one work unit of partition and shares its memory by
+ * chunks of the merge.
+ */
+@RequiredArgsConstructor
+class EarlyMerger {
+
+  private final BlockingWeightedBag bag;
+  private final ChunkRanges chunkRanges;
+  private final AtomicInteger workCounter;
+  private final ChunkParameters chunkParameters;
+  private final ChunkFactory chunkFactory;
+  private final ProgressBar progressBar;
+  private final Executor executor;
+  private final ApplicationContext context;
+
+  // saved chunks and chunks, which will be saved by started merges
+  private long chunks;
+  private long mergedChunks;
+  private boolean stopped;
+
+  /**
+   * Count saved chunk and start merge, if it's needed.
+   */
+  void saved() {
+    synchronized (this) {
+      chunks++;
+    }
+    tryMerge();
+  }
+
+  /**
+   * Stop starting of merges. Started merges are finished asynchronously.
+   *
+   * @return count of chunks, which are merged into others
+   */
+  synchronized long stop() {
+    stopped = true;
+    return mergedChunks;
+  }
+
+  private void tryMerge() {
+    int allowableChunks = chunkParameters.getAllowableChunks(MERGE);
+    long[] ids;
+    synchronized (this) {
+      if (stopped || chunks < allowableChunks || allowableChunks < MIN_AVAILABLE_CHUNKS) {
+        return;
+      }
+
+      int inputs = chunkParameters.getAvailableChunks(MERGE, chunks) - 1;
+      // the merged chunks still need a merge before the final one
+      if (chunks - (inputs - 1) < allowableChunks - 1) {
+        return;
+      }
+
+      if (workCounter.incrementAndGet() >= chunkParameters.getAllowableChunks(PARTITION_SORT)) {
+        workCounter.decrementAndGet();
+        return;
+      }
+
+      var taken = bag.tryTakes(inputs);
+      if (taken == null) {
+        workCounter.decrementAndGet();
+        return;
+      }
+      ids = taken.toArray();
+      chunks -= inputs - 1;
+      mergedChunks += inputs - 1;
+    }
+
+    executor.execute(() -> merge(ids));
+  }
+
+  private void merge(long[] ids) {
+    var chains = chunkRanges.chain(ids);
+    progressBar.stepBy(ids.length - (long) chains.size());
+
+    long id;
+    if (chains.size() == 1) {
+      // ranges of chunks don't overlap, so the chain is saved as chunk without copying of data
+      id = context.getFileSystemContext().nextTemporaryFile();
+      chunkRanges.putChain(id, chains.get(0));
+    } else {
+      // memory of work unit of partition is shared by chunks of the merge
+      int chunkSize = Math.max(
+          MIN_CHUNK_SIZE,
+          chunkParameters.getChunkSize(
+              PARTITION_SORT, chunkParameters.getAllowableChunks(PARTITION_SORT)
+          ) / (chains.size() + 1)
+      );
+
+      var mergedFiles = chunkRanges.getFiles(chains);
+      var readAheadScheduler = chunkFactory.createReadAheadScheduler();
+      var inputChunks = new InputChunk[chains.size()];
+      for (int i = 0; i < inputChunks.length; i++) {
+        var files = Arrays.stream(chains.get(i).ids())
+            .mapToObj(chunkRanges::takeFiles)
+            .flatMapToLong(LongStream::of)
+            .toArray();
+        inputChunks[i] = chunkFactory.createSizedInputChunk(
+            chunkSize, files, readAheadScheduler
+        );
+      }
+
+      var outputChunk = chunkFactory.createSizedTemporaryOutputChunk(chunkSize, mergedFiles);
+      var merger = new ChunksMerger(outputChunk, chunkFactory.getComparator());
+      merger.merge(inputChunks);
+      outputChunk.close();
+
+      id = outputChunk.getId();
+      chunkRanges.put(id, chunkRanges.union(chains));
+      chunkRanges.putIndex(id, outputChunk.getSavedIndex());
+      progressBar.stepBy(chains.size() - 1L);
+    }
+
+    workCounter.decrementAndGet();
+    bag.add(id);
+    tryMerge();
+  }
+}
@@ -3,30 +3,46 @@ package org.example.sorter;
 import static org.example.sorter.SortState.MERGE;
 import static org.example.sorter.SortState.PARTITION_SORT;
 import static org.example.sorter.SortState.SAVE_OUTPUT;
+import static org.example.sorter.parameters.DefaultParameters.PARTITION_SAMPLE_SIZE;
+import static org.example.sorter.parameters.DefaultParameters.WRITE_BEHIND_BUFFER_SIZE;
 
 import java.io.Closeable;
+import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.nio.charset.Charset;
 import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
+import java.util.List;
 import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
+import java.util.stream.LongStream;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
 import org.example.concurrent.BlockingBag;
-import org.example.concurrent.BlockingSegments;
+import org.example.concurrent.BlockingWeightedBag;
 import org.example.concurrent.NonAsyncExecutorService;
 import org.example.context.ApplicationContext;
+import org.example.io.RandomAccessInputStream;
+import org.example.io.WriteBehindWriter;
 import org.example.progressbar.ProgressBar;
 import org.example.progressbar.ProgressBarGroup;
 import org.example.sorter.chunks.ChunkFactory;
+import org.example.sorter.chunks.SortStatistics;
 import org.example.sorter.parameters.ChunkParameters;
+import org.example.sorter.parameters.SortOptions;
 import org.example.utils.ExecutorHelper;
+import org.example.utils.StreamHelper;
+import org.example.utils.StringHelper;
 
 @Log4j2
 public class FileSorter implements Closeable {
@@ -37,6 +53,7 @@ public class FileSorter implements Closeable {
   private final Charset inputCharset;
   private final ExecutorService executor;
   private final ApplicationContext context;
+  private final int threadsCount;
 
   public FileSorter(Path input, Charset charset, int threadsCount, ApplicationContext context) {
     if (threadsCount < 1) {
@@ -46,6 +63,7 @@ public class FileSorter implements Closeable {
     this.input = input;
     this.inputCharset = charset;
     this.context = context;
+    this.threadsCount = threadsCount;
 
     if (threadsCount == 1) {
       this.executor = new NonAsyncExecutorService();
@@ -64,6 +82,17 @@ public class FileSorter implements Closeable {
       Path output,
       Charset charset,
       boolean verbose
+  ) throws InterruptedException {
+    sort(chunkParameters, comparator, output, charset, new SortOptions(), verbose);
+  }
+
+  public void sort(
+      ChunkParameters chunkParameters,
+      Comparator<String> comparator,
+      Path output,
+      Charset charset,
+      SortOptions options,
+      boolean verbose
   ) throws InterruptedException {
     try {
       context.getFileSystemContext().createTemporaryDirectory();
@@ -73,8 +102,21 @@ public class FileSorter implements Closeable {
     }
 
     var workCounter = new AtomicInteger(0);
-    BlockingBag chunksForProcessing = new BlockingSegments();
-
+    var chunkRanges = new ChunkRanges(comparator);
+    // the smallest chunks are merged first, so big chunks are rewritten less often
+    var chunksForProcessing = new BlockingWeightedBag(id -> getChunkSize(chunkRanges, id));
+
+    var readAheadExecutor = options.getReadAheadThreads() > 0
+        ? Executors.newFixedThreadPool(options.getReadAheadThreads())
+        : null;
+    var writeBehindWriter = options.isWriteBehind()
+        ? new WriteBehindWriter(
+            Math.max(chunkParameters.getBufferSize(), WRITE_BEHIND_BUFFER_SIZE),
+            2 * threadsCount + 2
+        )
+        : null;
+
+    var sortStatistics = new SortStatistics();
     try (var progressBarGroup = new ProgressBarGroup()) {
       var progressBar = progressBarGroup.createProgressBar(
           PROGRESS_BAR_TASK_NAME, /* initialMax = */ -1
@@ -82,7 +124,15 @@ public class FileSorter implements Closeable {
 
       var outputFile = output.toFile();
       var chunkFactory = new ChunkFactory(
-          outputFile, charset, chunkParameters, comparator, context
+          outputFile,
+          charset,
+          chunkParameters,
+          comparator,
+          options,
+          readAheadExecutor,
+          writeBehindWriter,
+          sortStatistics,
+          context
       );
 
       if (!context.getFileSystemContext().delete(outputFile)) {
@@ -90,27 +140,83 @@ public class FileSorter implements Closeable {
         return;
       }
 
+      var earlyMerger = options.isEarlyMerge()
+          ? new EarlyMerger(
+              chunksForProcessing,
+              chunkRanges,
+              workCounter,
+              chunkParameters,
+              chunkFactory,
+              progressBar,
+              executor,
+              context
+          )
+          : null;
+
       long chunksCount = sortChunks(
           chunksForProcessing,
+          chunkRanges,
           workCounter,
           chunkParameters,
           chunkFactory,
+          earlyMerger,
+          output,
+          charset,
+          options,
           progressBar,
           verbose
       );
+      long mergedChunks = earlyMerger == null ? 0 : earlyMerger.stop();
       if (chunksCount <= 1) {
         return;
       }
 
       mergeChunks(
           chunksForProcessing,
+          chunkRanges,
           workCounter,
           chunkParameters,
           chunksCount,
+          mergedChunks,
           chunkFactory,
+          options.isParallelMerge() && hasParallelMergeSupport(options)
+              ? new ParallelMerger(
+                  chunkRanges,
+                  chunkFactory,
+                  output,
+                  threadsCount,
+                  executor,
+                  context
+              )
+              : null,
+          options.isPipelinedMerge()
+              ? new PipelinedMerger(
+                  chunkRanges, chunkFactory, chunkParameters, threadsCount, context
+              )
+              : null,
+          options.isRawMerge() && hasRawMergeSupport(options, comparator)
+              ? new RawMerger(
+                  chunkRanges,
+                  chunkFactory,
+                  chunkParameters.getBufferSize(),
+                  options.isCompressTemporaryFiles(),
+                  context
+              )
+              : null,
           progressBar,
           verbose
       );
+    } finally {
+      if (readAheadExecutor != null && !ExecutorHelper.close(readAheadExecutor)) {
+        log.error("Read-ahead executor in FileSorter did not terminate");
+      }
+      if (writeBehindWriter != null) {
+        writeBehindWriter.close();
+      }
+      if (verbose) {
+        // progress bar is closed, so report doesn't break its line
+        sortStatistics.print(System.out);
+      }
     }
   }
 
@@ -123,48 +229,48 @@ public class FileSorter implements Closeable {
 
   private long sortChunks(
       BlockingBag chunksForProcessing,
+      ChunkRanges chunkRanges,
       AtomicInteger workCounter,
       ChunkParameters chunkParameters,
       ChunkFactory chunkFactory,
+      EarlyMerger earlyMerger,
+      Path output,
+      Charset charset,
+      SortOptions options,
       ProgressBar progressBar,
       boolean verbose
-  ) {
-    var allowableChunks = chunkParameters.getAllowableChunks(PARTITION_SORT);
-    if (workCounter.incrementAndGet() > allowableChunks) {
-      throw new IllegalArgumentException("allowableChunks is too small");
-    }
-
+  ) throws InterruptedException {
     setState(PARTITION_SORT, /* maxHint = */ -1L, progressBar, verbose);
 
-    var sortableOutputChunk = chunkFactory.createSortableOutputChunk(allowableChunks);
-    long chunkNumber = 1L;
-
-    var sortAndSaveAction = new SortAndSaveAction(workCounter, chunksForProcessing, progressBar);
-
-    try (var bufferedReader = context.getStreamFactory().getBufferedReader(input, inputCharset)) {
-      String line;
-
-      while ((line = bufferedReader.readLine()) != null) {
-        chunkParameters.addStringLength(line.length());
-
-        if (!sortableOutputChunk.add(line)) {
-          allowableChunks = chunkParameters.getAllowableChunks(PARTITION_SORT);
-          if (workCounter.incrementAndGet() < allowableChunks) {
-            final var chunk = sortableOutputChunk;
-            executor.submit(() -> sortAndSaveAction.accept(chunk));
-          } else {
-            sortAndSaveAction.accept(sortableOutputChunk);
-          }
-
-          sortableOutputChunk = chunkFactory.createSortableOutputChunk(allowableChunks);
-          chunkNumber++;
-
-          if (!sortableOutputChunk.add(line)) {
-            throw new IllegalArgumentException("Bad chunk was created");
-          }
-        }
+    var sortAndSaveAction = new SortAndSaveAction(
+        workCounter,
+        chunksForProcessing,
+        chunkRanges,
+        earlyMerger == null ? () -> { } : earlyMerger::saved,
+        progressBar
+    );
+    var partitioner = new Partitioner(
+        workCounter,
+        chunkParameters,
+        chunkFactory,
+        sortAndSaveAction,
+        options.isReplacementSelection(),
+        options.isNaturalRuns(),
+        output,
+        charset,
+        inputCharset,
+        executor,
+        context
+    );
+
+    List<OutputChunk> lastChunks;
+    try {
+      if (options.isParallelPartition() && hasParallelPartitionSupport()) {
+        lastChunks = partitionByRanges(workCounter, chunkParameters, partitioner);
+      } else {
+        lastChunks = List.of(partition(workCounter, chunkParameters, partitioner));
       }
-    } catch (NoSuchFileException ex) {
+    } catch (NoSuchFileException | FileNotFoundException ex) {
       System.err.println("Input file '" + input + "' not found");
       return 0;
     } catch (IOException ex) {
@@ -173,23 +279,178 @@ public class FileSorter implements Closeable {
       return 0;
     }
 
-    if (chunkNumber == 1) {
+    var chunks = lastChunks.stream().filter(chunk -> !chunk.isEmpty()).toList();
+    workCounter.addAndGet(chunks.size() - lastChunks.size());
+
+    // Every saved chunk was followed by at least one line, so a single chunk is never saved
+    long chunkNumber = partitioner.getSavedChunks() + chunks.size();
+    if (chunkNumber <= 1) {
       setState(SAVE_OUTPUT, /* maxHint = */ 1L, progressBar, verbose);
-      sortableOutputChunk.setId(chunkFactory.getFinalOutputChunkId());
-      sortableOutputChunk.setStringSerializer(chunkFactory.getTextSerializer());
+      for (var chunk : chunks) {
+        chunk.setId(chunkFactory.getFinalOutputChunkId());
+        chunk.setStringSerializer(chunkFactory.getTextSerializer());
+      }
     }
 
-    sortAndSaveAction.accept(sortableOutputChunk);
+    chunks.forEach(sortAndSaveAction);
 
     return chunkNumber;
   }
 
+  private OutputChunk partition(
+      AtomicInteger workCounter, ChunkParameters chunkParameters, Partitioner partitioner
+  ) throws IOException {
+    var allowableChunks = chunkParameters.getAllowableChunks(PARTITION_SORT);
+    if (workCounter.incrementAndGet() > allowableChunks) {
+      throw new IllegalArgumentException("allowableChunks is too small");
+    }
+
+    try (var bufferedReader = context.getStreamFactory().getBufferedReader(input, inputCharset)) {
+      return partitioner.partition(bufferedReader, allowableChunks, /* wholeInput = */ true);
+    }
+  }
+
+  private boolean hasParallelPartitionSupport() {
+    if (StreamHelper.hasSingleByteLineSeparators(inputCharset)) {
+      return true;
+    }
+
+    log.warn("Parallel partition isn't supported for charset '{}'", inputCharset);
+    return false;
+  }
+
+  private boolean hasParallelMergeSupport(SortOptions options) {
+    if (threadsCount == 1) {
+      return false;
+    }
+
+    if (options.isCompressTemporaryFiles()) {
+      // seeking in compressed file reads all blocks before position
+      log.warn("Parallel merge isn't supported for compressed temporary files");
+      return false;
+    }
+    return true;
+  }
+
+  private boolean hasRawMergeSupport(SortOptions options, Comparator<String> comparator) {
+    if (comparator != Comparator.<String>naturalOrder()) {
+      log.warn("Raw merge supports only natural order of strings");
+      return false;
+    }
+
+    if (options.isFrontCoding()) {
+      // front-coded record refers to the previous record
+      log.warn("Raw merge isn't supported for front-coded temporary files");
+      return false;
+    }
+    return true;
+  }
+
+  private List<OutputChunk> partitionByRanges(
+      AtomicInteger workCounter, ChunkParameters chunkParameters, Partitioner partitioner
+  ) throws IOException, InterruptedException {
+    int allowableChunks;
+    long[] bounds;
+    try (var file = context.getStreamFactory().getRandomAccessInputStream(input.toFile())) {
+      sampleStringSize(file, chunkParameters);
+
+      allowableChunks = chunkParameters.getAllowableChunks(PARTITION_SORT);
+      bounds = StreamHelper.getLineBoundaries(file, Math.min(threadsCount, allowableChunks));
+    }
+
+    // pairs of position and length of non-empty ranges
+    List<long[]> ranges = new ArrayList<>();
+    for (int i = 0; i + 1 < bounds.length; i++) {
+      if (bounds[i] < bounds[i + 1]) {
+        ranges.add(new long[] {bounds[i], bounds[i + 1] - bounds[i]});
+      }
+    }
+
+    int workers = ranges.size();
+    if (workers == 0) {
+      return List.of();
+    }
+
+    if (workCounter.addAndGet(workers) > allowableChunks) {
+      throw new IllegalArgumentException("allowableChunks is too small");
+    }
+
+    List<Future<OutputChunk>> futures = new ArrayList<>(workers - 1);
+    for (var range : ranges.subList(1, workers)) {
+      futures.add(executor.submit(() -> partitionRange(partitioner, range, allowableChunks)));
+    }
+
+    List<OutputChunk> result = new ArrayList<>(workers);
+    Throwable failure = null;
+    try {
+      result.add(partitionRange(partitioner, ranges.get(0), allowableChunks));
+    } catch (IOException | RuntimeException ex) {
+      failure = ex;
+    }
+
+    for (var future : futures) {
+      try {
+        result.add(future.get());
+      } catch (ExecutionException ex) {
+        if (failure == null) {
+          failure = ex.getCause();
+        }
+      }
+    }
+
+    if (failure instanceof IOException ex) {
+      throw ex;
+    } else if (failure instanceof RuntimeException ex) {
+      throw ex;
+    } else if (failure != null) {
+      throw new IllegalStateException(failure);
+    }
+
+    return result;
+  }
+
+  private OutputChunk partitionRange(Partitioner partitioner, long[] range, int allowableChunks)
+      throws IOException {
+    var streamFactory = context.getStreamFactory();
+    try (var reader = streamFactory.getBufferedReader(input, inputCharset, range[0], range[1])) {
+      return partitioner.partition(reader, allowableChunks, /* wholeInput = */ false);
+    }
+  }
+
+  private static void sampleStringSize(
+      RandomAccessInputStream file, ChunkParameters chunkParameters
+  ) throws IOException {
+    var buffer = new byte[PARTITION_SAMPLE_SIZE];
+    int count = file.read(buffer, 0, buffer.length);
+
+    long lines = 0;
+    int end = 0;
+    for (int i = 0; i < count; i++) {
+      if (buffer[i] == '\n') {
+        lines++;
+        end = i + 1;
+      }
+    }
+
+    if (lines != 0) {
+      // bytes of sample are taken as Latin-1 chars
+      chunkParameters.addStringSizes(
+          lines * StringHelper.getRetainedSize((int) ((end - lines) / lines)), lines
+      );
+    }
+  }
+
   private void mergeChunks(
       BlockingBag chunksForProcessing,
+      ChunkRanges chunkRanges,
       AtomicInteger workCounter,
       ChunkParameters chunkParameters,
       long remainingChunks,
+      long mergedChunks,
       ChunkFactory chunkFactory,
+      ParallelMerger parallelMerger,
+      PipelinedMerger pipelinedMerger,
+      RawMerger rawMerger,
       ProgressBar progressBar,
       boolean verbose
   ) throws InterruptedException {
@@ -199,10 +460,29 @@ public class FileSorter implements Closeable {
     }
 
     setState(MERGE, /* maxHint = */ 2L * remainingChunks, progressBar, verbose);
+    // chunks merged while partition
+    remainingChunks -= mergedChunks;
 
     int allowableChunks = chunkParameters.getAllowableChunks(MERGE);
 
     do {
+      // the remaining chunks need several levels of merges, which are replaced by one pass
+      int pipelineChunkSize = pipelinedMerger != null
+          && remainingChunks >= chunkParameters.getAllowableChunks(MERGE)
+          ? pipelinedMerger.getChunkSize(remainingChunks)
+          : 0;
+      if (pipelineChunkSize > 0) {
+        setState(SAVE_OUTPUT, progressBar, verbose);
+
+        var ids = chunksForProcessing.takes((int) remainingChunks).toArray();
+        var chains = chunkRanges.chain(ids);
+        progressBar.stepBy(ids.length - (long) chains.size());
+
+        pipelinedMerger.merge(chains, pipelineChunkSize);
+        progressBar.stepBy(chains.size() - 1L);
+        break;
+      }
+
       final int availableChunks = chunkParameters.getAvailableChunks(MERGE, remainingChunks);
       int curAvailableChunks;
       Runnable counterDecrementAction = () -> workCounter.addAndGet(-availableChunks);
@@ -223,21 +503,68 @@ public class FileSorter implements Closeable {
       }
 
       remainingChunks -= curAvailableChunks - 2;
-      var chunks = getInputSortedChunks(curAvailableChunks - 1, chunkFactory, chunksForProcessing);
+      var ids = chunksForProcessing.takes(curAvailableChunks - 1).toArray();
+      var chains = chunkRanges.chain(ids);
+      // chained chunks are read one by one without comparisons
+      progressBar.stepBy(ids.length - (long) chains.size());
+
+      if (remainingChunks > 1 && chains.size() == 1) {
+        // ranges of chunks don't overlap, so the chain is saved as chunk without copying of data
+        var id = context.getFileSystemContext().nextTemporaryFile();
+        chunkRanges.putChain(id, chains.get(0));
+        counterDecrementAction.run();
+        chunksForProcessing.add(id);
+        continue;
+      }
+
       if (remainingChunks > 1) {
-        var action = new IntermediaMergeChunksAction(
-            chunks,
-            chunkFactory,
-            chunksForProcessing,
-            counterDecrementAction,
-            progressBar
-        );
-        mergeAction.accept(action);
+        final int ranges = parallelMerger == null ? 1 : parallelMerger.startMerge();
+        final Runnable finishAction = parallelMerger == null
+            ? counterDecrementAction
+            : () -> {
+              parallelMerger.finishMerge();
+              counterDecrementAction.run();
+            };
+
+        if (ranges > 1) {
+          mergeAction.accept(() -> {
+            long id = parallelMerger.merge(chains, ranges);
+            finishAction.run();
+            progressBar.stepBy(chains.size() - 1L);
+            chunksForProcessing.add(id);
+          });
+        } else if (rawMerger != null) {
+          mergeAction.accept(() -> {
+            long id = rawMerger.merge(chains);
+            finishAction.run();
+            progressBar.stepBy(chains.size() - 1L);
+            chunksForProcessing.add(id);
+          });
+        } else {
+          var mergedFiles = chunkRanges.getFiles(chains);
+          var action = new IntermediaMergeChunksAction(
+              createInputChunks(chains, chunkRanges, chunkFactory),
+              mergedFiles,
+              chunkRanges.union(chains),
+              chunkFactory,
+              chunksForProcessing,
+              chunkRanges,
+              finishAction,
+              progressBar
+          );
+          mergeAction.accept(action);
+        }
+      } else if (parallelMerger != null) {
+        setState(SAVE_OUTPUT, progressBar, verbose);
+
+        parallelMerger.mergeFinal(chains);
+        counterDecrementAction.run();
+        progressBar.stepBy(chains.size() - 1L);
       } else {
         setState(SAVE_OUTPUT, progressBar, verbose);
 
         var action = new FinalMergeChunksAction(
-            chunks,
+            createInputChunks(chains, chunkRanges, chunkFactory),
             chunkFactory,
             counterDecrementAction,
             progressBar
@@ -250,14 +577,28 @@ public class FileSorter implements Closeable {
     progressBar.step();
   }
 
-  private InputChunk[] getInputSortedChunks(
-      int count, ChunkFactory chunkFactory, BlockingBag chunksForProcessing
-  ) throws InterruptedException {
-    var it = chunksForProcessing.takes(count).iterator();
+  private long getChunkSize(ChunkRanges chunkRanges, long id) {
+    var fileSystemContext = context.getFileSystemContext();
+    long result = 0;
+    for (long file : chunkRanges.getFiles(id)) {
+      result += fileSystemContext.length(fileSystemContext.getTemporaryFile(file));
+    }
+    return result;
+  }
 
+  private InputChunk[] createInputChunks(
+      List<ChunkRanges.Chain> chains, ChunkRanges chunkRanges, ChunkFactory chunkFactory
+  ) {
+    var readAheadScheduler = chunkFactory.createReadAheadScheduler();
+
+    int count = chains.size();
     var chunks = new InputChunk[count];
-    for (int i = 0; it.hasNext(); i++) {
-      chunks[i] = chunkFactory.createInputSortedChunk(MERGE, count + 1, it.nextLong());
+    for (int i = 0; i < count; i++) {
+      var files = Arrays.stream(chains.get(i).ids())
+          .mapToObj(chunkRanges::takeFiles)
+          .flatMapToLong(LongStream::of)
+          .toArray();
+      chunks[i] = chunkFactory.createInputSortedChunk(MERGE, count + 1, files, readAheadScheduler);
     }
 
     return chunks;
@@ -285,6 +626,7 @@ public class FileSorter implements Closeable {
     ) {
       var merger = new ChunksMerger(outputChunk, comparator);
       merger.merge(chunks);
+      outputChunk.close();
 
       counterAction.run();
       progressBar.stepBy(chunks.length - 1L);
@@ -295,17 +637,24 @@ public class FileSorter implements Closeable {
   private static class IntermediaMergeChunksAction extends MergeChunksAction implements Runnable {
 
     private final InputChunk[] chunks;
+    private final long[] mergedFiles;
+    private final ChunkRange range;
     private final ChunkFactory chunkFactory;
     private final BlockingBag bag;
+    private final ChunkRanges chunkRanges;
     private final Runnable counterAction;
     private final ProgressBar progressBar;
 
     @Override
     public void run() {
-      var outputChunk = chunkFactory.createTemporaryOutputSortedChunk(chunks.length + 1);
+      var outputChunk = chunkFactory.createTemporaryOutputSortedChunk(
+          chunks.length + 1, mergedFiles
+      );
 
       merge(outputChunk, chunks, chunkFactory.getComparator(), counterAction, progressBar);
 
+      chunkRanges.put(outputChunk.getId(), range);
+      chunkRanges.putIndex(outputChunk.getId(), outputChunk.getSavedIndex());
       bag.add(outputChunk.getId());
     }
   }
@@ -331,14 +680,20 @@ public class FileSorter implements Closeable {
 
     private final AtomicInteger counter;
     private final BlockingBag bag;
+    private final ChunkRanges chunkRanges;
+    private final Runnable savedAction;
     private final ProgressBar progressBar;
 
     @Override
     public void accept(OutputChunk chunk) {
       chunk.save();
+      chunk.close();
 
       counter.decrementAndGet();
+      chunkRanges.put(chunk.getId(), chunk.getSavedRange());
+      chunkRanges.putIndex(chunk.getId(), chunk.getSavedIndex());
       bag.add(chunk.getId());
+      savedAction.run();
 
       progressBar.step();
     }
@@ -0,0 +1,135 @@
+package org.example.sorter;
+
+import java.util.Comparator;
+
+/**
+ * Tournament tree of losers for k-way merge. Leaves are indexes of inputs, which are compared by
+ * their current values. Tree of strings keeps the values in {@code keys}, where {@code null} means
+ * exhausted chunk (the greatest value), other trees compare leaves by the given order. Replacing
+ * of winner costs exactly one comparison per level of tree.
+ */
+class LoserTree {
+
+  /**
+   * Order of leaves by their current values. Exhausted leaf is greater than any other leaf.
+   */
+  @FunctionalInterface
+  interface LeafComparator {
+    boolean less(int first, int second);
+  }
+
+  private final LeafComparator comparator;
+  // current strings of leaves, it's null for tree, whose values are kept by caller
+  private final String[] keys;
+
+  // losers[0] - index of winner, losers[1..size-1] - indexes of losers in internal nodes
+  private final int[] losers;
+  private final int size;
+
+  LoserTree(String[] keys, Comparator<String> comparator) {
+    this(keys, keys.length, compareKeys(keys, comparator));
+  }
+
+  /**
+   * Create tree of leaves, whose values are kept by caller. Value of winner is changed by caller
+   * before {@link #replayWinner()}.
+   */
+  LoserTree(int size, LeafComparator comparator) {
+    this(null, size, comparator);
+  }
+
+  private LoserTree(String[] keys, int size, LeafComparator comparator) {
+    if (size == 0) {
+      throw new IllegalArgumentException("keys must not be empty");
+    }
+
+    this.comparator = comparator;
+    this.keys = keys;
+    this.size = size;
+    this.losers = new int[size];
+
+    // internal nodes are 1..size-1, leaves are size..2*size-1
+    var winners = new int[2 * size];
+    for (int i = 0; i < size; i++) {
+      winners[size + i] = i;
+    }
+    for (int node = size - 1; node > 0; node--) {
+      int left = winners[2 * node];
+      int right = winners[2 * node + 1];
+      if (comparator.less(right, left)) {
+        winners[node] = right;
+        losers[node] = left;
+      } else {
+        winners[node] = left;
+        losers[node] = right;
+      }
+    }
+    losers[0] = winners[1];
+  }
+
+  int getWinner() {
+    return losers[0];
+  }
+
+  String getKey(int index) {
+    return keys[index];
+  }
+
+  /**
+   * Find the least key except key of winner. It's the least key among losers on path from winner
+   * to root.
+   */
+  String getRunnerUpKey() {
+    int result = getRunnerUp();
+    return result < 0 ? null : keys[result];
+  }
+
+  /**
+   * Find the least leaf except winner.
+   *
+   * @return -1 if tree has one leaf
+   */
+  int getRunnerUp() {
+    int winner = losers[0];
+    int result = -1;
+    for (int node = (winner + size) >>> 1; node > 0; node >>>= 1) {
+      int loser = losers[node];
+      if (result < 0 || comparator.less(loser, result)) {
+        result = loser;
+      }
+    }
+    return result;
+  }
+
+  void replaceWinner(String key) {
+    keys[losers[0]] = key;
+    replayWinner();
+  }
+
+  /**
+   * Replay matches of winner, whose value was changed.
+   */
+  void replayWinner() {
+    int winner = losers[0];
+    for (int node = (winner + size) >>> 1; node > 0; node >>>= 1) {
+      int loser = losers[node];
+      if (comparator.less(loser, winner)) {
+        losers[node] = winner;
+        winner = loser;
+      }
+    }
+    losers[0] = winner;
+  }
+
+  private static LeafComparator compareKeys(String[] keys, Comparator<String> comparator) {
+    return (first, second) -> {
+      var firstKey = keys[first];
+      if (firstKey == null) {
+        return false;
+      }
+
+      var secondKey = keys[second];
+      return secondKey == null || comparator.compare(firstKey, secondKey) < 0;
+    };
+  }
+}
@@ -10,5 +10,23 @@ public interface OutputChunk extends Chunk {
 
   void save();
 
+  /**
+   * Flush saved data and release the output stream. Saved data is visible to readers only after
+   * the chunk is closed.
+   */
+  void close();
+
   boolean add(String line);
+
+  /**
+   * Get range of saved strings of sorted chunk.
+   *
+   * @return null if nothing is saved or strings were copied as raw data
+   */
+  ChunkRange getSavedRange();
+
+  /**
+   * Get sparse index of saved strings of sorted chunk. Length of index is count of saved bytes.
+   */
+  ChunkIndex getSavedIndex();
 }
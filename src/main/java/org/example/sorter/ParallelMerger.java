@@ -0,0 +1,397 @@
+package org.example.sorter;
+
+import static org.example.sorter.SortState.MERGE;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.LongStream;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.example.context.ApplicationContext;
+import org.example.sorter.chunks.ChunkFactory;
+
+/**
+ * Merger, which splits merge into ranges of strings and merges ranges by several threads.
+ * Splitters are selected by ranks of strings in all chunks, which are estimated by sparse
+ * indexes of chunks, so ranges have about equal size.
+ *
+ * <p>Ranges of intermediate merge are saved into separate files, which are chained as one chunk
+ * without copying. Ranges of the final merge are written into output file at their offsets, which
+ * are counted by encoded lengths of strings of ranges before the merge. Indexes of chunks keep
+ * positions of blocks in output text, so only blocks with bounds of ranges are read to count them.
+ */
+@Log4j2
+@RequiredArgsConstructor
+class ParallelMerger {
+
+  private final ChunkRanges chunkRanges;
+  private final ChunkFactory chunkFactory;
+  private final Path output;
+  private final int threadsCount;
+  private final Executor executor;
+  private final ApplicationContext context;
+
+  private final AtomicInteger activeMerges = new AtomicInteger();
+
+  /**
+   * Register started merge. Threads are shared by active merges, so merges at the tail of sorting
+   * are split into more ranges.
+   *
+   * @return count of ranges for the merge
+   */
+  int startMerge() {
+    return Math.max(1, threadsCount / activeMerges.incrementAndGet());
+  }
+
+  void finishMerge() {
+    activeMerges.decrementAndGet();
+  }
+
+  /**
+   * Merge chains into temporary chunk.
+   *
+   * @return id of merged chunk
+   */
+  long merge(List<ChunkRanges.Chain> chains, int maxRanges) {
+    var inputs = takeInputs(chains);
+    var files = inputs.files();
+    var indexes = inputs.indexes();
+    var splitters = selectSplitters(indexes, maxRanges);
+
+    int ranges = splitters.size() + 1;
+    int chunks = ranges * (files.length + 1);
+    var outputChunks = new CopyableOutputChunk[ranges];
+    for (int range = 0; range < ranges; range++) {
+      outputChunks[range] = chunkFactory.createTemporaryOutputSortedChunk(chunks, files);
+    }
+    mergeRanges(outputChunks, files, indexes, splitters, chunks);
+
+    // ranges don't overlap, so files of ranges are chained
+    List<Long> parts = new ArrayList<>(ranges);
+    String first = null;
+    String last = null;
+    boolean knownRange = true;
+    for (var outputChunk : outputChunks) {
+      var index = outputChunk.getSavedIndex();
+      if (index.getLength() == 0) {
+        continue;
+      }
+
+      parts.add(outputChunk.getId());
+      chunkRanges.putIndex(outputChunk.getId(), index);
+
+      var range = outputChunk.getSavedRange();
+      if (range == null) {
+        knownRange = false;
+      } else {
+        first = first == null ? range.first() : first;
+        last = range.last();
+      }
+    }
+
+    var range = knownRange && first != null ? new ChunkRange(first, last) : null;
+    if (parts.size() <= 1) {
+      long id = parts.isEmpty() ? outputChunks[0].getId() : parts.get(0);
+      chunkRanges.put(id, range);
+      return id;
+    }
+
+    var id = context.getFileSystemContext().nextTemporaryFile();
+    var ids = parts.stream().mapToLong(Long::longValue).toArray();
+    chunkRanges.putChain(id, new ChunkRanges.Chain(ids, range));
+    return id;
+  }
+
+  /**
+   * Merge chains into output file.
+   */
+  void mergeFinal(List<ChunkRanges.Chain> chains) {
+    var inputs = takeInputs(chains);
+    var files = inputs.files();
+    var indexes = inputs.indexes();
+    var splitters = selectSplitters(indexes, threadsCount);
+
+    int ranges = splitters.size() + 1;
+    int chunks = ranges * (files.length + 1);
+    var outputChunks = new CopyableOutputChunk[ranges];
+    if (ranges == 1) {
+      outputChunks[0] = chunkFactory.createFinalOutputSortedChunk(chunks);
+      mergeRanges(outputChunks, files, indexes, splitters, chunks);
+      return;
+    }
+    if (!truncateOutput()) {
+      return;
+    }
+
+    // the last range ends the output, so its length isn't needed
+    var lengths = new long[ranges - 1];
+    List<FutureTask<?>> tasks = new ArrayList<>(ranges - 1);
+    for (int i = 0; i < ranges - 1; i++) {
+      final int range = i;
+      tasks.add(new FutureTask<>(() -> lengths[range] = countRange(
+          files,
+          indexes,
+          range > 0 ? splitters.get(range - 1) : null,
+          splitters.get(range),
+          chunks
+      ), null));
+    }
+    tasks.forEach(executor::execute);
+    await(tasks);
+
+    long position = 0;
+    for (int range = 0; range < ranges; range++) {
+      outputChunks[range] = chunkFactory.createFinalOutputRangeChunk(position, chunks);
+      position += range < lengths.length ? lengths[range] : 0;
+    }
+    mergeRanges(outputChunks, files, indexes, splitters, chunks);
+  }
+
+  /**
+   * Take files of chains and their indexes. Every file has its own index, so files are merged as
+   * separate chunks.
+   */
+  private Inputs takeInputs(List<ChunkRanges.Chain> chains) {
+    var files = chunkRanges.getFiles(chains);
+    var indexes = new ChunkIndex[files.length];
+    for (int i = 0; i < files.length; i++) {
+      indexes[i] = chunkRanges.takeIndex(files[i]);
+    }
+
+    chains.forEach(chain -> LongStream.of(chain.ids()).forEach(chunkRanges::takeFiles));
+    return new Inputs(files, indexes);
+  }
+
+  /**
+   * Select splitters, which split indexed blocks of chunks into ranges of about equal size.
+   * Rank of the first string of block is estimated by sizes of blocks with less strings.
+   */
+  private List<String> selectSplitters(ChunkIndex[] indexes, int maxRanges) {
+    var comparator = chunkFactory.getComparator();
+
+    List<Block> blocks = new ArrayList<>();
+    long total = 0;
+    for (var index : indexes) {
+      for (int block = 0; index != null && block < index.size(); block++) {
+        blocks.add(new Block(index.getKey(block), index.getBlockLength(block)));
+        total += index.getBlockLength(block);
+      }
+    }
+    blocks.sort((a, b) -> comparator.compare(a.key(), b.key()));
+
+    List<String> result = new ArrayList<>(maxRanges - 1);
+    long rank = 0;
+    int range = 1;
+    for (var block : blocks) {
+      if (range == maxRanges) {
+        break;
+      }
+
+      if (rank > 0 && rank >= total * range / maxRanges) {
+        if (result.isEmpty()
+            || comparator.compare(result.get(result.size() - 1), block.key()) < 0) {
+          result.add(block.key());
+        }
+        while (range < maxRanges && rank >= total * range / maxRanges) {
+          range++;
+        }
+      }
+      rank += block.length();
+    }
+    return result;
+  }
+
+  /**
+   * Merge ranges of files by several threads. Files are deleted after merge.
+   */
+  private void mergeRanges(
+      CopyableOutputChunk[] outputChunks,
+      long[] files,
+      ChunkIndex[] indexes,
+      List<String> splitters,
+      int chunks
+  ) {
+    int ranges = outputChunks.length;
+    List<FutureTask<?>> tasks = new ArrayList<>(ranges - 1);
+    for (int i = 1; i < ranges; i++) {
+      final int range = i;
+      tasks.add(new FutureTask<>(() -> mergeRange(
+          outputChunks[range],
+          files,
+          indexes,
+          splitters.get(range - 1),
+          range < ranges - 1 ? splitters.get(range) : null,
+          chunks
+      ), null));
+    }
+
+    tasks.forEach(executor::execute);
+    mergeRange(
+        outputChunks[0], files, indexes, null, ranges > 1 ? splitters.get(0) : null, chunks
+    );
+    await(tasks);
+
+    for (long file : files) {
+      delete(context.getFileSystemContext().getTemporaryFile(file));
+    }
+  }
+
+  /**
+   * Merge strings of range {@code [from; to)} of files.
+   */
+  private void mergeRange(
+      CopyableOutputChunk outputChunk,
+      long[] files,
+      ChunkIndex[] indexes,
+      String from,
+      String to,
+      int chunks
+  ) {
+    var inputChunks = createInputChunks(files, indexes, from, to, chunks);
+    var merger = new ChunksMerger(outputChunk, chunkFactory.getComparator());
+    merger.merge(inputChunks);
+    outputChunk.close();
+  }
+
+  /**
+   * Count bytes of strings of range {@code [from; to)} of files in output file. Order of strings
+   * doesn't change their length, so chunks are counted one by one without merge.
+   */
+  private long countRange(
+      long[] files, ChunkIndex[] indexes, String from, String to, int chunks
+  ) {
+    long length = 0;
+    for (int i = 0; i < files.length; i++) {
+      long start = countTextBefore(files[i], indexes[i], from, chunks);
+      long end = countTextBefore(files[i], indexes[i], to, chunks);
+      if (start < 0 || end < 0) {
+        // text of chunk isn't counted, so the whole range is read
+        long position = indexes[i] == null
+            ? 0
+            : indexes[i].findPosition(from, chunkFactory.getComparator());
+        length += countText(files[i], position, from, to, chunks);
+      } else {
+        length += end - start;
+      }
+    }
+    return length;
+  }
+
+  /**
+   * Count bytes of strings less than key in output file. Strings before the last block, which
+   * starts before key, are counted by index, so only this block is read.
+   *
+   * @return -1 if text of chunk isn't counted by index
+   */
+  private long countTextBefore(long file, ChunkIndex index, String key, int chunks) {
+    if (index == null) {
+      return -1;
+    }
+
+    int block = index.findBlock(key, chunkFactory.getComparator());
+    if (block < 0) {
+      return 0;
+    }
+    long position = index.getTextPosition(block);
+    return position < 0
+        ? -1
+        : position + countText(file, index.getPosition(block), null, key, chunks);
+  }
+
+  /**
+   * Count bytes of strings of range {@code [from; to)} of file, which is read from position.
+   */
+  private long countText(long file, long position, String from, String to, int chunks) {
+    var serializer = chunkFactory.getTextSerializer();
+    var inputChunk = chunkFactory.createInputRangeChunk(MERGE, chunks, file, position, from, to);
+    long length = 0;
+    String value;
+    while ((value = inputChunk.pop()) != null) {
+      length += serializer.getLength(value);
+    }
+    return length;
+  }
+
+  private InputChunk[] createInputChunks(
+      long[] files, ChunkIndex[] indexes, String from, String to, int chunks
+  ) {
+    var comparator = chunkFactory.getComparator();
+    var inputChunks = new InputChunk[files.length];
+    for (int i = 0; i < files.length; i++) {
+      long position = indexes[i] == null ? 0 : indexes[i].findPosition(from, comparator);
+      inputChunks[i] = chunkFactory.createInputRangeChunk(
+          MERGE, chunks, files[i], position, from, to
+      );
+    }
+    return inputChunks;
+  }
+
+  /**
+   * Truncate output file before ranges are written, because ranges are written without truncation
+   * and in any order.
+   */
+  private boolean truncateOutput() {
+    try {
+      context.getStreamFactory().getOutputStream(output.toFile()).close();
+      return true;
+    } catch (IOException ex) {
+      log.error(() -> "Can't save data in file '" + output + "'", ex);
+      context.sendSignal(ex);
+      return false;
+    }
+  }
+
+  private void delete(File file) {
+    if (!context.getFileSystemContext().delete(file)) {
+      log.error("Can't delete file '{}'", file);
+    }
+  }
+
+  /**
+   * Wait for tasks. Task, which isn't started yet, is run by current thread, so merge never waits
+   * for tasks in queue of executor, which can be blocked by other merges. Files of tasks are used
+   * until tasks are finished, so interruption doesn't stop waiting.
+   */
+  private void await(List<FutureTask<?>> tasks) {
+    RuntimeException failure = null;
+    boolean interrupted = false;
+    for (var task : tasks) {
+      task.run();
+      while (true) {
+        try {
+          task.get();
+          break;
+        } catch (InterruptedException ex) {
+          interrupted = true;
+        } catch (ExecutionException ex) {
+          if (failure == null) {
+            failure = ex.getCause() instanceof RuntimeException cause
+                ? cause
+                : new IllegalStateException(ex.getCause());
+          }
+          break;
+        }
+      }
+    }
+
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+    if (failure != null) {
+      throw failure;
+    }
+  }
+
+  private record Inputs(long[] files, ChunkIndex[] indexes) {
+  }
+
+  private record Block(String key, long length) {
+  }
+}
@@ -0,0 +1,351 @@
+package org.example.sorter;
+
+import static org.example.sorter.SortState.PARTITION_SORT;
+import static org.example.sorter.parameters.DefaultParameters.DEFAULT_CHUNK_SIZE;
+import static org.example.sorter.parameters.DefaultParameters.MIN_CHUNK_SIZE;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import lombok.RequiredArgsConstructor;
+import org.example.context.ApplicationContext;
+import org.example.sorter.chunks.ChunkFactory;
+import org.example.sorter.chunks.SortableOutputChunk;
+import org.example.sorter.parameters.ChunkParameters;
+
+/**
+ * Partitioner, which fills chunks by lines of input and saves them as sorted runs. Runs are
+ * created by sorting of chunks, by replacement selection or from natural runs of input.
+ */
+@RequiredArgsConstructor
+class Partitioner {
+
+  private final AtomicInteger workCounter;
+  private final ChunkParameters chunkParameters;
+  private final ChunkFactory chunkFactory;
+  private final Consumer<OutputChunk> sortAndSaveAction;
+  private final boolean replacementSelection;
+  private final boolean naturalRuns;
+  private final Path output;
+  private final Charset outputCharset;
+  private final Charset inputCharset;
+  private final ExecutorService executor;
+  private final ApplicationContext context;
+  private final AtomicLong savedChunks = new AtomicLong();
+
+  long getSavedChunks() {
+    return savedChunks.get();
+  }
+
+  /**
+   * Fill chunks by lines from reader and save every filled chunk. One work unit for first chunk
+   * must be taken by caller.
+   *
+   * @param wholeInput reader has the whole input, so filled chunks are saved asynchronously
+   * @return last chunk, which isn't saved
+   */
+  OutputChunk partition(BufferedReader bufferedReader, int allowableChunks, boolean wholeInput)
+      throws IOException {
+    if (replacementSelection) {
+      return partitionByReplacementSelection(bufferedReader, allowableChunks);
+    }
+
+    var runs = naturalRuns ? new NaturalRuns(allowableChunks, wholeInput) : null;
+    var sortableOutputChunk = chunkFactory.createSortableOutputChunk(allowableChunks);
+
+    var stringContext = context.getStringContext();
+    long totalSize = 0;
+    long count = 0;
+
+    String line;
+    while ((line = bufferedReader.readLine()) != null) {
+      totalSize += stringContext.getRetainedSize(line);
+      count++;
+
+      if (!sortableOutputChunk.add(line)) {
+        chunkParameters.addStringSizes(totalSize, count);
+        totalSize = 0;
+        count = 0;
+
+        allowableChunks = chunkParameters.getAllowableChunks(PARTITION_SORT);
+        final var chunk = sortableOutputChunk;
+        if (runs == null || !runs.append(chunk)) {
+          if (workCounter.incrementAndGet() < allowableChunks && wholeInput) {
+            executor.submit(() -> sortAndSaveAction.accept(chunk));
+          } else {
+            sortAndSaveAction.accept(chunk);
+          }
+          savedChunks.incrementAndGet();
+        }
+
+        sortableOutputChunk = chunkFactory.createSortableOutputChunk(allowableChunks);
+        if (!sortableOutputChunk.add(line)) {
+          throw new IllegalArgumentException("Bad chunk was created");
+        }
+      }
+    }
+
+    chunkParameters.addStringSizes(totalSize, count);
+
+    return runs == null ? sortableOutputChunk : runs.finish(sortableOutputChunk);
+  }
+
+  /**
+   * Write runs of replacement selection from lines of reader. Tree of strings and buffer of run
+   * are one work unit, which must be taken by caller, so each of them takes half of its strings
+   * and bytes. Tree is limited by bytes too, so winners leave tree without replacement, while
+   * long line doesn't fit, and lines are added into the next run without output, while they fit.
+   *
+   * @return last chunk with strings of tree, which aren't written
+   */
+  private OutputChunk partitionByReplacementSelection(
+      BufferedReader bufferedReader, int allowableChunks
+  ) throws IOException {
+    var stringContext = context.getStringContext();
+    long maxBytes = getTreeBytes(allowableChunks);
+    boolean limited = maxBytes != Long.MAX_VALUE;
+    var keys = new String[0];
+    int count = 0;
+    long treeBytes = 0;
+    boolean ended = false;
+
+    // size of tree depends on average length of strings, so tree grows while it's filled
+    int capacity = getTreeSize(allowableChunks);
+    while (!ended && count < capacity && treeBytes < maxBytes) {
+      keys = Arrays.copyOf(keys, Math.min(capacity, Math.max(2 * count, DEFAULT_CHUNK_SIZE)));
+
+      long totalSize = 0;
+      int start = count;
+      while (count < keys.length && treeBytes < maxBytes) {
+        var line = bufferedReader.readLine();
+        if (line == null) {
+          ended = true;
+          break;
+        }
+        long lineSize = stringContext.getRetainedSize(line);
+        totalSize += lineSize;
+        treeBytes += limited ? lineSize : 0;
+        keys[count++] = line;
+      }
+      chunkParameters.addStringSizes(totalSize, count - start);
+
+      capacity = getTreeSize(allowableChunks);
+    }
+    keys = Arrays.copyOf(keys, count);
+
+    if (ended) {
+      return createLastChunk(keys, allowableChunks);
+    }
+
+    var tree = new ReplacementSelectionTree(keys, chunkFactory.getComparator());
+    int treeKeys = count;
+    int currentRun = 0;
+    CopyableOutputChunk run = null;
+
+    long totalSize = 0;
+    count = 0;
+    String line;
+    while ((line = bufferedReader.readLine()) != null) {
+      long lineSize = stringContext.getRetainedSize(line);
+      totalSize += lineSize;
+      count++;
+      treeBytes += limited ? lineSize : 0;
+
+      if (treeBytes <= maxBytes && tree.addKey(line)) {
+        treeKeys++;
+        continue;
+      }
+
+      boolean added = false;
+      while (!added) {
+        if (tree.getWinnerRun() != currentRun) {
+          chunkParameters.addStringSizes(totalSize, count);
+          totalSize = 0;
+          count = 0;
+
+          saveRun(run);
+          run = null;
+          currentRun++;
+        }
+
+        if (run == null) {
+          run = chunkFactory.createTemporaryRunChunk(getTreeSize(allowableChunks), maxBytes);
+        }
+
+        String winner;
+        if (treeBytes > maxBytes && treeKeys > 1) {
+          winner = tree.removeWinner();
+          treeKeys--;
+        } else {
+          winner = tree.replaceWinner(line);
+          added = true;
+        }
+        treeBytes -= limited ? stringContext.getRetainedSize(winner) : 0;
+        run.add(winner);
+      }
+    }
+    chunkParameters.addStringSizes(totalSize, count);
+
+    if (run != null) {
+      saveRun(run);
+    }
+
+    // strings of tree are the last run, so the last chunk isn't empty after saved runs
+    return createLastChunk(tree.getKeys(), allowableChunks);
+  }
+
+  /**
+   * Get count of strings of tree of replacement selection, it's half of partition chunk.
+   */
+  private int getTreeSize(int allowableChunks) {
+    return Math.max(
+        MIN_CHUNK_SIZE, chunkParameters.getChunkSize(PARTITION_SORT, allowableChunks) / 2
+    );
+  }
+
+  /**
+   * Get bytes of strings of tree of replacement selection, it's half of partition chunk.
+   */
+  private long getTreeBytes(int allowableChunks) {
+    long bytes = chunkParameters.getChunkBytes(PARTITION_SORT, allowableChunks);
+    return bytes == Long.MAX_VALUE ? bytes : bytes / 2;
+  }
+
+  private OutputChunk createLastChunk(String[] keys, int allowableChunks) {
+    var chunk = chunkFactory.createSortableOutputChunk(allowableChunks);
+    for (int i = 0; i < keys.length; i++) {
+      if (keys[i] == null) {
+        // key was removed from tree
+        continue;
+      }
+      if (!chunk.add(keys[i])) {
+        // size of chunk depends on average length of strings, so it can be less than tree
+        saveRun(chunk);
+        chunk = chunkFactory.createSortableOutputChunk(allowableChunks);
+        if (!chunk.add(keys[i])) {
+          throw new IllegalArgumentException("Bad chunk was created");
+        }
+      }
+    }
+    return chunk;
+  }
+
+  private void saveRun(OutputChunk run) {
+    // the action releases work unit of saved chunk
+    workCounter.incrementAndGet();
+    sortAndSaveAction.accept(run);
+    savedChunks.incrementAndGet();
+  }
+
+  /**
+   * Runs of chunks, which strings are already in ascending or descending order. Such chunks
+   * aren't sorted and are chained into one run while every chunk starts after the end of the
+   * run. The run, which starts from the beginning of the whole input, is written directly into
+   * output file, so sorted input is read and written once. If input has other runs, the output
+   * file is moved into temporary run. The move reads back the whole output run, even if the first
+   * disorder is at the end of input, so such input costs one more write and read of the run than
+   * the run written into temporary file at once.
+   */
+  private class NaturalRuns {
+
+    private final int allowableChunks;
+    private boolean outputAllowed;
+
+    private CopyableOutputChunk run;
+    private boolean outputRun;
+    private String last;
+
+    NaturalRuns(int allowableChunks, boolean wholeInput) {
+      this.allowableChunks = allowableChunks;
+      // strings of output are read back, so they must be the same as strings of input
+      this.outputAllowed = wholeInput && outputCharset.equals(inputCharset);
+    }
+
+    /**
+     * Append chunk to run, if it has natural order.
+     *
+     * @return false if chunk must be sorted and saved as another run
+     */
+    boolean append(SortableOutputChunk chunk) throws IOException {
+      final boolean firstChunk = outputAllowed;
+      outputAllowed = false;
+
+      if (!chunk.hasNaturalOrder()) {
+        moveOutputRun();
+        return false;
+      }
+
+      if (run != null && chunkFactory.getComparator().compare(chunk.getFirst(), last) < 0) {
+        moveOutputRun();
+        saveRun(run);
+        run = null;
+      }
+
+      if (run == null) {
+        run = firstChunk
+            ? chunkFactory.createFinalOutputSortedChunk(allowableChunks)
+            : chunkFactory.createTemporaryOutputSortedChunk(allowableChunks);
+        outputRun = firstChunk;
+      }
+
+      last = chunk.getLast();
+      chunk.addTo(run);
+      return true;
+    }
+
+    /**
+     * Save the current run.
+     *
+     * @return last chunk of input, it's empty if the whole input is written into output file
+     */
+    OutputChunk finish(SortableOutputChunk lastChunk) throws IOException {
+      if (run == null) {
+        return lastChunk;
+      }
+
+      if (outputRun && (lastChunk.isEmpty() || (lastChunk.hasNaturalOrder()
+          && chunkFactory.getComparator().compare(lastChunk.getFirst(), last) >= 0))) {
+        lastChunk.addTo(run);
+        run.save();
+        run.close();
+        run = null;
+        return lastChunk;
+      }
+
+      // a saved run is always followed by at least one line in the last chunk
+      moveOutputRun();
+      saveRun(run);
+      run = null;
+      return lastChunk;
+    }
+
+    private void moveOutputRun() throws IOException {
+      if (!outputRun) {
+        return;
+      }
+
+      run.save();
+      run.close();
+      var temporaryRun = chunkFactory.createTemporaryOutputSortedChunk(allowableChunks);
+      try (var reader = context.getStreamFactory().getBufferedReader(output, outputCharset)) {
+        String line;
+        while ((line = reader.readLine()) != null) {
+          temporaryRun.add(line);
+        }
+      }
+
+      if (!context.getFileSystemContext().delete(output.toFile())) {
+        throw new IOException("Can't delete file '" + output + "'");
+      }
+
+      run = temporaryRun;
+      outputRun = false;
+    }
+  }
+}
@@ -0,0 +1,159 @@
+package org.example.sorter;
+
+import static org.example.sorter.SortState.MERGE;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.example.context.ApplicationContext;
+import org.example.sorter.chunks.ChunkFactory;
+import org.example.sorter.chunks.Pipe;
+import org.example.sorter.parameters.ChunkParameters;
+import org.example.utils.ExecutorHelper;
+
+/**
+ * Merger, which merges all chunks into output file in one pass. Groups of chunks are merged by
+ * several threads into pipes and the final merge reads the pipes, so strings of intermediate
+ * merges are passed through memory instead of temporary files. All chunks are read at once, so
+ * memory of allowable chunks is shared by input chunks and blocks of pipes.
+ */
+@Log4j2
+@RequiredArgsConstructor
+class PipelinedMerger {
+
+  // block of writer, block in queue and block of reader
+  private static final int PIPE_BLOCKS = 1;
+  private static final int PIPE_CHUNKS = PIPE_BLOCKS + 2;
+
+  private final ChunkRanges chunkRanges;
+  private final ChunkFactory chunkFactory;
+  private final ChunkParameters chunkParameters;
+  private final int threadsCount;
+  private final ApplicationContext context;
+
+  /**
+   * Get size of chunks for merge of chunks in one pass.
+   *
+   * @return 0 if memory of merge doesn't fit
+   */
+  int getChunkSize(long chunks) {
+    long pipes = getPipes(chunks);
+    return chunkParameters.getSharedChunkSize(MERGE, chunks + PIPE_CHUNKS * pipes + 1);
+  }
+
+  /**
+   * Merge chains into output file.
+   */
+  void merge(List<ChunkRanges.Chain> chains, int chunkSize) {
+    var comparator = chunkFactory.getComparator();
+    var outputChunk = chunkFactory.createSizedFinalOutputChunk(chunkSize);
+
+    int pipes = getPipes(chains.size());
+    if (pipes == 0) {
+      var merger = new ChunksMerger(outputChunk, comparator);
+      merger.merge(createInputChunks(chains, chunkSize));
+      outputChunk.close();
+      return;
+    }
+
+    var groups = splitChains(chains, pipes);
+    var pipeExecutor = Executors.newFixedThreadPool(pipes);
+    boolean merged = false;
+    try {
+      var inputChunks = new InputChunk[pipes];
+      for (int i = 0; i < pipes; i++) {
+        var pipe = chunkFactory.createPipe(chunkSize, PIPE_BLOCKS);
+        var chunks = createInputChunks(groups.get(i), chunkSize);
+        pipeExecutor.execute(() -> mergeIntoPipe(chunks, pipe));
+        inputChunks[i] = pipe.getInput();
+      }
+
+      var merger = new ChunksMerger(outputChunk, comparator);
+      merger.merge(inputChunks);
+      outputChunk.close();
+      merged = true;
+    } finally {
+      if (!merged) {
+        // writers of pipes wait for the failed merge
+        pipeExecutor.shutdownNow();
+      }
+      if (!ExecutorHelper.close(pipeExecutor)) {
+        log.error("Executor of pipes in PipelinedMerger did not terminate");
+      }
+    }
+  }
+
+  private int getPipes(long chunks) {
+    // pipe merges at least two chunks and the final merge reads at least two pipes
+    int pipes = (int) Math.min(threadsCount, chunks / 2);
+    return pipes < 2 ? 0 : pipes;
+  }
+
+  private void mergeIntoPipe(InputChunk[] chunks, Pipe pipe) {
+    try {
+      var merger = new ChunksMerger(pipe.getOutput(), chunkFactory.getComparator());
+      merger.merge(chunks);
+      pipe.getOutput().close();
+    } catch (Throwable ex) {
+      // the failure is thrown by reader of pipe
+      pipe.fail(ex);
+    }
+  }
+
+  /**
+   * Split chains into groups of about equal size. Every chain from the biggest one is added into
+   * the smallest group.
+   */
+  private List<List<ChunkRanges.Chain>> splitChains(List<ChunkRanges.Chain> chains, int groups) {
+    var sizes = chains.stream().mapToLong(this::getChainSize).toArray();
+    var order = IntStream.range(0, chains.size())
+        .boxed()
+        .sorted(Comparator.comparingLong(i -> -sizes[i]))
+        .toList();
+
+    List<List<ChunkRanges.Chain>> result = new ArrayList<>(groups);
+    var groupSizes = new long[groups];
+    for (int i = 0; i < groups; i++) {
+      result.add(new ArrayList<>());
+    }
+    for (int chain : order) {
+      int group = 0;
+      for (int i = 1; i < groups; i++) {
+        // groups of equal size get chains one by one, so every group has chains
+        if (groupSizes[i] < groupSizes[group] || (groupSizes[i] == groupSizes[group]
+            && result.get(i).size() < result.get(group).size())) {
+          group = i;
+        }
+      }
+      result.get(group).add(chains.get(chain));
+      groupSizes[group] += sizes[chain];
+    }
+    return result;
+  }
+
+  private long getChainSize(ChunkRanges.Chain chain) {
+    var fileSystemContext = context.getFileSystemContext();
+    return LongStream.of(chain.ids())
+        .flatMap(id -> LongStream.of(chunkRanges.getFiles(id)))
+        .map(file -> fileSystemContext.length(fileSystemContext.getTemporaryFile(file)))
+        .sum();
+  }
+
+  private InputChunk[] createInputChunks(List<ChunkRanges.Chain> chains, int chunkSize) {
+    var readAheadScheduler = chunkFactory.createReadAheadScheduler();
+
+    var chunks = new InputChunk[chains.size()];
+    for (int i = 0; i < chunks.length; i++) {
+      var files = LongStream.of(chains.get(i).ids())
+          .flatMap(id -> LongStream.of(chunkRanges.takeFiles(id)))
+          .toArray();
+      chunks[i] = chunkFactory.createSizedInputChunk(chunkSize, files, readAheadScheduler);
+    }
+    return chunks;
+  }
+}
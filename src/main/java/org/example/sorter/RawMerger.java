@@ -0,0 +1,291 @@
+package org.example.sorter;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.LongStream;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.example.context.ApplicationContext;
+import org.example.io.BlockDecompressingInputStream;
+import org.example.io.RandomAccessInputStream;
+import org.example.sorter.chunks.ChunkFactory;
+import org.example.sorter.chunks.OutputSortedChunk;
+
+/**
+ * Merger, which merges serialized records of strings without creating strings. Records of binary
+ * serializer are compared by bytes of their values in natural order and are copied from buffers
+ * of input files into output stream, so merge doesn't allocate objects per string. Strings are
+ * created only for keys of index of merged chunk.
+ *
+ * <p>Value of record is Latin-1 bytes (coder 0), UTF-16 chars in order of platform (coder 1,
+ * value array of string is read by reflection) or UTF-16 chars in big-endian order (coder -1).
+ * Values of the same coder 0 or -1 are compared as unsigned bytes, other values by chars.
+ */
+@Log4j2
+@RequiredArgsConstructor
+class RawMerger {
+
+  private static final VarHandle NATIVE_CHARS =
+      MethodHandles.byteArrayViewVarHandle(char[].class, ByteOrder.nativeOrder());
+  private static final VarHandle BIG_ENDIAN_CHARS =
+      MethodHandles.byteArrayViewVarHandle(char[].class, ByteOrder.BIG_ENDIAN);
+
+  private final ChunkRanges chunkRanges;
+  private final ChunkFactory chunkFactory;
+  private final int bufferSize;
+  private final boolean compressed;
+  private final ApplicationContext context;
+
+  /**
+   * Merge chains into temporary chunk.
+   *
+   * @return id of merged chunk
+   */
+  long merge(List<ChunkRanges.Chain> chains) {
+    var outputChunk = chunkFactory.createTemporaryRecordOutputChunk(chunkRanges.getFiles(chains));
+
+    List<Input> inputs = new ArrayList<>(chains.size());
+    for (var chain : chains) {
+      var files = LongStream.of(chain.ids())
+          .flatMap(id -> LongStream.of(chunkRanges.takeFiles(id)))
+          .toArray();
+      inputs.add(new Input(files));
+    }
+
+    try {
+      merge(inputs, outputChunk);
+    } catch (IOException ex) {
+      log.error("Can't merge records of chunks", ex);
+      context.sendSignal(ex);
+    } finally {
+      inputs.forEach(Input::close);
+    }
+    outputChunk.close();
+
+    long id = outputChunk.getId();
+    chunkRanges.put(id, chunkRanges.union(chains));
+    chunkRanges.putIndex(id, outputChunk.getSavedIndex());
+    return id;
+  }
+
+  /**
+   * Merge inputs by tree of losers of their current records.
+   */
+  private void merge(List<Input> inputs, OutputSortedChunk outputChunk) throws IOException {
+    var leaves = inputs.toArray(new Input[0]);
+    for (var input : leaves) {
+      input.next();
+    }
+
+    var tree = new LoserTree(leaves.length, (first, second) -> less(leaves[first], leaves[second]));
+    var winner = leaves[tree.getWinner()];
+    while (!winner.ended) {
+      outputChunk.saveRecord(
+          winner.buffer, winner.position, winner.recordEnd, winner::createString
+      );
+      winner.next();
+      tree.replayWinner();
+      winner = leaves[tree.getWinner()];
+    }
+  }
+
+  /**
+   * Compare current records of inputs. Ended input is greater than any other input.
+   */
+  private static boolean less(Input first, Input second) {
+    return !first.ended && (second.ended || compare(first, second) < 0);
+  }
+
+  private static int compare(Input first, Input second) {
+    if (first.coder == second.coder && first.coder != 1) {
+      return Arrays.compareUnsigned(
+          first.buffer, first.valueStart, first.recordEnd,
+          second.buffer, second.valueStart, second.recordEnd
+      );
+    }
+
+    int firstLength = first.getLength();
+    int secondLength = second.getLength();
+    int length = Math.min(firstLength, secondLength);
+    for (int i = 0; i < length; i++) {
+      char a = first.charAt(i);
+      char b = second.charAt(i);
+      if (a != b) {
+        return a - b;
+      }
+    }
+    return firstLength - secondLength;
+  }
+
+  /**
+   * Input, which reads records of files one by one. Current record is kept whole in buffer, which
+   * grows for records longer than buffer. Files are deleted after reading.
+   */
+  private class Input {
+
+    private final long[] files;
+    private int file = -1;
+    private RandomAccessInputStream stream;
+
+    private byte[] buffer = new byte[bufferSize];
+    private int limit;
+
+    // current record: coder, length, value and the end of record from position
+    private int position;
+    private byte coder;
+    private int valueStart;
+    private int recordEnd;
+    private boolean ended;
+
+    Input(long[] files) {
+      this.files = files;
+    }
+
+    /**
+     * Move to the next record.
+     *
+     * @return false if all files are read
+     */
+    boolean next() throws IOException {
+      position = recordEnd;
+      while (!parseRecord()) {
+        if (!fill()) {
+          if (position < limit) {
+            throw new EOFException("Unexpected end of record in chunk");
+          }
+          if (!openNextFile()) {
+            ended = true;
+            return false;
+          }
+        }
+      }
+      return true;
+    }
+
+    int getLength() {
+      return coder == 0 ? recordEnd - valueStart : (recordEnd - valueStart) >> 1;
+    }
+
+    char charAt(int index) {
+      return switch (coder) {
+        case 0 -> (char) (buffer[valueStart + index] & 0xFF);
+        case 1 -> (char) NATIVE_CHARS.get(buffer, valueStart + Character.BYTES * index);
+        default -> (char) BIG_ENDIAN_CHARS.get(buffer, valueStart + Character.BYTES * index);
+      };
+    }
+
+    String createString() {
+      int length = recordEnd - valueStart;
+      var value = Arrays.copyOfRange(buffer, valueStart, recordEnd);
+      return context.getStringContext().createString(value, coder, length, new StringBuilder());
+    }
+
+    void close() {
+      closeFile();
+      while (++file < files.length) {
+        deleteFile();
+      }
+    }
+
+    private boolean parseRecord() throws IOException {
+      // coder and length as 128 Base varint
+      int offset = position + 1;
+      int length = 0;
+      for (int shift = 0; ; shift += 7) {
+        if (offset >= limit) {
+          return false;
+        }
+        if (shift > 28) {
+          throw new IOException("Length of record is corrupted");
+        }
+        int value = buffer[offset++];
+        length |= (value & 0x7F) << shift;
+        if ((value & 0x80) == 0) {
+          break;
+        }
+      }
+
+      if (length < 0) {
+        throw new IOException("Negative length was loaded");
+      }
+      if (offset + (long) length > limit) {
+        return false;
+      }
+
+      coder = buffer[position];
+      valueStart = offset;
+      recordEnd = offset + length;
+      return true;
+    }
+
+    /**
+     * Read more data after current record. Buffer grows, if current record doesn't fit.
+     */
+    private boolean fill() throws IOException {
+      if (stream == null) {
+        return false;
+      }
+
+      int count = limit - position;
+      if (count == buffer.length) {
+        buffer = Arrays.copyOf(buffer, 2 * buffer.length);
+      } else {
+        System.arraycopy(buffer, position, buffer, 0, count);
+        recordEnd -= position;
+        position = 0;
+        limit = count;
+      }
+
+      int read = stream.read(buffer, limit, buffer.length - limit);
+      if (read <= 0) {
+        return false;
+      }
+      limit += read;
+      return true;
+    }
+
+    private boolean openNextFile() throws IOException {
+      closeFile();
+      if (++file >= files.length) {
+        return false;
+      }
+
+      var inputFile = context.getFileSystemContext().getTemporaryFile(files[file]);
+      stream = context.getStreamFactory().getRandomAccessInputStream(inputFile, bufferSize);
+      if (compressed) {
+        stream = new BlockDecompressingInputStream(stream);
+      }
+      position = 0;
+      recordEnd = 0;
+      limit = 0;
+      return true;
+    }
+
+    private void closeFile() {
+      if (stream != null) {
+        try {
+          stream.close();
+        } catch (IOException ex) {
+          log.error("Can't close file of chunk {}", files[file], ex);
+        }
+        stream = null;
+      }
+      if (file >= 0 && file < files.length) {
+        deleteFile();
+      }
+    }
+
+    private void deleteFile() {
+      var inputFile = context.getFileSystemContext().getTemporaryFile(files[file]);
+      if (!context.getFileSystemContext().delete(inputFile)) {
+        log.error("Can't delete file '{}'", inputFile);
+      }
+    }
+  }
+}
@@ -0,0 +1,164 @@
+package org.example.sorter;
+
+import java.util.Comparator;
+
+/**
+ * Tournament tree of losers for replacement selection. Every key has number of run, keys are
+ * ordered by run and then by comparator. Key, which is less than the last output key, can't be
+ * written into the current run, so it's tagged by the next run. On random input runs are about
+ * twice the size of tree, on sorted input there is only one run. Removed key is greater than keys
+ * of all runs, so tree shrinks by removal. Added key takes place of removed key in the next run,
+ * so only keys of the current run are in order, and tree is built again, when the run ends.
+ */
+class ReplacementSelectionTree {
+
+  private final Comparator<String> comparator;
+  private final String[] keys;
+  private final int[] runs;
+  // stack of indexes of removed keys
+  private final int[] removed;
+  private int removedCount;
+  private boolean added;
+
+  // losers[0] - index of winner, losers[1..size-1] - indexes of losers in internal nodes
+  private final int[] losers;
+  private final int size;
+
+  /**
+   * Create tree of keys of the first run.
+   */
+  ReplacementSelectionTree(String[] keys, Comparator<String> comparator) {
+    if (keys.length == 0) {
+      throw new IllegalArgumentException("keys must not be empty");
+    }
+
+    this.comparator = comparator;
+    this.keys = keys;
+    this.size = keys.length;
+    this.runs = new int[size];
+    this.removed = new int[size];
+    this.losers = new int[size];
+    build();
+  }
+
+  private void build() {
+    // internal nodes are 1..size-1, leaves are size..2*size-1
+    var winners = new int[2 * size];
+    for (int i = 0; i < size; i++) {
+      winners[size + i] = i;
+    }
+    for (int node = size - 1; node > 0; node--) {
+      int left = winners[2 * node];
+      int right = winners[2 * node + 1];
+      if (less(right, left)) {
+        winners[node] = right;
+        losers[node] = left;
+      } else {
+        winners[node] = left;
+        losers[node] = right;
+      }
+    }
+    losers[0] = winners[1];
+    added = false;
+  }
+
+  int getWinnerRun() {
+    return runs[losers[0]];
+  }
+
+  /**
+   * Replace winner by key. Key goes to run of winner, if it isn't less than winner, else to the
+   * next run.
+   *
+   * @return replaced winner
+   */
+  String replaceWinner(String key) {
+    int winner = losers[0];
+    var result = keys[winner];
+    int run = runs[winner];
+    if (comparator.compare(key, result) < 0) {
+      runs[winner]++;
+    }
+    keys[winner] = key;
+    replayWinner(run);
+
+    return result;
+  }
+
+  /**
+   * Remove winner from tree without replacement.
+   *
+   * @return removed winner
+   */
+  String removeWinner() {
+    int winner = losers[0];
+    final var result = keys[winner];
+    final int run = runs[winner];
+    keys[winner] = null;
+    runs[winner] = Integer.MAX_VALUE;
+    removed[removedCount++] = winner;
+    replayWinner(run);
+
+    return result;
+  }
+
+  /**
+   * Add key into the next run in place of removed key.
+   *
+   * @return false if tree has no removed keys
+   */
+  boolean addKey(String key) {
+    if (removedCount == 0) {
+      return false;
+    }
+
+    int index = removed[--removedCount];
+    keys[index] = key;
+    runs[index] = runs[losers[0]] + 1;
+    added = true;
+    return true;
+  }
+
+  /**
+   * Get keys of tree in any order, removed keys are null.
+   */
+  String[] getKeys() {
+    return keys;
+  }
+
+  /**
+   * Replay matches of winner, whose key was changed. Added keys lose to keys of the current run
+   * without replaying of their matches, so tree is built again, when the current run ends.
+   */
+  private void replayWinner(int run) {
+    int winner = losers[0];
+    for (int node = (winner + size) >>> 1; node > 0; node >>>= 1) {
+      int loser = losers[node];
+      if (less(loser, winner)) {
+        losers[node] = winner;
+        winner = loser;
+      }
+    }
+    losers[0] = winner;
+
+    if (added && runs[winner] != run) {
+      build();
+    }
+  }
+
+  private boolean less(int first, int second) {
+    if (keys[first] == null) {
+      return false;
+    }
+    if (keys[second] == null) {
+      return true;
+    }
+
+    int firstRun = runs[first];
+    int secondRun = runs[second];
+    if (firstRun != secondRun) {
+      return firstRun < secondRun;
+    }
+    return comparator.compare(keys[first], keys[second]) < 0;
+  }
+}
@@ -32,14 +32,14 @@ public abstract class AbstractCopyableOutputChunk extends AbstractOutputChunk
     if (inputChunk instanceof AbstractInputChunk anotherChunk) {
       while (anotherChunk.nextLoad()) {
         if (!predicate.test(anotherChunk.data[anotherChunk.size - 1])) {
-          int position = anotherChunk.cursor;
-          while (predicate.test(anotherChunk.data[position])) {
-            position++;
-          }
+          int position = findFirstMismatch(
+              anotherChunk.data, anotherChunk.cursor, anotherChunk.size, predicate
+          );
 
           int count = position - anotherChunk.cursor;
           if (count != 0) {
-            if (size + count < data.length) {
+            if (size + count < data.length
+                && addBytes(anotherChunk.data, anotherChunk.cursor, position)) {
               System.arraycopy(anotherChunk.data, anotherChunk.cursor, data, size, count);
               size += count;
             } else {
@@ -85,9 +85,42 @@ public abstract class AbstractCopyableOutputChunk extends AbstractOutputChunk
     }
   }
 
+  /**
+   * Find the first string in sorted range [from; to) which doesn't match predicate. Predicate
+   * must not match the last string of range. Search is galloping (as in TimSort): positions
+   * from, from + 2, from + 6, ... are tested until mismatch, then binary search is used. So it
+   * needs O(log n) comparisons, where n is count of matched strings.
+   */
+  private static int findFirstMismatch(
+      String[] data, int from, int to, Predicate<String> predicate
+  ) {
+    int match = from - 1;
+    int mismatch = to - 1;
+
+    for (int step = 1; match + step < mismatch; step <<= 1) {
+      int position = match + step;
+      if (!predicate.test(data[position])) {
+        mismatch = position;
+        break;
+      }
+      match = position;
+    }
+
+    while (match + 1 < mismatch) {
+      int middle = (match + mismatch) >>> 1;
+      if (predicate.test(data[middle])) {
+        match = middle;
+      } else {
+        mismatch = middle;
+      }
+    }
+
+    return mismatch;
+  }
+
   protected void saveWithAdditionalData(String[] data, int from, int to) {
-    try (var stream = createOutputStream()) {
-      saveWithAdditionalData(stream, data, from, to);
+    try {
+      saveWithAdditionalData(getOutputStream(), data, from, to);
     } catch (IOException ex) {
       failSave(ex);
     }
@@ -96,9 +129,9 @@ public abstract class AbstractCopyableOutputChunk extends AbstractOutputChunk
   protected void saveWithAdditionalData(OutputStream outputStream, String[] data, int from, int to)
       throws IOException {
     if (this.size != 0) {
-      serializer.write(outputStream, this.data, 0, this.size);
+      write(outputStream, this.data, 0, this.size);
       clear();
     }
-    serializer.write(outputStream, data, from, to);
+    write(outputStream, data, from, to);
   }
 }
@@ -1,11 +1,18 @@
 package org.example.sorter.chunks;
 
+import static org.example.sorter.parameters.DefaultParameters.INDEX_BLOCK_SIZE;
+import static org.example.sorter.parameters.DefaultParameters.INDEX_BLOCK_STRINGS;
+
 import java.io.IOException;
 import java.io.OutputStream;
 import java.util.Arrays;
+import java.util.function.Supplier;
 import lombok.extern.log4j.Log4j2;
 import org.example.context.ApplicationContext;
 import org.example.io.StringSerializer;
+import org.example.io.TextSerializer;
+import org.example.sorter.ChunkIndex;
+import org.example.sorter.ChunkRange;
 import org.example.sorter.OutputChunk;
 import org.example.sorter.chunks.ids.OutputChunkId;
 
@@ -19,6 +26,29 @@ public abstract class AbstractOutputChunk implements OutputChunk {
   protected String[] data;
   protected int size;
 
+  // retained bytes of strings, array of strings grows up to maxSize while strings fit into maxBytes
+  private long bytes;
+  private long maxBytes = Long.MAX_VALUE;
+  private int maxSize;
+
+  // stream is opened by the first save and kept open until the chunk is closed
+  private OutputStream outputStream;
+
+  // count of saved bytes and index of saved blocks
+  private long savedBytes;
+  private ChunkIndex index = new ChunkIndex();
+
+  // serializer, which counts bytes of saved strings in output text, it's null if they aren't
+  // counted, count is lost after saving of raw data
+  private TextSerializer textCounter;
+  private long savedText;
+  private boolean lostText;
+
+  // the first and the last saved strings, range is unknown after copying of raw data
+  private String firstSaved;
+  private String lastSaved;
+  private boolean unknownRange;
+
   protected AbstractOutputChunk(
       OutputChunkId id, int chunkSize, StringSerializer serializer, ApplicationContext context
   ) {
@@ -28,6 +58,25 @@ public abstract class AbstractOutputChunk implements OutputChunk {
 
     this.data = new String[chunkSize];
     this.size = 0;
+    this.maxSize = chunkSize;
+  }
+
+  /**
+   * Limit chunk by retained bytes of its strings. Chunk always takes at least one string.
+   *
+   * @param maxSize count of strings, up to which array of strings grows
+   */
+  public void setMemoryLimit(long maxBytes, int maxSize) {
+    this.maxBytes = maxBytes;
+    this.maxSize = Math.max(maxSize, data.length);
+  }
+
+  /**
+   * Count bytes of saved strings in text of output, so positions of indexed blocks in output are
+   * known without reading of chunk.
+   */
+  public void setTextCounter(TextSerializer textCounter) {
+    this.textCounter = textCounter;
   }
 
   @Override
@@ -37,7 +86,12 @@ public abstract class AbstractOutputChunk implements OutputChunk {
 
   @Override
   public void setId(OutputChunkId id) {
+    close();
     this.id = id;
+    this.savedBytes = 0;
+    this.index = new ChunkIndex();
+    this.savedText = 0;
+    this.lostText = false;
   }
 
   @Override
@@ -50,8 +104,11 @@ public abstract class AbstractOutputChunk implements OutputChunk {
     return size == 0;
   }
 
-  protected OutputStream createOutputStream() throws IOException {
-    return id.createOutputStream();
+  protected OutputStream getOutputStream() throws IOException {
+    if (outputStream == null) {
+      outputStream = id.createOutputStream();
+    }
+    return outputStream;
   }
 
   @Override
@@ -63,13 +120,95 @@ public abstract class AbstractOutputChunk implements OutputChunk {
   }
 
   protected void save(String[] data, int from, int to) {
-    try (var stream = createOutputStream()) {
-      serializer.write(stream, data, from, to);
+    try {
+      write(getOutputStream(), data, from, to);
     } catch (IOException ex) {
       failSave(ex);
     }
   }
 
+  /**
+   * Serialize strings by blocks. Every block can be read without previous data, so positions of
+   * some blocks are saved in index.
+   */
+  protected void write(OutputStream stream, String[] data, int from, int to) throws IOException {
+    for (int start = from; start < to; start += INDEX_BLOCK_STRINGS) {
+      int blocks = index.size();
+      if (blocks == 0 || savedBytes - index.getPosition(blocks - 1) >= INDEX_BLOCK_SIZE) {
+        index.add(data[start], savedBytes, getTextPosition());
+      }
+      int end = Math.min(to, start + INDEX_BLOCK_STRINGS);
+      savedBytes += serializer.write(stream, data, start, end);
+      for (int i = start; textCounter != null && i < end; i++) {
+        savedText += textCounter.getLength(data[i]);
+      }
+    }
+    updateSavedRange(data, from, to);
+  }
+
+  private long getTextPosition() {
+    return textCounter == null || lostText ? -1 : savedText;
+  }
+
+  /**
+   * Write serialized record of string. String of record is created only, if the record starts
+   * indexed block.
+   */
+  protected void writeRecord(byte[] buffer, int from, int to, Supplier<String> key)
+      throws IOException {
+    int blocks = index.size();
+    if (blocks == 0 || savedBytes - index.getPosition(blocks - 1) >= INDEX_BLOCK_SIZE) {
+      index.add(key.get(), savedBytes, getTextPosition());
+    }
+    getOutputStream().write(buffer, from, to - from);
+    savedBytes += to - from;
+    lostText = true;
+  }
+
+  /**
+   * Count bytes, which are written into stream without serializer.
+   */
+  protected void addSavedBytes(long count) {
+    savedBytes += count;
+    lostText = true;
+  }
+
+  @Override
+  public ChunkIndex getSavedIndex() {
+    index.setLength(savedBytes);
+    return index;
+  }
+
+  @Override
+  public ChunkRange getSavedRange() {
+    return unknownRange || firstSaved == null ? null : new ChunkRange(firstSaved, lastSaved);
+  }
+
+  protected void updateSavedRange(String[] data, int from, int to) {
+    if (from < to) {
+      if (firstSaved == null) {
+        firstSaved = data[from];
+      }
+      lastSaved = data[to - 1];
+    }
+  }
+
+  protected void loseSavedRange() {
+    unknownRange = true;
+  }
+
+  @Override
+  public void close() {
+    if (outputStream != null) {
+      try {
+        outputStream.close();
+      } catch (IOException ex) {
+        failSave(ex);
+      }
+      outputStream = null;
+    }
+  }
+
   protected void failSave(IOException ex) {
     log.error(() -> id.getMessageOnFailSave(), ex);
     context.sendSignal(ex);
@@ -77,15 +216,58 @@ public abstract class AbstractOutputChunk implements OutputChunk {
 
   @Override
   public boolean add(String line) {
-    if (size < data.length) {
-      data[size++] = line;
+    if (size == data.length && !grow()) {
+      return false;
+    }
+
+    if (maxBytes != Long.MAX_VALUE) {
+      long lineBytes = context.getStringContext().getRetainedSize(line);
+      if (size != 0 && bytes + lineBytes > maxBytes) {
+        return false;
+      }
+      bytes += lineBytes;
+    }
+
+    data[size++] = line;
+    return true;
+  }
+
+  /**
+   * Count retained bytes of strings, which are added into chunk by copying.
+   *
+   * @return false if strings don't fit into chunk
+   */
+  protected boolean addBytes(String[] data, int from, int to) {
+    if (maxBytes == Long.MAX_VALUE) {
       return true;
     }
-    return false;
+
+    long result = bytes;
+    var stringContext = context.getStringContext();
+    for (int i = from; i < to && result <= maxBytes; i++) {
+      result += stringContext.getRetainedSize(data[i]);
+    }
+    if (result > maxBytes) {
+      return false;
+    }
+
+    bytes = result;
+    return true;
+  }
+
+  private boolean grow() {
+    if (size >= maxSize) {
+      return false;
+    }
+
+    int capacity = (int) Math.min(maxSize, Math.max(size + 1L, size + (size >> 1)));
+    data = Arrays.copyOf(data, capacity);
+    return true;
   }
 
   protected void clear() {
     size = 0;
+    bytes = 0;
     Arrays.fill(data, null); // for GC
   }
 }
@@ -0,0 +1,63 @@
+package org.example.sorter.chunks;
+
+import java.util.function.LongFunction;
+
+/**
+ * Input chunk, which reads sorted chunks one by one. Ranges of chunks don't overlap, so strings
+ * of chain are sorted. Only one chunk is opened at a time and its loaded block is used as block
+ * of chain, so chain takes as much memory as one chunk.
+ */
+public class ChainedInputChunk extends AbstractInputChunk {
+
+  private static final String[] EMPTY = new String[0];
+
+  private final long[] ids;
+  private final LongFunction<AbstractInputChunk> chunkFactory;
+
+  private int next;
+  private AbstractInputChunk current;
+
+  public ChainedInputChunk(long[] ids, LongFunction<AbstractInputChunk> chunkFactory) {
+    super(0);
+    this.ids = ids;
+    this.chunkFactory = chunkFactory;
+  }
+
+  @Override
+  public long getId() {
+    return ids[0];
+  }
+
+  @Override
+  public boolean load() {
+    while (current != null || next < ids.length) {
+      if (current == null) {
+        current = chunkFactory.apply(ids[next++]);
+      }
+
+      // strings of the previous block are taken by the chain
+      current.cursor = current.size;
+      if (current.nextLoad()) {
+        data = current.data;
+        cursor = current.cursor;
+        size = current.size;
+        return true;
+      }
+
+      current.freeResources();
+      current = null;
+    }
+
+    data = EMPTY;
+    return false;
+  }
+
+  @Override
+  protected void freeResources() {
+    if (current != null) {
+      current.freeResources();
+      current = null;
+    }
+    super.freeResources();
+  }
+}
@@ -1,27 +1,43 @@
 package org.example.sorter.chunks;
 
+import static org.example.sorter.parameters.DefaultParameters.COMPRESSION_BLOCK_SIZE;
+import static org.example.sorter.parameters.DefaultParameters.MIN_CHUNK_SIZE;
+
 import java.io.File;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 import java.util.Comparator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
 import org.example.context.ApplicationContext;
 import org.example.io.BinaryDeserializer;
 import org.example.io.BinarySerializer;
+import org.example.io.FrontCodedDeserializer;
+import org.example.io.FrontCodedSerializer;
 import org.example.io.StringDeserializer;
 import org.example.io.StringSerializer;
 import org.example.io.TextSerializer;
+import org.example.io.WriteBehindWriter;
 import org.example.sorter.CopyableOutputChunk;
 import org.example.sorter.InputChunk;
-import org.example.sorter.OutputChunk;
 import org.example.sorter.SortState;
+import org.example.sorter.chunks.ids.BufferedOutputChunkId;
+import org.example.sorter.chunks.ids.CompressedOutputChunkId;
 import org.example.sorter.chunks.ids.FileOutputChunkId;
+import org.example.sorter.chunks.ids.FileRangeOutputChunkId;
 import org.example.sorter.chunks.ids.OutputChunkId;
 import org.example.sorter.chunks.ids.TemporaryDataOutputChunkId;
 import org.example.sorter.parameters.ChunkParameters;
+import org.example.sorter.parameters.SortOptions;
 
+@Log4j2
 @RequiredArgsConstructor
 public class ChunkFactory {
+  private final File outputFile;
   private final ChunkParameters chunkParameters;
   @Getter
   private final Comparator<String> comparator;
@@ -33,10 +49,21 @@ public class ChunkFactory {
   private final StringSerializer binarySerializer;
 
   @Getter
-  private final StringSerializer textSerializer;
+  private final TextSerializer textSerializer;
 
   private final StringDeserializer binaryDeserializer;
 
+  private final SortOptions options;
+
+  private final Executor readAheadExecutor;
+
+  private final WriteBehindWriter writeBehindWriter;
+
+  // pool of pages of off-heap chunks, it's null if strings of chunks are kept in heap
+  private final Queue<ByteBuffer> offHeapPages;
+
+  private final SortStatistics sortStatistics;
+
   public ChunkFactory(
       File outputFile,
       Charset charset,
@@ -44,57 +71,337 @@ public class ChunkFactory {
       Comparator<String> comparator,
       ApplicationContext context
   ) {
+    this(
+        outputFile,
+        charset,
+        chunkParameters,
+        comparator,
+        new SortOptions(),
+        null,
+        null,
+        new SortStatistics(),
+        context
+    );
+  }
+
+  public ChunkFactory(
+      File outputFile,
+      Charset charset,
+      ChunkParameters chunkParameters,
+      Comparator<String> comparator,
+      SortOptions options,
+      Executor readAheadExecutor,
+      WriteBehindWriter writeBehindWriter,
+      SortStatistics sortStatistics,
+      ApplicationContext context
+  ) {
+    this.outputFile = outputFile;
     this.chunkParameters = chunkParameters;
     this.comparator = comparator;
+    this.options = options;
+    this.readAheadExecutor = readAheadExecutor;
+    this.writeBehindWriter = writeBehindWriter;
+    this.sortStatistics = sortStatistics;
     this.context = context;
 
-    this.finalOutputChunkId = new FileOutputChunkId(outputFile, context);
+    this.finalOutputChunkId = createBufferedId(new FileOutputChunkId(outputFile, context));
 
-    this.binarySerializer = new BinarySerializer(
-        chunkParameters.getBufferSize(), context.getStringContext()
-    );
+    this.binarySerializer = options.isFrontCoding()
+        ? new FrontCodedSerializer(chunkParameters.getBufferSize(), context.getStringContext())
+        : new BinarySerializer(chunkParameters.getBufferSize(), context.getStringContext());
     this.textSerializer = new TextSerializer(charset);
 
     this.binaryDeserializer = new BinaryDeserializer(context);
+    this.offHeapPages = hasOffHeapChunksSupport(options, comparator)
+        ? new ConcurrentLinkedQueue<>()
+        : null;
   }
 
   public InputChunk createInputSortedChunk(SortState state, int chunks, long chunkId) {
+    return createInputSortedChunk(state, chunks, chunkId, null);
+  }
+
+  public InputChunk createInputSortedChunk(
+      SortState state, int chunks, long chunkId, ReadAheadScheduler readAheadScheduler
+  ) {
+    return createInputSortedChunk(state, chunks, new long[] {chunkId}, readAheadScheduler);
+  }
+
+  /**
+   * Create input chunk, which reads chunks of files one by one. Ranges of chunks must not
+   * overlap.
+   */
+  public InputChunk createInputSortedChunk(
+      SortState state, int chunks, long[] chunkIds, ReadAheadScheduler readAheadScheduler
+  ) {
+    if (chunkIds.length == 1) {
+      return createInputFileChunk(state, chunks, chunkIds[0], readAheadScheduler);
+    }
+
+    return new ChainedInputChunk(
+        chunkIds, chunkId -> createInputFileChunk(state, chunks, chunkId, readAheadScheduler)
+    );
+  }
+
+  /**
+   * Create input chunk, which reads strings of range {@code [from; to)} of chunk from position of
+   * the range. File of chunk isn't deleted, because it's read by other ranges too.
+   */
+  public InputChunk createInputRangeChunk(
+      SortState state, int chunks, long chunkId, long position, String from, String to
+  ) {
+    var chunk = createInputFileChunk(state, chunks, chunkId, null);
+    chunk.setStartPosition(position);
+    chunk.setDeleteOnExit(false);
+    return new RangeInputChunk(chunk, from, to, comparator);
+  }
+
+  /**
+   * Create input chunk of the given size, which reads chunks of files one by one. Size is given by
+   * merges, whose chunks share memory in other way than chunks of states.
+   */
+  public InputChunk createSizedInputChunk(
+      int chunkSize, long[] chunkIds, ReadAheadScheduler readAheadScheduler
+  ) {
+    if (chunkIds.length == 1) {
+      return createInputFileChunk(chunkSize, chunkIds[0], readAheadScheduler);
+    }
+
+    return new ChainedInputChunk(
+        chunkIds, chunkId -> createInputFileChunk(chunkSize, chunkId, readAheadScheduler)
+    );
+  }
+
+  private InputSortedChunk createInputFileChunk(
+      SortState state, int chunks, long chunkId, ReadAheadScheduler readAheadScheduler
+  ) {
+    var chunk = createInputFileChunk(
+        chunkParameters.getChunkSize(state, chunks), chunkId, readAheadScheduler
+    );
+
+    long maxBytes = chunkParameters.getChunkBytes(state, chunks);
+    if (readAheadScheduler != null && maxBytes != Long.MAX_VALUE) {
+      maxBytes >>= 1;
+    }
+    chunk.setMaxBytes(maxBytes);
+    return chunk;
+  }
+
+  private InputSortedChunk createInputFileChunk(
+      int chunkSize, long chunkId, ReadAheadScheduler readAheadScheduler
+  ) {
+    if (readAheadScheduler != null) {
+      // memory of chunk is shared by the loaded block and the block read ahead
+      chunkSize = Math.max(MIN_CHUNK_SIZE, chunkSize >> 1);
+    }
+
     return new InputSortedChunk(
         chunkId,
-        chunkParameters.getChunkSize(state, chunks),
-        binaryDeserializer,
+        chunkSize,
+        chunkParameters.getBufferSize(),
+        options.isCompressTemporaryFiles(),
+        createBinaryDeserializer(),
+        readAheadScheduler,
         context
     );
   }
 
-  public OutputChunk createSortableOutputChunk(int chunks) {
+  /**
+   * Create scheduler for reading ahead of input chunks of one merge.
+   *
+   * @return null if reading ahead is disabled
+   */
+  public ReadAheadScheduler createReadAheadScheduler() {
+    return readAheadExecutor == null ? null : new ReadAheadScheduler(comparator, readAheadExecutor);
+  }
+
+  public SortableOutputChunk createSortableOutputChunk(int chunks) {
     var chunkId = context.getFileSystemContext().nextTemporaryFile();
-    return new SortableOutputChunk(
-        new TemporaryDataOutputChunkId(chunkId, context),
-        chunkParameters.getChunkSize(SortState.PARTITION_SORT, chunks),
+    var chunkSize = chunkParameters.getChunkSize(SortState.PARTITION_SORT, chunks);
+    var chunk = offHeapPages != null
+        ? new OffHeapSortableOutputChunk(
+            createTemporaryId(chunkId),
+            chunkSize,
+            binarySerializer,
+            offHeapPages,
+            sortStatistics,
+            context
+        )
+        : new SortableOutputChunk(
+            createTemporaryId(chunkId),
+            chunkSize,
+            binarySerializer,
+            comparator,
+            options.getSortEngine(),
+            options.isNaturalRuns(),
+            sortStatistics,
+            context
+        );
+    return countText(limitMemory(chunk, SortState.PARTITION_SORT, chunks));
+  }
+
+  /**
+   * Create temporary chunk, which saves serialized records of raw merge, so it keeps no strings.
+   */
+  public OutputSortedChunk createTemporaryRecordOutputChunk(long[] mergedFiles) {
+    var chunkId = context.getFileSystemContext().nextTemporaryFile(mergedFiles);
+    return new OutputSortedChunk(
+        createTemporaryId(chunkId),
+        MIN_CHUNK_SIZE,
+        chunkParameters.getBufferSize(),
         binarySerializer,
-        comparator,
         context
     );
   }
 
   public CopyableOutputChunk createTemporaryOutputSortedChunk(int chunks) {
-    var chunkId = context.getFileSystemContext().nextTemporaryFile();
-    return new OutputSortedChunk(
-        new TemporaryDataOutputChunkId(chunkId, context),
+    return createTemporaryOutputSortedChunk(
+        context.getFileSystemContext().nextTemporaryFile(), chunks
+    );
+  }
+
+  /**
+   * Create temporary chunk, which saves merge of the given files.
+   */
+  public CopyableOutputChunk createTemporaryOutputSortedChunk(int chunks, long[] mergedFiles) {
+    return createTemporaryOutputSortedChunk(
+        context.getFileSystemContext().nextTemporaryFile(mergedFiles), chunks
+    );
+  }
+
+  private CopyableOutputChunk createTemporaryOutputSortedChunk(long chunkId, int chunks) {
+    var chunk = new OutputSortedChunk(
+        createTemporaryId(chunkId),
         chunkParameters.getChunkSize(SortState.MERGE, chunks),
         chunkParameters.getBufferSize(),
         binarySerializer,
         context
     );
+    return countText(limitMemory(chunk, SortState.MERGE, chunks));
   }
 
   public CopyableOutputChunk createFinalOutputSortedChunk(int chunks) {
-    return new FinalOutputChunk(
+    var chunk = new FinalOutputChunk(
         finalOutputChunkId,
         chunkParameters.getChunkSize(SortState.SAVE_OUTPUT, chunks),
         textSerializer,
         context
     );
+    return limitMemory(chunk, SortState.SAVE_OUTPUT, chunks);
+  }
+
+  /**
+   * Create temporary output chunk of the given size, which saves merge of the given files.
+   */
+  public CopyableOutputChunk createSizedTemporaryOutputChunk(int chunkSize, long[] mergedFiles) {
+    var chunkId = context.getFileSystemContext().nextTemporaryFile(mergedFiles);
+    return countText(new OutputSortedChunk(
+        createTemporaryId(chunkId),
+        chunkSize,
+        chunkParameters.getBufferSize(),
+        binarySerializer,
+        context
+    ));
+  }
+
+  /**
+   * Create temporary chunk, which buffers run of replacement selection. Buffer shares work unit
+   * of partition with tree of replacement selection, so it's limited by the given size and bytes.
+   */
+  public CopyableOutputChunk createTemporaryRunChunk(int chunkSize, long maxBytes) {
+    var chunk = new OutputSortedChunk(
+        createTemporaryId(context.getFileSystemContext().nextTemporaryFile()),
+        chunkSize,
+        chunkParameters.getBufferSize(),
+        binarySerializer,
+        context
+    );
+    chunk.setMemoryLimit(maxBytes, chunkSize);
+    return countText(chunk);
+  }
+
+  /**
+   * Create final output chunk of the given size.
+   */
+  public CopyableOutputChunk createSizedFinalOutputChunk(int chunkSize) {
+    return new FinalOutputChunk(finalOutputChunkId, chunkSize, textSerializer, context);
+  }
+
+  /**
+   * Create pipe, which passes strings of one merge to another one through memory.
+   *
+   * @param blocks count of blocks of strings in queue of pipe
+   */
+  public Pipe createPipe(int chunkSize, int blocks) {
+    return new Pipe(context.getFileSystemContext().nextTemporaryFile(), chunkSize, blocks, context);
+  }
+
+  /**
+   * Create chunk, which saves range of output into output file from the given position.
+   */
+  public CopyableOutputChunk createFinalOutputRangeChunk(long position, int chunks) {
+    return new FinalOutputChunk(
+        createBufferedId(new FileRangeOutputChunkId(outputFile, position, context)),
+        chunkParameters.getChunkSize(SortState.SAVE_OUTPUT, chunks),
+        textSerializer,
+        context
+    );
+  }
+
+  /**
+   * Limit chunk by retained bytes of strings, so chunk of short strings grows and chunk of long
+   * strings is saved early.
+   */
+  private <T extends AbstractOutputChunk> T limitMemory(T chunk, SortState state, int chunks) {
+    chunk.setMemoryLimit(
+        chunkParameters.getChunkBytes(state, chunks),
+        chunkParameters.getMaxChunkSize(state, chunks)
+    );
+    return chunk;
+  }
+
+  /**
+   * Count text of strings of temporary chunk, so ranges of parallel merge are placed in output
+   * file without reading of the whole chunks.
+   */
+  private <T extends AbstractOutputChunk> T countText(T chunk) {
+    if (options.isParallelMerge()) {
+      chunk.setTextCounter(textSerializer);
+    }
+    return chunk;
+  }
+
+  private StringDeserializer createBinaryDeserializer() {
+    // front-coded deserializer keeps state of stream
+    return options.isFrontCoding() ? new FrontCodedDeserializer(context) : binaryDeserializer;
+  }
+
+  private OutputChunkId createTemporaryId(long chunkId) {
+    var id = createBufferedId(new TemporaryDataOutputChunkId(chunkId, context));
+    return options.isCompressTemporaryFiles()
+        ? new CompressedOutputChunkId(id, COMPRESSION_BLOCK_SIZE)
+        : id;
+  }
+
+  private OutputChunkId createBufferedId(OutputChunkId id) {
+    return new BufferedOutputChunkId(id, chunkParameters.getBufferSize(), writeBehindWriter);
+  }
+
+  private static boolean hasOffHeapChunksSupport(
+      SortOptions options, Comparator<String> comparator
+  ) {
+    if (!options.isOffHeapChunks()) {
+      return false;
+    }
+
+    if (comparator != Comparator.<String>naturalOrder()) {
+      log.warn("Off-heap chunks support only natural order of strings");
+      return false;
+    }
+    if (options.isNaturalRuns()) {
+      log.warn("Off-heap chunks don't support natural runs");
+      return false;
+    }
+    return true;
   }
 }
@@ -4,10 +4,13 @@ import java.io.EOFException;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.nio.file.NoSuchFileException;
+import java.util.Arrays;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
 import org.example.context.ApplicationContext;
+import org.example.io.BlockDecompressingInputStream;
 import org.example.io.RandomAccessInputStream;
 import org.example.io.StringDeserializer;
 
@@ -16,22 +19,64 @@ public class InputSortedChunk extends AbstractInputChunk {
   private static final int DELETE_ON_EXIT_ATTRIBUTE = 0x01;
   private static final int LOADED_FILE_ATTRIBUTE = 0x02;
 
+  private static final int READ_AHEAD_IDLE = 0;
+  private static final int READ_AHEAD_QUEUED = 1;
+  private static final int READ_AHEAD_LOADING = 2;
+  private static final int READ_AHEAD_READY = 3;
+
   private final long id;
   private final File inputFile;
+  private final int bufferSize;
+  private final boolean compressed;
   private final StringDeserializer deserializer;
   private final ApplicationContext context;
 
-  private long position;
+  private RandomAccessInputStream stream;
+  private long length;
+  private long startPosition;
+  private long maxBytes = Long.MAX_VALUE;
   private byte attributes = DELETE_ON_EXIT_ATTRIBUTE;
 
+  // Read-ahead: the next block is read into readAheadData by thread of readAheadScheduler
+  private final ReadAheadScheduler readAheadScheduler;
+  private final Object readAheadLock = new Object();
+  private String[] readAheadData;
+  private int readAheadSize;
+  private long readAheadPosition;
+  private IOException readAheadException;
+  private int readAheadState = READ_AHEAD_IDLE;
+
+  public InputSortedChunk(
+      long id,
+      int chunkSize,
+      int bufferSize,
+      StringDeserializer deserializer,
+      ApplicationContext context
+  ) {
+    this(id, chunkSize, bufferSize, false, deserializer, null, context);
+  }
+
   public InputSortedChunk(
-      long id, int chunkSize, StringDeserializer deserializer, ApplicationContext context
+      long id,
+      int chunkSize,
+      int bufferSize,
+      boolean compressed,
+      StringDeserializer deserializer,
+      ReadAheadScheduler readAheadScheduler,
+      ApplicationContext context
   ) {
     super(chunkSize);
     this.id = id;
     this.inputFile = context.getFileSystemContext().getTemporaryFile(id);
+    this.bufferSize = bufferSize;
+    this.compressed = compressed;
     this.deserializer = deserializer;
+    this.readAheadScheduler = readAheadScheduler;
     this.context = context;
+
+    if (readAheadScheduler != null) {
+      this.readAheadData = new String[chunkSize];
+    }
   }
 
   @Override
@@ -51,6 +96,9 @@ public class InputSortedChunk extends AbstractInputChunk {
 
   @Override
   protected void freeResources() {
+    discardReadAhead();
+    closeStream();
+
     if (isDeleteOnExit() && !context.getFileSystemContext().delete(inputFile)) {
       log.error("Can't delete file '{}'", inputFile);
     }
@@ -60,8 +108,43 @@ public class InputSortedChunk extends AbstractInputChunk {
 
   @Override
   public boolean load() {
+    if (readAheadScheduler == null) {
+      return loadDirectly();
+    }
+
+    boolean loaded = takeReadAheadData() ? useReadAheadData() : loadDirectly();
+    if (loaded && size != 0) {
+      scheduleReadAhead(data[size - 1]);
+    }
+    return loaded;
+  }
+
+  private boolean load(Reader reader) throws IOException {
+    if (isLoadedFile() || (stream == null && !openStream())) {
+      return false;
+    }
+
+    try {
+      if (stream.getFilePointer() >= length) {
+        setLoadedFile();
+        closeStream();
+        return false;
+      }
+
+      reader.read(stream);
+      return true;
+    } catch (IOExceptionWrapper ex) {
+      throw ex.getException();
+    } catch (IOException ex) {
+      failLoad(ex);
+    }
+
+    return false;
+  }
+
+  private boolean loadDirectly() {
     try {
-      return load(inputStream -> size = deserializer.read(inputStream, data, size));
+      return load(inputStream -> size = deserializer.read(inputStream, data, size, maxBytes));
     } catch (IOException ex) {
       log.error("Unexpected exception", ex);
       context.sendSignal(ex);
@@ -69,40 +152,71 @@ public class InputSortedChunk extends AbstractInputChunk {
     }
   }
 
-  private boolean load(Reader reader) throws IOException {
+  private void failLoad(IOException ex) {
+    if (ex instanceof EOFException) {
+      log.error("Unexpected end of file '{}'", inputFile);
+    } else {
+      log.error(() -> "Can't load file '" + inputFile + "'", ex);
+    }
+
+    setLoadedFile();
+    closeStream();
+    context.sendSignal(ex);
+  }
+
+  /**
+   * File is opened once and kept open until all data is loaded, so every load is a sequential
+   * read from buffer of stream without opening, checking and seeking of file.
+   */
+  private boolean openStream() {
     if (!hasAccessToFile()) {
       return false;
     }
 
-    try (var file = context.getStreamFactory().getRandomAccessInputStream(inputFile)) {
-      if (position >= file.length()) {
-        return false;
+    try {
+      stream = context.getStreamFactory().getRandomAccessInputStream(inputFile, bufferSize);
+      if (compressed) {
+        stream = new BlockDecompressingInputStream(stream);
+      }
+      length = stream.length();
+      if (startPosition != 0) {
+        stream.seek(startPosition);
       }
-      file.seek(position);
-
-      reader.read(file);
-
-      position = file.getFilePointer();
       return true;
-    } catch (IOExceptionWrapper ex) {
-      throw ex.getException();
-    } catch (FileNotFoundException ex) {
+    } catch (FileNotFoundException | NoSuchFileException ex) {
       fileNotFound();
     } catch (IOException ex) {
-      if (ex instanceof EOFException) {
-        log.error("Unexpected end of file '{}'", inputFile);
-      } else {
-        log.error(() -> "Can't load file '" + inputFile + "'", ex);
-      }
-
-      position = Long.MAX_VALUE;
+      log.error(() -> "Can't open file '" + inputFile + "'", ex);
+      setLoadedFile();
+      closeStream();
       context.sendSignal(ex);
     }
 
     return false;
   }
 
+  private void closeStream() {
+    if (stream != null) {
+      try {
+        stream.close();
+      } catch (IOException ex) {
+        log.error(() -> "Can't close file '" + inputFile + "'", ex);
+      }
+      stream = null;
+    }
+  }
+
+  /**
+   * Raw data can be copied, if records are independent or the last loaded string, which the next
+   * record can refer to, isn't copied yet and will be written before raw data.
+   */
+  protected boolean canCopyData() {
+    return deserializer.hasIndependentRecords() || cursor < size;
+  }
+
   protected boolean copyData(int bufferSize, final Copier copier) throws IOException {
+    rewindReadAhead();
+
     return load(inputStream -> {
       final byte[] buffer = new byte[bufferSize];
       int count;
@@ -116,7 +230,169 @@ public class InputSortedChunk extends AbstractInputChunk {
     });
   }
 
-  private void setDeleteOnExit(boolean value) {
+  private void scheduleReadAhead(String lastString) {
+    if (isLoadedFile()) {
+      return;
+    }
+
+    try {
+      if (stream.getFilePointer() >= length) {
+        return;
+      }
+    } catch (IOException ex) {
+      return; // the next load will read the stream directly and report the problem
+    }
+
+    synchronized (readAheadLock) {
+      readAheadState = READ_AHEAD_QUEUED;
+    }
+    readAheadScheduler.schedule(this, lastString);
+  }
+
+  /**
+   * Take the block, which was read ahead. If reading of the block wasn't started yet, it's
+   * cancelled, because the block is needed right now and it's read by current thread.
+   */
+  private boolean takeReadAheadData() {
+    synchronized (readAheadLock) {
+      if (readAheadState == READ_AHEAD_QUEUED) {
+        readAheadState = READ_AHEAD_IDLE;
+        return false;
+      }
+
+      awaitReadAhead();
+      if (readAheadState != READ_AHEAD_READY) {
+        return false;
+      }
+
+      readAheadState = READ_AHEAD_IDLE;
+      return true;
+    }
+  }
+
+  private boolean useReadAheadData() {
+    if (readAheadException != null) {
+      var exception = readAheadException;
+      readAheadException = null;
+      failLoad(exception);
+      return false;
+    }
+
+    if (readAheadSize == 0) {
+      setLoadedFile();
+      closeStream();
+      return false;
+    }
+
+    var loadedData = data;
+    data = readAheadData;
+    readAheadData = loadedData;
+    size = readAheadSize;
+    return true;
+  }
+
+  /**
+   * Return stream to position before the block, which was read ahead, so the stream can be read
+   * directly.
+   */
+  private void rewindReadAhead() throws IOException {
+    if (readAheadScheduler == null) {
+      return;
+    }
+
+    long position = -1;
+    synchronized (readAheadLock) {
+      awaitReadAhead();
+      if (readAheadState == READ_AHEAD_READY && readAheadException == null) {
+        position = readAheadPosition;
+      }
+      resetReadAhead();
+    }
+
+    if (position >= 0 && stream != null) {
+      stream.seek(position);
+    }
+  }
+
+  private void discardReadAhead() {
+    if (readAheadScheduler == null) {
+      return;
+    }
+
+    synchronized (readAheadLock) {
+      awaitReadAhead();
+      resetReadAhead();
+    }
+  }
+
+  private void resetReadAhead() {
+    readAheadState = READ_AHEAD_IDLE;
+    readAheadException = null;
+    readAheadSize = 0;
+    Arrays.fill(readAheadData, null); // for GC
+  }
+
+  private void awaitReadAhead() {
+    boolean interrupted = false;
+    while (readAheadState == READ_AHEAD_LOADING) {
+      try {
+        readAheadLock.wait();
+      } catch (InterruptedException ex) {
+        interrupted = true;
+      }
+    }
+
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  boolean claimReadAhead() {
+    synchronized (readAheadLock) {
+      if (readAheadState != READ_AHEAD_QUEUED) {
+        return false;
+      }
+
+      readAheadState = READ_AHEAD_LOADING;
+      return true;
+    }
+  }
+
+  /**
+   * Read the next block. It's called by thread of {@link ReadAheadScheduler} after successful
+   * {@link #claimReadAhead()}, so nobody else uses stream during reading.
+   */
+  void readAhead() {
+    try {
+      Arrays.fill(readAheadData, null); // for GC
+      readAheadPosition = stream.getFilePointer();
+      readAheadSize = deserializer.read(stream, readAheadData, 0, maxBytes);
+    } catch (IOException ex) {
+      readAheadSize = 0;
+      readAheadException = ex;
+    } finally {
+      synchronized (readAheadLock) {
+        readAheadState = READ_AHEAD_READY;
+        readAheadLock.notifyAll();
+      }
+    }
+  }
+
+  /**
+   * Set position of the first read block. The block must be independent of previous data.
+   */
+  void setStartPosition(long position) {
+    this.startPosition = position;
+  }
+
+  /**
+   * Limit loaded block by retained bytes of its strings.
+   */
+  void setMaxBytes(long maxBytes) {
+    this.maxBytes = maxBytes;
+  }
+
+  void setDeleteOnExit(boolean value) {
     if (value) {
       attributes |= DELETE_ON_EXIT_ATTRIBUTE;
     } else {
@@ -0,0 +1,150 @@
+package org.example.sorter.chunks;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+
+/**
+ * Arena, which stores chars of strings in direct buffers out of heap. Latin-1 strings take byte
+ * per char, so arena isn't bigger than compact strings, which it replaces. Pages of arena are
+ * taken from pool and all of them are returned into the pool at once by release, so memory of
+ * saved chunk is reused by the next chunk without garbage collection.
+ *
+ * <p>String is addressed by index of its page in the high half of address and offset in the page
+ * in the low half. Strings, which are longer than page, get their own pages out of pool.
+ */
+final class OffHeapArena {
+
+  static final int PAGE_SIZE = 1 << 20;
+
+  private final Queue<ByteBuffer> pool;
+  private final List<ByteBuffer> pages = new ArrayList<>();
+  private ByteBuffer page;
+
+  OffHeapArena(Queue<ByteBuffer> pool) {
+    this.pool = pool;
+  }
+
+  /**
+   * Put chars of string into arena. Latin-1 string is stored by byte per char as compact string
+   * in heap, other strings by two bytes per char.
+   *
+   * @return address of string
+   */
+  long put(String value, boolean latin1) {
+    int length = getBytes(value.length(), latin1);
+    if (page == null || page.remaining() < length) {
+      page = takePage(length);
+      pages.add(page);
+    }
+
+    int offset = page.position();
+    if (latin1) {
+      for (int i = 0; i < value.length(); i++) {
+        page.put((byte) value.charAt(i));
+      }
+    } else {
+      for (int i = 0; i < value.length(); i++) {
+        page.putChar(value.charAt(i));
+      }
+    }
+    return (long) (pages.size() - 1) << Integer.SIZE | offset;
+  }
+
+  /**
+   * Get string from arena.
+   *
+   * @param buffer buffer of chars, which is long enough for the string
+   */
+  String get(long address, int length, boolean latin1, char[] buffer) {
+    var source = getPage(address);
+    int offset = (int) address;
+    for (int i = 0; i < length; i++) {
+      buffer[i] = getChar(source, offset, latin1, i);
+    }
+    return new String(buffer, 0, length);
+  }
+
+  /**
+   * Get order-preserving key of the first 4 chars of string. Missing chars are zeros, so strings
+   * with equal keys must be compared by chars.
+   */
+  long getKey(long address, int length, boolean latin1) {
+    var source = getPage(address);
+    int offset = (int) address;
+    long result = 0;
+    for (int i = 0; i < Long.BYTES / Character.BYTES; i++) {
+      result <<= Character.SIZE;
+      if (i < length) {
+        result |= getChar(source, offset, latin1, i);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Compare strings by chars in natural order of strings.
+   */
+  int compare(
+      long first, int firstLength, boolean firstLatin1,
+      long second, int secondLength, boolean secondLatin1
+  ) {
+    var firstPage = getPage(first);
+    var secondPage = getPage(second);
+    int firstOffset = (int) first;
+    int secondOffset = (int) second;
+
+    int length = Math.min(firstLength, secondLength);
+    for (int i = 0; i < length; i++) {
+      char a = getChar(firstPage, firstOffset, firstLatin1, i);
+      char b = getChar(secondPage, secondOffset, secondLatin1, i);
+      if (a != b) {
+        return a - b;
+      }
+    }
+    return firstLength - secondLength;
+  }
+
+  /**
+   * Get count of bytes of string in arena.
+   */
+  static int getBytes(int length, boolean latin1) {
+    return latin1 ? length : Character.BYTES * length;
+  }
+
+  /**
+   * Return pages into pool, so all strings of arena are released at once.
+   */
+  void release() {
+    for (var released : pages) {
+      if (released.capacity() == PAGE_SIZE) {
+        pool.offer(released.clear());
+      }
+    }
+    pages.clear();
+    page = null;
+  }
+
+  private static char getChar(ByteBuffer page, int offset, boolean latin1, int index) {
+    return latin1
+        ? (char) (page.get(offset + index) & 0xFF)
+        : page.getChar(offset + Character.BYTES * index);
+  }
+
+  private ByteBuffer getPage(long address) {
+    return pages.get((int) (address >>> Integer.SIZE));
+  }
+
+  private ByteBuffer takePage(int length) {
+    if (length > PAGE_SIZE) {
+      return ByteBuffer.allocateDirect(length).order(ByteOrder.nativeOrder());
+    }
+
+    var result = pool.poll();
+    return result != null
+        ? result
+        : ByteBuffer.allocateDirect(PAGE_SIZE).order(ByteOrder.nativeOrder());
+  }
+}
@@ -0,0 +1,220 @@
+package org.example.sorter.chunks;
+
+import static org.example.sorter.parameters.DefaultParameters.INDEX_BLOCK_STRINGS;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Queue;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.log4j.Log4j2;
+import org.example.context.ApplicationContext;
+import org.example.io.StringSerializer;
+import org.example.sorter.chunks.ids.OutputChunkId;
+import org.example.sorter.parameters.SortEngine;
+import org.example.utils.StringHelper;
+
+/**
+ * Sortable chunk, which keeps chars of strings in {@link OffHeapArena} and only primitive table
+ * of addresses and lengths in heap, so heap and time of garbage collection don't grow with count
+ * of strings. Length in table keeps coder of string in its sign bit. Strings are sorted by
+ * addresses in natural order and are created again by blocks, while chunk is saved. Pages of
+ * arena are released after save.
+ */
+@Log4j2
+public class OffHeapSortableOutputChunk extends SortableOutputChunk {
+
+  // address and length of string, key, order and buffer of merge sort
+  private static final long TABLE_BYTES_PER_STRING = 2L * Long.BYTES + 3L * Integer.BYTES;
+  private static final int INSERTION_SORT_THRESHOLD = 16;
+  private static final int LATIN1 = Integer.MIN_VALUE;
+
+  private final OffHeapArena arena;
+
+  private long[] addresses;
+  private int[] lengths;
+  private int count;
+  private int maxLength;
+
+  // bytes of arena and table, table grows up to maxCount while strings fit into maxBytes
+  private long bytes;
+  private long maxBytes = Long.MAX_VALUE;
+  private int maxCount;
+
+  private long[] keys;
+
+  public OffHeapSortableOutputChunk(
+      OutputChunkId id,
+      int chunkSize,
+      StringSerializer serializer,
+      Queue<ByteBuffer> pool,
+      SortStatistics sortStatistics,
+      ApplicationContext context
+  ) {
+    // array of strings is a block of created strings for save
+    super(
+        id,
+        Math.min(chunkSize, INDEX_BLOCK_STRINGS),
+        serializer,
+        Comparator.naturalOrder(),
+        SortEngine.COMPARATOR,
+        /* detectNaturalOrder = */ false,
+        sortStatistics,
+        context
+    );
+    this.arena = new OffHeapArena(pool);
+    this.addresses = new long[chunkSize];
+    this.lengths = new int[chunkSize];
+    this.maxCount = chunkSize;
+  }
+
+  @Override
+  public void setMemoryLimit(long maxBytes, int maxSize) {
+    this.maxBytes = maxBytes;
+    this.maxCount = Math.max(maxSize, addresses.length);
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return count == 0;
+  }
+
+  @Override
+  public boolean add(String line) {
+    if (count == addresses.length && !grow()) {
+      return false;
+    }
+
+    boolean latin1 = StringHelper.isLatin1(line);
+    if (maxBytes != Long.MAX_VALUE) {
+      long lineBytes = OffHeapArena.getBytes(line.length(), latin1) + TABLE_BYTES_PER_STRING;
+      if (count != 0 && bytes + lineBytes > maxBytes) {
+        return false;
+      }
+      bytes += lineBytes;
+    }
+
+    addresses[count] = arena.put(line, latin1);
+    lengths[count] = latin1 ? line.length() | LATIN1 : line.length();
+    maxLength = Math.max(maxLength, line.length());
+    count++;
+    return true;
+  }
+
+  @Override
+  public void save() {
+    if (count == 0) {
+      return;
+    }
+
+    long start = System.nanoTime();
+    var order = sort();
+    long nanos = System.nanoTime() - start;
+    log.debug(
+        "Chunk {} of {} strings is sorted off heap in {} ms",
+        id.getId(), count, TimeUnit.NANOSECONDS.toMillis(nanos)
+    );
+    addStatistics(SortStatistics.OFF_HEAP, count, nanos);
+
+    var buffer = new char[maxLength];
+    for (int from = 0; from < count; from += data.length) {
+      int to = Math.min(count, from + data.length);
+      for (int i = from; i < to; i++) {
+        int index = order[i];
+        data[i - from] = arena.get(addresses[index], getLength(index), isLatin1(index), buffer);
+      }
+      save(data, 0, to - from);
+    }
+    clear();
+  }
+
+  @Override
+  protected void clear() {
+    super.clear();
+    count = 0;
+    maxLength = 0;
+    bytes = 0;
+    arena.release();
+  }
+
+  private boolean grow() {
+    if (count >= maxCount) {
+      return false;
+    }
+
+    int capacity = (int) Math.min(maxCount, Math.max(count + 1L, count + (count >> 1)));
+    addresses = Arrays.copyOf(addresses, capacity);
+    lengths = Arrays.copyOf(lengths, capacity);
+    return true;
+  }
+
+  /**
+   * Sort strings by stable merge sort. Most of comparisons are done by keys of prefixes, so chars
+   * of strings are read only for equal prefixes.
+   *
+   * @return indexes of strings in sorted order
+   */
+  private int[] sort() {
+    keys = new long[count];
+    var order = new int[count];
+    for (int i = 0; i < count; i++) {
+      keys[i] = arena.getKey(addresses[i], getLength(i), isLatin1(i));
+      order[i] = i;
+    }
+
+    sort(order, new int[count], 0, count);
+    keys = null;
+    return order;
+  }
+
+  private void sort(int[] order, int[] buffer, int from, int to) {
+    if (to - from <= INSERTION_SORT_THRESHOLD) {
+      for (int i = from + 1; i < to; i++) {
+        int value = order[i];
+        int j = i - 1;
+        while (j >= from && compare(order[j], value) > 0) {
+          order[j + 1] = order[j];
+          j--;
+        }
+        order[j + 1] = value;
+      }
+      return;
+    }
+
+    int middle = (from + to) >>> 1;
+    sort(order, buffer, from, middle);
+    sort(order, buffer, middle, to);
+    if (compare(order[middle - 1], order[middle]) <= 0) {
+      return;
+    }
+
+    System.arraycopy(order, from, buffer, from, to - from);
+    int left = from;
+    int right = middle;
+    for (int i = from; i < to; i++) {
+      if (right == to || (left < middle && compare(buffer[left], buffer[right]) <= 0)) {
+        order[i] = buffer[left++];
+      } else {
+        order[i] = buffer[right++];
+      }
+    }
+  }
+
+  private int compare(int first, int second) {
+    int result = Long.compareUnsigned(keys[first], keys[second]);
+    return result != 0
+        ? result
+        : arena.compare(
+            addresses[first], getLength(first), isLatin1(first),
+            addresses[second], getLength(second), isLatin1(second)
+        );
+  }
+
+  private int getLength(int index) {
+    return lengths[index] & ~LATIN1;
+  }
+
+  private boolean isLatin1(int index) {
+    return (lengths[index] & LATIN1) != 0;
+  }
+}
@@ -1,6 +1,7 @@
 package org.example.sorter.chunks;
 
 import java.io.IOException;
+import java.util.function.Supplier;
 import org.example.context.ApplicationContext;
 import org.example.io.StringSerializer;
 import org.example.sorter.InputChunk;
@@ -21,14 +22,32 @@ public class OutputSortedChunk extends AbstractCopyableOutputChunk {
     this.bufferSize = bufferSize;
   }
 
+  /**
+   * Save serialized record of string without creating the string. Strings of chunk must be saved
+   * before records.
+   */
+  public void saveRecord(byte[] buffer, int from, int to, Supplier<String> key) {
+    try {
+      writeRecord(buffer, from, to, key);
+      loseSavedRange();
+    } catch (IOException ex) {
+      failSave(ex);
+    }
+  }
+
   @Override
   public void copyAndSave(InputChunk inputChunk) {
-    if (inputChunk instanceof InputSortedChunk anotherChunk) {
-      try (var stream = createOutputStream()) {
+    if (inputChunk instanceof InputSortedChunk anotherChunk && anotherChunk.canCopyData()) {
+      try {
+        var stream = getOutputStream();
         saveWithAdditionalData(stream, anotherChunk.data, anotherChunk.cursor, anotherChunk.size);
 
         // Copy directly binary data from anotherChunk to this chunk
-        anotherChunk.copyData(bufferSize, (bytes, len) -> stream.write(bytes, 0, len));
+        anotherChunk.copyData(bufferSize, (bytes, len) -> {
+          stream.write(bytes, 0, len);
+          addSavedBytes(len);
+        });
+        loseSavedRange();
         anotherChunk.freeResources();
       } catch (IOException ex) {
         failSave(ex);
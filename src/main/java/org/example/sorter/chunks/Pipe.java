@@ -0,0 +1,152 @@
+package org.example.sorter.chunks;
+
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import org.example.context.ApplicationContext;
+import org.example.sorter.CopyableOutputChunk;
+import org.example.sorter.InputChunk;
+
+/**
+ * Pipe, which passes sorted strings from output chunk to input chunk in memory instead of
+ * temporary file. Strings are passed by blocks through bounded queue, so writer of the output
+ * chunk waits, while reader of the input chunk is behind.
+ */
+public class Pipe {
+
+  // the end of strings, it's identified by reference
+  private static final String[] END = new String[0];
+
+  private final long id;
+  private final BlockingQueue<String[]> queue;
+  private final Output output;
+  private final Input input;
+
+  private volatile Throwable failure;
+
+  public Pipe(long id, int chunkSize, int blocks, ApplicationContext context) {
+    this.id = id;
+    this.queue = new ArrayBlockingQueue<>(blocks);
+    this.output = new Output(chunkSize, context);
+    this.input = new Input();
+  }
+
+  public CopyableOutputChunk getOutput() {
+    return output;
+  }
+
+  public InputChunk getInput() {
+    return input;
+  }
+
+  /**
+   * Stop pipe by failure of writer, so reader gets the failure instead of waiting for strings.
+   */
+  public void fail(Throwable failure) {
+    this.failure = failure;
+    // the writer is the only producer, so the end fits into the cleared queue
+    queue.clear();
+    queue.offer(END);
+  }
+
+  private void put(String[] block) {
+    try {
+      queue.put(block);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting for reader of pipe", ex);
+    }
+  }
+
+  private String[] take() {
+    try {
+      return queue.take();
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting for writer of pipe", ex);
+    }
+  }
+
+  private class Output extends AbstractCopyableOutputChunk {
+
+    private boolean closed;
+
+    Output(int chunkSize, ApplicationContext context) {
+      super(null, chunkSize, null, context);
+    }
+
+    @Override
+    public long getId() {
+      return Pipe.this.id;
+    }
+
+    @Override
+    public void save() {
+      if (size == data.length) {
+        // the full block is passed to reader without copying
+        put(data);
+        data = new String[size];
+        size = 0;
+      } else if (size != 0) {
+        put(Arrays.copyOf(data, size));
+        clear();
+      }
+    }
+
+    @Override
+    protected void save(String[] data, int from, int to) {
+      if (from < to) {
+        put(Arrays.copyOfRange(data, from, to));
+      }
+    }
+
+    @Override
+    protected void saveWithAdditionalData(String[] data, int from, int to) {
+      save();
+      save(data, from, to);
+    }
+
+    @Override
+    public void close() {
+      if (!closed) {
+        closed = true;
+        save();
+        put(END);
+      }
+    }
+  }
+
+  private class Input extends AbstractInputChunk {
+
+    private boolean ended;
+
+    Input() {
+      super(0);
+    }
+
+    @Override
+    public long getId() {
+      return Pipe.this.id;
+    }
+
+    @Override
+    public boolean load() {
+      if (ended) {
+        return false;
+      }
+
+      var block = take();
+      data = block;
+      if (block == END) {
+        ended = true;
+        if (failure != null) {
+          throw new IllegalStateException("Writer of pipe failed", failure);
+        }
+        return false;
+      }
+
+      size = block.length;
+      return true;
+    }
+  }
+}
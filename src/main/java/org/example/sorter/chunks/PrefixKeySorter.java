@@ -0,0 +1,221 @@
+package org.example.sorter.chunks;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Sorter of strings by 8-byte order-preserving keys of their prefixes. Keys are kept in long[]
+ * next to references and sorted by three-way quicksort, so most of comparisons don't touch
+ * strings. Groups of equal keys are sorted by keys of the next chars, small groups and groups of
+ * ended strings are sorted by comparator. Only natural and case-insensitive orders have keys.
+ *
+ * <p>Key contains 8 chars of 8 bits, if all chars of group at this depth are less than 256, else
+ * 4 chars of 16 bits. Missing chars are zeros. In case-insensitive order chars are folded as in
+ * {@link String#CASE_INSENSITIVE_ORDER}, but surrogates and chars after them in the key are
+ * replaced by {@link #STOP}, because such chars are compared by code points.
+ */
+final class PrefixKeySorter {
+
+  private static final int INSERTION_SORT_THRESHOLD = 16;
+  private static final int COMPARATOR_SORT_THRESHOLD = 16;
+  private static final int MAX_DEPTH = 256;
+  private static final int NARROW_CHARS = 8;
+  private static final int WIDE_CHARS = 4;
+  private static final int STOP = 0xFFFF;
+
+  private final String[] data;
+  private final long[] keys;
+  private final Comparator<String> comparator;
+  private final boolean ignoreCase;
+
+  private PrefixKeySorter(String[] data, int size, Comparator<String> comparator) {
+    this.data = data;
+    this.keys = new long[size];
+    this.comparator = comparator;
+    this.ignoreCase = comparator == String.CASE_INSENSITIVE_ORDER;
+  }
+
+  static boolean supports(Comparator<String> comparator) {
+    return comparator == Comparator.<String>naturalOrder()
+        || comparator == String.CASE_INSENSITIVE_ORDER;
+  }
+
+  static void sort(String[] data, int size, Comparator<String> comparator) {
+    if (!supports(comparator)) {
+      throw new IllegalArgumentException("Comparator doesn't support prefix keys");
+    }
+
+    new PrefixKeySorter(data, size, comparator).sort(0, size, 0);
+  }
+
+  /**
+   * Sort strings of range, which have equal keys before {@code depth}.
+   */
+  private void sort(int from, int to, int depth) {
+    int chars = computeKeys(from, to, depth);
+    if (chars == 0) {
+      Arrays.sort(data, from, to, comparator);
+    } else {
+      sortByKeys(from, to, depth + chars);
+    }
+  }
+
+  private void sortByKeys(int from, int to, int nextDepth) {
+    while (to - from > INSERTION_SORT_THRESHOLD) {
+      long pivot = median(keys[from], keys[(from + to) >>> 1], keys[to - 1]);
+
+      // [from, lt) < pivot, [lt, i) == pivot, [gt, to) > pivot
+      int lt = from;
+      int i = from;
+      int gt = to;
+      while (i < gt) {
+        long key = keys[i];
+        if (key < pivot) {
+          swap(lt++, i++);
+        } else if (key > pivot) {
+          swap(i, --gt);
+        } else {
+          i++;
+        }
+      }
+
+      sortEqualKeys(lt, gt, nextDepth);
+
+      if (lt - from < to - gt) {
+        sortByKeys(from, lt, nextDepth);
+        from = gt;
+      } else {
+        sortByKeys(gt, to, nextDepth);
+        to = lt;
+      }
+    }
+
+    insertionSort(from, to);
+    for (int start = from, end; start < to; start = end) {
+      end = start + 1;
+      while (end < to && keys[end] == keys[start]) {
+        end++;
+      }
+      sortEqualKeys(start, end, nextDepth);
+    }
+  }
+
+  private void sortEqualKeys(int from, int to, int nextDepth) {
+    if (to - from < 2) {
+      return;
+    }
+
+    if (to - from <= COMPARATOR_SORT_THRESHOLD || nextDepth > MAX_DEPTH
+        || (ignoreCase && hasStop(keys[from]))) {
+      Arrays.sort(data, from, to, comparator);
+    } else {
+      sort(from, to, nextDepth);
+    }
+  }
+
+  private void insertionSort(int from, int to) {
+    for (int i = from + 1; i < to; i++) {
+      long key = keys[i];
+      var value = data[i];
+      int j = i - 1;
+      while (j >= from && keys[j] > key) {
+        keys[j + 1] = keys[j];
+        data[j + 1] = data[j];
+        j--;
+      }
+      keys[j + 1] = key;
+      data[j + 1] = value;
+    }
+  }
+
+  /**
+   * Compute keys of chars from {@code depth}.
+   *
+   * @return count of chars in key or 0 if all strings are ended before {@code depth}
+   */
+  private int computeKeys(int from, int to, int depth) {
+    boolean ended = true;
+    boolean narrow = true;
+    for (int i = from; i < to && narrow; i++) {
+      var value = data[i];
+      ended &= value.length() <= depth;
+
+      long key = 0;
+      for (int j = 0; j < NARROW_CHARS; j++) {
+        int c = getChar(value, depth + j);
+        if (c > 0xFF) {
+          narrow = false;
+          break;
+        }
+        key = key << 8 | c;
+      }
+      keys[i] = key ^ Long.MIN_VALUE; // unsigned order of keys by signed comparison
+    }
+
+    if (narrow) {
+      return ended ? 0 : NARROW_CHARS;
+    }
+
+    ended = true;
+    for (int i = from; i < to; i++) {
+      var value = data[i];
+      ended &= value.length() <= depth;
+
+      long key = 0;
+      boolean stop = false;
+      for (int j = 0; j < WIDE_CHARS; j++) {
+        int c = stop ? STOP : getChar(value, depth + j);
+        if (ignoreCase && c >= Character.MIN_SURROGATE) {
+          stop = true;
+          c = STOP;
+        }
+        key = key << 16 | c;
+      }
+      keys[i] = key ^ Long.MIN_VALUE;
+    }
+    return ended ? 0 : WIDE_CHARS;
+  }
+
+  private int getChar(String value, int index) {
+    if (index >= value.length()) {
+      return 0;
+    }
+
+    char c = value.charAt(index);
+    if (ignoreCase) {
+      if (Character.isSurrogate(c)) {
+        return STOP;
+      }
+      return Character.toLowerCase(Character.toUpperCase(c));
+    }
+    return c;
+  }
+
+  private static boolean hasStop(long key) {
+    key ^= Long.MIN_VALUE;
+    for (int i = 0; i < WIDE_CHARS; i++) {
+      if ((key & 0xFFFF) == STOP) {
+        return true;
+      }
+      key >>>= 16;
+    }
+    return false;
+  }
+
+  private static long median(long a, long b, long c) {
+    if (a < b) {
+      return b < c ? b : Math.max(a, c);
+    }
+    return a < c ? a : Math.max(b, c);
+  }
+
+  private void swap(int i, int j) {
+    long key = keys[i];
+    keys[i] = keys[j];
+    keys[j] = key;
+
+    var value = data[i];
+    data[i] = data[j];
+    data[j] = value;
+  }
+}
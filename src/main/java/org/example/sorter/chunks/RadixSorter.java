@@ -0,0 +1,188 @@
+package org.example.sorter.chunks;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * MSD radix sorter of strings for natural and case-insensitive orders. Every group is distributed
+ * by char at its depth: by whole char, if all chars of group are less than 256, else by high byte
+ * and then by low byte. Small groups are sorted by insertion sort, which compares strings from
+ * depth of group, and groups deeper than {@code MAX_DEPTH} chars are sorted by comparator.
+ *
+ * <p>In case-insensitive order chars are folded as in {@link String#CASE_INSENSITIVE_ORDER}.
+ * Surrogates and chars from {@code '\uD800'} are compared by code points, so strings with such
+ * char at depth of group are collected in the last bucket and sorted by comparator.
+ */
+final class RadixSorter {
+
+  private static final int INSERTION_SORT_THRESHOLD = 32;
+  private static final int MAX_DEPTH = 1024;
+
+  // buckets: ended strings, 256 values of byte, strings sorted by comparator
+  private static final int ENDED_BUCKET = 0;
+  private static final int STOP_BUCKET = 257;
+  private static final int BUCKETS = 258;
+
+  private static final int END = -1;
+  private static final int STOP = Character.MAX_VALUE + 1;
+
+  private final String[] data;
+  private final String[] buffer;
+  private final int[] digits;
+  private final Comparator<String> comparator;
+  private final boolean ignoreCase;
+
+  private RadixSorter(String[] data, int size, Comparator<String> comparator) {
+    this.data = data;
+    this.buffer = new String[size];
+    this.digits = new int[size];
+    this.comparator = comparator;
+    this.ignoreCase = comparator == String.CASE_INSENSITIVE_ORDER;
+  }
+
+  static void sort(String[] data, int size, Comparator<String> comparator) {
+    if (!PrefixKeySorter.supports(comparator)) {
+      throw new IllegalArgumentException("Comparator doesn't support radix sort");
+    }
+
+    new RadixSorter(data, size, comparator).sort(0, size, 0);
+  }
+
+  /**
+   * Sort strings of range, which have equal chars before {@code depth}.
+   */
+  private void sort(int from, int to, int depth) {
+    while (to - from > 1) {
+      if (to - from < INSERTION_SORT_THRESHOLD) {
+        insertionSort(from, to, depth);
+        return;
+      }
+      if (depth > MAX_DEPTH) {
+        // strings of long common prefix are sorted by comparator in O(n log n)
+        Arrays.sort(data, from, to, comparator);
+        return;
+      }
+
+      int min = STOP;
+      int max = END;
+      for (int i = from; i < to; i++) {
+        int c = getChar(data[i], depth);
+        digits[i] = c;
+        min = Math.min(min, c);
+        max = Math.max(max, c);
+      }
+
+      if (max == END) {
+        return; // all strings are ended and equal
+      }
+
+      if (min == max && max != STOP) {
+        depth++; // all strings have the same char, so there is nothing to distribute
+        continue;
+      }
+
+      if (max <= 0xFF) {
+        for (int i = from; i < to; i++) {
+          digits[i]++;
+        }
+        var bounds = distribute(from, to);
+        for (int bucket = ENDED_BUCKET + 1; bucket < STOP_BUCKET; bucket++) {
+          sort(from + bounds[bucket], from + bounds[bucket + 1], depth + 1);
+        }
+      } else {
+        for (int i = from; i < to; i++) {
+          int c = digits[i];
+          digits[i] = c == END ? ENDED_BUCKET : c == STOP ? STOP_BUCKET : (c >>> 8) + 1;
+        }
+        var bounds = distribute(from, to);
+        for (int bucket = ENDED_BUCKET + 1; bucket < STOP_BUCKET; bucket++) {
+          sortByLowByte(from + bounds[bucket], from + bounds[bucket + 1], depth);
+        }
+        Arrays.sort(data, from + bounds[STOP_BUCKET], from + bounds[BUCKETS], comparator);
+      }
+      return;
+    }
+  }
+
+  private void sortByLowByte(int from, int to, int depth) {
+    if (to - from < INSERTION_SORT_THRESHOLD) {
+      insertionSort(from, to, depth);
+      return;
+    }
+
+    for (int i = from; i < to; i++) {
+      digits[i] = (getChar(data[i], depth) & 0xFF) + 1;
+    }
+    var bounds = distribute(from, to);
+    for (int bucket = ENDED_BUCKET + 1; bucket < STOP_BUCKET; bucket++) {
+      sort(from + bounds[bucket], from + bounds[bucket + 1], depth + 1);
+    }
+  }
+
+  /**
+   * Stable distribution of range by buckets in {@code digits}.
+   *
+   * @return offsets of buckets in range, bucket {@code b} is {@code [bounds[b], bounds[b + 1])}
+   */
+  private int[] distribute(int from, int to) {
+    var bounds = new int[BUCKETS + 1];
+    for (int i = from; i < to; i++) {
+      bounds[digits[i] + 1]++;
+    }
+    for (int bucket = 0; bucket < BUCKETS; bucket++) {
+      bounds[bucket + 1] += bounds[bucket];
+    }
+
+    var positions = Arrays.copyOf(bounds, BUCKETS);
+    for (int i = from; i < to; i++) {
+      buffer[positions[digits[i]]++] = data[i];
+    }
+    System.arraycopy(buffer, 0, data, from, to - from);
+    Arrays.fill(buffer, 0, to - from, null); // for GC
+    return bounds;
+  }
+
+  private void insertionSort(int from, int to, int depth) {
+    for (int i = from + 1; i < to; i++) {
+      var value = data[i];
+      int j = i - 1;
+      while (j >= from && compare(data[j], value, depth) > 0) {
+        data[j + 1] = data[j];
+        j--;
+      }
+      data[j + 1] = value;
+    }
+  }
+
+  private int compare(String first, String second, int depth) {
+    if (ignoreCase) {
+      return comparator.compare(first, second);
+    }
+
+    // strings of group have equal chars before depth
+    int len = Math.min(first.length(), second.length());
+    for (int i = depth; i < len; i++) {
+      char c1 = first.charAt(i);
+      char c2 = second.charAt(i);
+      if (c1 != c2) {
+        return c1 - c2;
+      }
+    }
+    return first.length() - second.length();
+  }
+
+  private int getChar(String value, int index) {
+    if (index >= value.length()) {
+      return END;
+    }
+
+    char c = value.charAt(index);
+    if (ignoreCase) {
+      if (c >= Character.MIN_SURROGATE) {
+        return STOP;
+      }
+      return Character.toLowerCase(Character.toUpperCase(c));
+    }
+    return c;
+  }
+}
@@ -0,0 +1,94 @@
+package org.example.sorter.chunks;
+
+import java.util.Comparator;
+
+/**
+ * Input chunk, which reads strings of sorted chunk from range {@code [from; to)}. Loaded block of
+ * the chunk is used as block of range, strings out of range are skipped by binary search.
+ */
+public class RangeInputChunk extends AbstractInputChunk {
+
+  private static final String[] EMPTY = new String[0];
+
+  private final AbstractInputChunk chunk;
+  private final Comparator<String> comparator;
+
+  // null bound means unbounded range
+  private String from;
+  private final String to;
+
+  private boolean ended;
+
+  public RangeInputChunk(
+      AbstractInputChunk chunk, String from, String to, Comparator<String> comparator
+  ) {
+    super(0);
+    this.chunk = chunk;
+    this.from = from;
+    this.to = to;
+    this.comparator = comparator;
+  }
+
+  @Override
+  public long getId() {
+    return chunk.getId();
+  }
+
+  @Override
+  public boolean load() {
+    while (!ended) {
+      // strings of the previous block are taken by the range
+      chunk.cursor = chunk.size;
+      if (!chunk.nextLoad()) {
+        break;
+      }
+
+      int start = chunk.cursor;
+      int end = chunk.size;
+      if (from != null) {
+        start = findFirstNotLess(chunk.data, start, end, from);
+        if (start == end) {
+          continue;
+        }
+        from = null;
+      }
+
+      if (to != null && comparator.compare(chunk.data[end - 1], to) >= 0) {
+        end = findFirstNotLess(chunk.data, start, end, to);
+        ended = true;
+      }
+
+      if (start < end) {
+        data = chunk.data;
+        cursor = start;
+        size = end;
+        return true;
+      }
+    }
+
+    ended = true;
+    chunk.freeResources();
+    data = EMPTY;
+    return false;
+  }
+
+  @Override
+  protected void freeResources() {
+    chunk.freeResources();
+    super.freeResources();
+  }
+
+  private int findFirstNotLess(String[] data, int from, int to, String key) {
+    int low = from;
+    int high = to;
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (comparator.compare(data[middle], key) < 0) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+}
@@ -0,0 +1,54 @@
+package org.example.sorter.chunks;
+
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.concurrent.Executor;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Schedules reading ahead of blocks for input chunks of one merge. It uses forecasting (D. Knuth,
+ * TAOCP vol. 3, 5.4.6): the chunk, whose loaded block has the least last string, will be drained
+ * first, so its next block is read first.
+ */
+public class ReadAheadScheduler {
+
+  private final Executor executor;
+  private final PriorityQueue<Request> queue;
+
+  public ReadAheadScheduler(Comparator<String> comparator, Executor executor) {
+    this.executor = executor;
+    this.queue = new PriorityQueue<>((a, b) -> comparator.compare(a.lastString, b.lastString));
+  }
+
+  void schedule(InputSortedChunk chunk, String lastString) {
+    synchronized (queue) {
+      queue.add(new Request(chunk, lastString));
+    }
+    executor.execute(this::readAheadNext);
+  }
+
+  private void readAheadNext() {
+    do {
+      Request request;
+      synchronized (queue) {
+        request = queue.poll();
+      }
+
+      if (request == null) {
+        return;
+      }
+
+      // request is skipped, if chunk has already loaded the block by itself
+      if (request.chunk.claimReadAhead()) {
+        request.chunk.readAhead();
+        return;
+      }
+    } while (true);
+  }
+
+  @RequiredArgsConstructor
+  private static class Request {
+    private final InputSortedChunk chunk;
+    private final String lastString;
+  }
+}
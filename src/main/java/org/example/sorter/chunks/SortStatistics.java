@@ -0,0 +1,50 @@
+package org.example.sorter.chunks;
+
+import java.io.PrintStream;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Statistics of sorted chunks by engines, which sorted them. Chunks of natural order aren't
+ * sorted, so they are counted by {@link #NATURAL_ORDER} with zero time.
+ */
+public class SortStatistics {
+
+  public static final String NATURAL_ORDER = "NATURAL_ORDER";
+  public static final String OFF_HEAP = "OFF_HEAP";
+
+  private final Map<String, Engine> engines = new ConcurrentSkipListMap<>();
+
+  /**
+   * Count chunk, which is sorted by engine.
+   */
+  public void add(String engine, int strings, long nanos) {
+    var statistics = engines.computeIfAbsent(engine, key -> new Engine());
+    statistics.chunks.increment();
+    statistics.strings.add(strings);
+    statistics.nanos.add(nanos);
+  }
+
+  public long getChunks(String engine) {
+    var statistics = engines.get(engine);
+    return statistics == null ? 0 : statistics.chunks.sum();
+  }
+
+  public void print(PrintStream out) {
+    engines.forEach((engine, statistics) -> out.format(
+        "Chunks sorted by %s: %d chunks of %d strings in %d ms%n",
+        engine,
+        statistics.chunks.sum(),
+        statistics.strings.sum(),
+        TimeUnit.NANOSECONDS.toMillis(statistics.nanos.sum())
+    ));
+  }
+
+  private static final class Engine {
+    private final LongAdder chunks = new LongAdder();
+    private final LongAdder strings = new LongAdder();
+    private final LongAdder nanos = new LongAdder();
+  }
+}
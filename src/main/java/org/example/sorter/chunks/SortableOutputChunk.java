@@ -2,13 +2,25 @@ package org.example.sorter.chunks;
 
 import java.util.Arrays;
 import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.log4j.Log4j2;
 import org.example.context.ApplicationContext;
 import org.example.io.StringSerializer;
+import org.example.sorter.OutputChunk;
 import org.example.sorter.chunks.ids.OutputChunkId;
+import org.example.sorter.parameters.SortEngine;
 
+@Log4j2
 public class SortableOutputChunk extends AbstractOutputChunk {
 
   private final Comparator<String> comparator;
+  private final SortEngine sortEngine;
+  private final boolean detectNaturalOrder;
+  private final SortStatistics sortStatistics;
+
+  // order of added strings, it's checked only if detection of natural order is enabled
+  private boolean ascending = true;
+  private boolean descending = true;
 
   public SortableOutputChunk(
       OutputChunkId id,
@@ -16,14 +28,128 @@ public class SortableOutputChunk extends AbstractOutputChunk {
       StringSerializer serializer,
       Comparator<String> comparator,
       ApplicationContext context
+  ) {
+    this(id, chunkSize, serializer, comparator, SortEngine.COMPARATOR, false, null, context);
+  }
+
+  /**
+   * Create chunk, which counts sorts by engines in statistics.
+   */
+  public SortableOutputChunk(
+      OutputChunkId id,
+      int chunkSize,
+      StringSerializer serializer,
+      Comparator<String> comparator,
+      SortEngine sortEngine,
+      boolean detectNaturalOrder,
+      SortStatistics sortStatistics,
+      ApplicationContext context
   ) {
     super(id, chunkSize, serializer, context);
     this.comparator = comparator;
+    this.sortEngine = sortEngine;
+    this.detectNaturalOrder = detectNaturalOrder;
+    this.sortStatistics = sortStatistics;
+  }
+
+  @Override
+  public boolean add(String line) {
+    if (!super.add(line)) {
+      return false;
+    }
+
+    if (detectNaturalOrder && size > 1 && (ascending || descending)) {
+      int result = comparator.compare(data[size - 2], line);
+      ascending &= result <= 0;
+      descending &= result > 0;
+    }
+    return true;
+  }
+
+  /**
+   * Check that strings were added in ascending or strictly descending order, so chunk doesn't
+   * need sorting. It's always false if detection of natural order is disabled.
+   */
+  public boolean hasNaturalOrder() {
+    return detectNaturalOrder && size != 0 && (ascending || descending);
+  }
+
+  /**
+   * Get the least string of chunk with natural order.
+   */
+  public String getFirst() {
+    return ascending ? data[0] : data[size - 1];
+  }
+
+  /**
+   * Get the greatest string of chunk with natural order.
+   */
+  public String getLast() {
+    return ascending ? data[size - 1] : data[0];
+  }
+
+  /**
+   * Add strings of chunk with natural order to run in ascending order and clear the chunk.
+   */
+  public void addTo(OutputChunk run) {
+    reverseDescendingOrder();
+    for (int i = 0; i < size; i++) {
+      run.add(data[i]);
+    }
+    clear();
   }
 
   @Override
   public void save() {
-    Arrays.sort(data, 0, size, comparator);
+    if (hasNaturalOrder()) {
+      addStatistics(SortStatistics.NATURAL_ORDER, size, 0);
+      reverseDescendingOrder();
+      super.save();
+      return;
+    }
+
+    var engine = PrefixKeySorter.supports(comparator) ? sortEngine : SortEngine.COMPARATOR;
+
+    long start = System.nanoTime();
+    switch (engine) {
+      case PREFIX_KEY -> PrefixKeySorter.sort(data, size, comparator);
+      case RADIX -> RadixSorter.sort(data, size, comparator);
+      default -> Arrays.sort(data, 0, size, comparator);
+    }
+    long nanos = System.nanoTime() - start;
+    log.debug(
+        "Chunk {} of {} strings is sorted by {} engine in {} ms",
+        id.getId(), size, engine, TimeUnit.NANOSECONDS.toMillis(nanos)
+    );
+    addStatistics(engine.name(), size, nanos);
+
     super.save();
   }
+
+  protected void addStatistics(String engine, int strings, long nanos) {
+    if (sortStatistics != null) {
+      sortStatistics.add(engine, strings, nanos);
+    }
+  }
+
+  @Override
+  protected void clear() {
+    super.clear();
+    ascending = true;
+    descending = true;
+  }
+
+  private void reverseDescendingOrder() {
+    if (ascending) {
+      return;
+    }
+
+    for (int i = 0, j = size - 1; i < j; i++, j--) {
+      var value = data[i];
+      data[i] = data[j];
+      data[j] = value;
+    }
+    ascending = true;
+    descending = false;
+  }
 }
@@ -0,0 +1,34 @@
+package org.example.sorter.chunks.ids;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import lombok.RequiredArgsConstructor;
+import org.example.io.WriteBehindWriter;
+
+/**
+ * Id which buffers streams of another id. If writer is set, data is written by its thread.
+ */
+@RequiredArgsConstructor
+public class BufferedOutputChunkId implements OutputChunkId {
+
+  private final OutputChunkId id;
+  private final int bufferSize;
+  private final WriteBehindWriter writer;
+
+  @Override
+  public long getId() {
+    return id.getId();
+  }
+
+  @Override
+  public OutputStream createOutputStream() throws IOException {
+    var stream = id.createOutputStream();
+    return writer == null ? new BufferedOutputStream(stream, bufferSize) : writer.wrap(stream);
+  }
+
+  @Override
+  public String getMessageOnFailSave() {
+    return id.getMessageOnFailSave();
+  }
+}
@@ -0,0 +1,31 @@
+package org.example.sorter.chunks.ids;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import lombok.RequiredArgsConstructor;
+import org.example.io.BlockCompressingOutputStream;
+
+/**
+ * Id which compresses data of another id by blocks.
+ */
+@RequiredArgsConstructor
+public class CompressedOutputChunkId implements OutputChunkId {
+
+  private final OutputChunkId id;
+  private final int blockSize;
+
+  @Override
+  public long getId() {
+    return id.getId();
+  }
+
+  @Override
+  public OutputStream createOutputStream() throws IOException {
+    return new BlockCompressingOutputStream(id.createOutputStream(), blockSize);
+  }
+
+  @Override
+  public String getMessageOnFailSave() {
+    return id.getMessageOnFailSave();
+  }
+}
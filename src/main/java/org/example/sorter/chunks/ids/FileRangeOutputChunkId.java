@@ -0,0 +1,33 @@
+package org.example.sorter.chunks.ids;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import lombok.RequiredArgsConstructor;
+import org.example.context.ApplicationContext;
+
+/**
+ * Id which writes file from the given position, so several ranges are written at once.
+ */
+@RequiredArgsConstructor
+public class FileRangeOutputChunkId implements OutputChunkId {
+
+  private final File file;
+  private final long position;
+  private final ApplicationContext context;
+
+  @Override
+  public long getId() {
+    return 0;
+  }
+
+  @Override
+  public OutputStream createOutputStream() throws IOException {
+    return context.getStreamFactory().getOutputStream(file, position);
+  }
+
+  @Override
+  public String getMessageOnFailSave() {
+    return "Can't save data in file '" + file + "' from position " + position;
+  }
+}
@@ -10,10 +10,13 @@ import static org.example.sorter.parameters.DefaultParameters.RESERVED_FOR_SYSTE
 import lombok.Getter;
 import lombok.ToString;
 import org.example.sorter.SortState;
+import org.example.utils.StringHelper;
 
 @ToString(exclude = "calculator")
 public class ChunkParameters {
 
+  private static final int MAX_ARRAY_SIZE = Integer.MAX_VALUE - 8;
+
   private final int availableChunks;
   private final int chunkSize;
   @Getter
@@ -23,7 +26,7 @@ public class ChunkParameters {
 
   private long totalStringSize;
   private long countStrings;
-  private long avgStringSize;
+  private volatile long avgStringSize;
 
   private final Calculator calculator;
 
@@ -85,17 +88,83 @@ public class ChunkParameters {
       throw new IllegalArgumentException();
     }
 
-    int result = Math.max(chunks / threadsCount, MIN_AVAILABLE_CHUNKS) + (threadsCount >> 1);
-    return Math.min(result, chunks);
+    int result = Math.min(
+        Math.max(chunks / threadsCount, MIN_AVAILABLE_CHUNKS) + (threadsCount >> 1), chunks
+    );
+
+    // Merge of k chunks decreases remaining chunks by k - 1. Final merge has chunks - 1 inputs,
+    // so a smaller merge is done first to make the final merge full, as in optimal merge tree.
+    long excess = (remainingChunks - (chunks - 1)) % (result - 2);
+    return excess == 0 ? result : (int) excess + 2;
   }
 
   public int getChunkSize(SortState state, int chunks) {
     return calculator.getChunkSize(state, chunks, avgStringSize);
   }
 
-  public void addStringLength(long length) {
-    totalStringSize += Character.BYTES * length;
-    countStrings++;
+  /**
+   * Get count of bytes, which strings of chunk can retain. Chunks are limited by bytes only if
+   * memory size is given, so lines of any lengths don't overflow memory.
+   */
+  public long getChunkBytes(SortState state, int chunks) {
+    if (memorySize == 0) {
+      return Long.MAX_VALUE;
+    }
+
+    if (state == SortState.PARTITION_SORT && 2 < chunks) {
+      chunks -= 2;
+    }
+    return Math.max(memorySize / chunks - bufferSize, StringHelper.MIN_RETAINED_SIZE);
+  }
+
+  /**
+   * Get the greatest count of strings of chunk. Size of chunk is calculated by average length of
+   * strings, so chunk of short strings grows, while its strings fit into bytes of chunk.
+   */
+  public int getMaxChunkSize(SortState state, int chunks) {
+    int result = getChunkSize(state, chunks);
+    if (memorySize == 0 || chunkSize != 0) {
+      // count of strings is given
+      return result;
+    }
+
+    long strings = getChunkBytes(state, chunks) / StringHelper.MIN_RETAINED_SIZE;
+    return (int) Math.max(result, Math.min(strings, MAX_ARRAY_SIZE));
+  }
+
+  /**
+   * Get size of chunks, when memory of allowable chunks is shared by more chunks.
+   *
+   * @return 0 if shared chunks are less than default chunk
+   */
+  public int getSharedChunkSize(SortState state, long chunks) {
+    long stringSize = avgStringSize;
+    if (stringSize == 0) {
+      return 0;
+    }
+
+    int allowableChunks = getAllowableChunks(state);
+    long memory = allowableChunks
+        * (getChunkSize(state, allowableChunks) * stringSize + bufferSize);
+    long value = (memory / chunks - bufferSize) / stringSize;
+    return value < DEFAULT_CHUNK_SIZE ? 0 : (int) Math.min(value, Integer.MAX_VALUE);
+  }
+
+  public void addStringSize(long size) {
+    addStringSizes(size, 1);
+  }
+
+  /**
+   * Add retained bytes of strings. Average size of strings includes headers of objects and
+   * reference in chunk, so chunks of any strings are calculated by the real memory of strings.
+   */
+  public synchronized void addStringSizes(long totalSize, long count) {
+    if (count <= 0) {
+      return;
+    }
+
+    totalStringSize += totalSize;
+    countStrings += count;
     avgStringSize = totalStringSize / countStrings + 1;
   }
 
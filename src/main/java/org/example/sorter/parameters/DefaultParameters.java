@@ -14,6 +14,11 @@ public final class DefaultParameters {
   public static final int MIN_CHUNK_SIZE = 1;
   public static final int DEFAULT_BUFFER_SIZE = (int) COEFFICIENT_BUF_STRING;
   public static final int MIN_BUFFER_SIZE = 4;
+  public static final int WRITE_BEHIND_BUFFER_SIZE = (int) DataSize.ofKiloBytes(256).toBytes();
+  public static final int COMPRESSION_BLOCK_SIZE = (int) DataSize.ofKiloBytes(64).toBytes();
+  public static final int PARTITION_SAMPLE_SIZE = (int) DataSize.ofKiloBytes(64).toBytes();
+  public static final long INDEX_BLOCK_SIZE = DataSize.ofKiloBytes(256).toBytes();
+  public static final int INDEX_BLOCK_STRINGS = 1024;
 
   private DefaultParameters() {
     throw new UnsupportedOperationException("DefaultParameters is utility");
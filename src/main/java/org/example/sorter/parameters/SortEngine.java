@@ -0,0 +1,23 @@
+package org.example.sorter.parameters;
+
+/**
+ * Algorithm, which sorts chunks during partition.
+ */
+public enum SortEngine {
+  /**
+   * Sort references by comparator.
+   */
+  COMPARATOR,
+
+  /**
+   * Sort 8-byte prefix keys of strings and use comparator only for equal keys. It works only for
+   * natural and case-insensitive orders, other orders are sorted by comparator.
+   */
+  PREFIX_KEY,
+
+  /**
+   * MSD radix sort by chars of strings. It works only for natural and case-insensitive orders,
+   * other orders are sorted by comparator.
+   */
+  RADIX
+}
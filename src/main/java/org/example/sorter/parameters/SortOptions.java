@@ -0,0 +1,80 @@
+package org.example.sorter.parameters;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+@Getter
+@Setter
+@ToString
+public class SortOptions {
+
+  /**
+   * Split input file into line-aligned byte ranges and read them by several threads.
+   */
+  private boolean parallelPartition;
+
+  /**
+   * Count of threads for reading ahead of blocks of temporary files during merge. Zero disables
+   * reading ahead.
+   */
+  private int readAheadThreads;
+
+  /**
+   * Serialize output into pooled buffers, which are written to files by dedicated thread.
+   */
+  private boolean writeBehind;
+
+  /**
+   * Compress temporary files by blocks.
+   */
+  private boolean compressTemporaryFiles;
+
+  /**
+   * Store strings of temporary files as length of prefix shared with the previous string and
+   * suffix.
+   */
+  private boolean frontCoding;
+
+  /**
+   * Generate runs of partition by replacement selection instead of sorting of chunks.
+   */
+  private boolean replacementSelection;
+
+  /**
+   * Write chunks, which are already in ascending or descending order, without sorting and chain
+   * them into one run while their ranges don't overlap.
+   */
+  private boolean naturalRuns;
+
+  /**
+   * Split merges into ranges of strings, which are merged by several threads. Threads are shared
+   * by active merges, so the final merge and merges at the tail of sorting are split.
+   */
+  private boolean parallelMerge;
+
+  /**
+   * Merge all remaining chunks in one pass by a tree of merges, which pass strings through memory
+   * instead of temporary files, when memory of the tree fits.
+   */
+  private boolean pipelinedMerge;
+
+  /**
+   * Merge saved chunks, while input is partitioned, if chunks need intermediate merges anyway.
+   */
+  private boolean earlyMerge;
+
+  /**
+   * Keep chars of strings of partition chunks in pages out of heap. Only natural order is
+   * supported and natural runs aren't detected in such chunks.
+   */
+  private boolean offHeapChunks;
+
+  /**
+   * Merge serialized records of intermediate merges without creating strings. Only natural order
+   * without front coding is supported.
+   */
+  private boolean rawMerge;
+
+  private SortEngine sortEngine = SortEngine.COMPARATOR;
+}
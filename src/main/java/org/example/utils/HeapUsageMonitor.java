@@ -0,0 +1,83 @@
+package org.example.utils;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.management.ListenerNotFoundException;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+
+/**
+ * Monitor, which tracks the greatest usage of tenured pools of heap after garbage collections.
+ * Objects of sorting, which survive collections, are promoted into tenured pools, so their usage
+ * after every collection (young one too) is compared with memory, which is predicted by
+ * parameters of sorting. Collector without generations has one pool, which is tenured.
+ */
+public class HeapUsageMonitor implements AutoCloseable {
+
+  // parts of names of young pools of collectors
+  private static final List<String> YOUNG_POOLS = List.of("Eden", "Survivor", "Young");
+
+  private final List<MemoryPoolMXBean> tenuredPools;
+  private final List<NotificationEmitter> emitters = new ArrayList<>();
+  private final NotificationListener listener = this::handleNotification;
+  private final AtomicLong peakUsage = new AtomicLong();
+
+  public HeapUsageMonitor() {
+    tenuredPools = ManagementFactory.getMemoryPoolMXBeans().stream()
+        .filter(pool -> pool.getType() == MemoryType.HEAP)
+        .filter(pool -> YOUNG_POOLS.stream().noneMatch(pool.getName()::contains))
+        .toList();
+
+    for (var collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+      if (collector instanceof NotificationEmitter emitter) {
+        emitter.addNotificationListener(listener, null, null);
+        emitters.add(emitter);
+      }
+    }
+  }
+
+  /**
+   * Get the greatest count of used bytes of tenured pools after garbage collection.
+   */
+  public long getPeakUsage() {
+    return peakUsage.get();
+  }
+
+  @Override
+  public void close() {
+    for (var emitter : emitters) {
+      try {
+        emitter.removeNotificationListener(listener);
+      } catch (ListenerNotFoundException ex) {
+        // listener is already removed
+      }
+    }
+    emitters.clear();
+  }
+
+  private void handleNotification(Notification notification, Object handback) {
+    if (!GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION
+        .equals(notification.getType())) {
+      return;
+    }
+
+    // young collection doesn't free garbage of tenured pools, so usage is the upper bound of
+    // live objects, which is reached by growth of sorted data anyway
+    var info = GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+    var usageAfterGc = info.getGcInfo().getMemoryUsageAfterGc();
+    long usage = 0;
+    for (var pool : tenuredPools) {
+      // young collection of some collectors doesn't report tenured pools, which it promotes into
+      var poolUsage = usageAfterGc.get(pool.getName());
+      usage += (poolUsage != null ? poolUsage : pool.getUsage()).getUsed();
+    }
+    peakUsage.accumulateAndGet(usage, Math::max);
+  }
+}
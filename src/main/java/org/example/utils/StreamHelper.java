@@ -1,7 +1,14 @@
 package org.example.utils;
 
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import org.example.io.RandomAccessInputStream;
+
 public final class StreamHelper {
 
+  private static final int LINE_BOUNDARY_BUFFER_SIZE = 8192;
+
   private StreamHelper() {
     throw new UnsupportedOperationException("StreamHelper is utility");
   }
@@ -20,4 +27,62 @@ public final class StreamHelper {
       value >>>= 7;
     } while (true);
   }
+
+  /**
+   * Check that '\n' and '\r' are encoded as single bytes of ASCII. Only for such charsets a byte
+   * '\n' in stream is always end of line and stream can be split by lines without decoding.
+   */
+  public static boolean hasSingleByteLineSeparators(Charset charset) {
+    return charset.canEncode()
+        && Arrays.equals("\n".getBytes(charset), new byte[] {'\n'})
+        && Arrays.equals("\r".getBytes(charset), new byte[] {'\r'});
+  }
+
+  /**
+   * Split stream into {@code parts} ranges. Every bound is moved forward to the nearest beginning
+   * of line, so some ranges can be empty.
+   *
+   * @return array of {@code parts + 1} bounds, where i-th range is [result[i]; result[i + 1])
+   */
+  public static long[] getLineBoundaries(RandomAccessInputStream stream, int parts)
+      throws IOException {
+    if (parts < 1) {
+      throw new IllegalArgumentException("parts must be greater than zero");
+    }
+
+    final long length = stream.length();
+    final var buffer = new byte[LINE_BOUNDARY_BUFFER_SIZE];
+
+    var result = new long[parts + 1];
+    result[parts] = length;
+    for (int i = 1; i < parts; i++) {
+      long position = Math.max(length / parts * i, result[i - 1]);
+      result[i] = getNextLineBoundary(stream, position, buffer);
+    }
+
+    return result;
+  }
+
+  private static long getNextLineBoundary(
+      RandomAccessInputStream stream, long position, byte[] buffer
+  ) throws IOException {
+    if (position <= 0) {
+      return 0;
+    }
+
+    // byte before position can be end of previous line
+    stream.seek(position - 1);
+
+    int count;
+    while ((count = stream.read(buffer, 0, buffer.length)) > 0) {
+      for (int i = 0; i < count; i++) {
+        if (buffer[i] == '\n') {
+          return position + i;
+        }
+      }
+      position += count;
+    }
+
+    return stream.length();
+  }
 }
@@ -1,11 +1,75 @@
 package org.example.utils;
 
+import com.sun.management.HotSpotDiagnosticMXBean;
+import java.lang.management.ManagementFactory;
+
 public final class StringHelper {
 
+  private static final long COMPRESSED_OOPS_HEAP_SIZE = 32L << 30;
+
+  // sizes of layout of the running VM: reference to string in array, String with its fields and
+  // header of value array
+  private static final int REFERENCE_SIZE;
+  private static final int STRING_SIZE;
+  private static final int ARRAY_HEADER_SIZE;
+  private static final int ALIGNMENT;
+
+  static {
+    var compressedOops = Runtime.getRuntime().maxMemory() < COMPRESSED_OOPS_HEAP_SIZE;
+    var compressedClassPointers = true;
+    int alignment = 8;
+    try {
+      var diagnostic = ManagementFactory.getPlatformMXBean(HotSpotDiagnosticMXBean.class);
+      compressedOops = Boolean.parseBoolean(diagnostic.getVMOption("UseCompressedOops").getValue());
+      compressedClassPointers = Boolean.parseBoolean(
+          diagnostic.getVMOption("UseCompressedClassPointers").getValue()
+      );
+      alignment = Integer.parseInt(diagnostic.getVMOption("ObjectAlignmentInBytes").getValue());
+    } catch (RuntimeException | LinkageError ex) {
+      // not HotSpot, so layout of HotSpot with default options is expected
+    }
+
+    // mark word and class pointer
+    int objectHeader = Long.BYTES + (compressedClassPointers ? Integer.BYTES : Long.BYTES);
+    REFERENCE_SIZE = compressedOops ? Integer.BYTES : Long.BYTES;
+    ALIGNMENT = alignment;
+    // fields: hash, coder, hashIsZero and reference to value array
+    STRING_SIZE = (int) align(
+        objectHeader + Integer.BYTES + 2 * Byte.BYTES + REFERENCE_SIZE, ALIGNMENT
+    );
+    // elements of arrays are aligned by word
+    ARRAY_HEADER_SIZE = (int) align(objectHeader + Integer.BYTES, Long.BYTES);
+  }
+
+  /**
+   * The least count of bytes, which string retains.
+   */
+  public static final long MIN_RETAINED_SIZE = getRetainedSize(0);
+
   private StringHelper() {
     throw new UnsupportedOperationException("StringHelper is utility");
   }
 
+  /**
+   * Get count of bytes, which string with value array of the given length retains together with
+   * its reference in array.
+   */
+  public static long getRetainedSize(int valueLength) {
+    return REFERENCE_SIZE + STRING_SIZE + align(ARRAY_HEADER_SIZE + (long) valueLength, ALIGNMENT);
+  }
+
+  /**
+   * Check, whether all chars of string are Latin-1, so compact string stores a byte per char.
+   */
+  public static boolean isLatin1(String value) {
+    for (int i = 0; i < value.length(); i++) {
+      if (value.charAt(i) > 0xFF) {
+        return false;
+      }
+    }
+    return true;
+  }
+
   public static String newString(byte[] values, int count, StringBuilder buffer) {
     buffer.ensureCapacity(count);
     buffer.setLength(0);
@@ -15,4 +79,8 @@ public final class StringHelper {
     }
     return buffer.toString();
   }
+
+  private static long align(long size, int alignment) {
+    return (size + alignment - 1) / alignment * alignment;
+  }
 }
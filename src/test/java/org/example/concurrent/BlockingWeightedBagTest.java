@@ -0,0 +1,53 @@
+package org.example.concurrent;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class BlockingWeightedBagTest {
+
+  @Test
+  void takeLightestValues() throws InterruptedException {
+    var weights = Map.of(1L, 30L, 2L, 10L, 3L, 20L, 4L, 10L);
+    var bag = new BlockingWeightedBag(weights::get);
+    bag.add(1);
+    bag.add(2);
+    bag.add(3);
+    bag.add(4);
+
+    assertThat(bag.takes(3).toArray()).containsExactly(2, 4, 3);
+    assertThat(bag.countElements()).isEqualTo(1);
+  }
+
+  @Test
+  void tryTakeValues() {
+    var bag = new BlockingWeightedBag(value -> value);
+    bag.add(3);
+    bag.add(1);
+
+    assertThat(bag.tryTakes(3)).isNull();
+    assertThat(bag.tryTakes(2).toArray()).containsExactly(1, 3);
+    assertThat(bag.countElements()).isZero();
+  }
+
+  @Test
+  void waitAllValues() throws Exception {
+    var bag = new BlockingWeightedBag(value -> -value);
+    bag.add(1);
+
+    var future = CompletableFuture.supplyAsync(() -> {
+      try {
+        return bag.takes(2).toArray();
+      } catch (InterruptedException ex) {
+        throw new IllegalStateException(ex);
+      }
+    });
+    bag.add(2);
+
+    assertThat(future.get(10, TimeUnit.SECONDS)).containsExactly(2, 1);
+    assertThat(bag.countElements()).isZero();
+  }
+}
@@ -0,0 +1,62 @@
+package org.example.context;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class StripedFileSystemContextTest {
+
+  @TempDir
+  Path directory;
+
+  @Test
+  void placeNewFilesByRoundRobin() throws IOException {
+    var roots = createRoots(3);
+    var context = new StripedFileSystemContext("test", roots);
+    context.createTemporaryDirectory();
+
+    var ids = new HashSet<Long>();
+    for (int i = 0; i < 6; i++) {
+      long id = context.nextTemporaryFile();
+      assertThat(ids.add(id)).isTrue();
+
+      var file = context.getTemporaryFile(id);
+      assertThat(file.getParentFile().getParentFile()).isEqualTo(roots.get(i % roots.size()));
+    }
+  }
+
+  @Test
+  void placeFileOfMergeApartFromMergedFiles() throws IOException {
+    var roots = createRoots(4);
+    // the first and the second roots are on the same disk
+    var context = new StripedFileSystemContext("test", roots, new int[] {0, 0, 2, 3});
+    context.createTemporaryDirectory();
+
+    var merged = new long[3];
+    for (int i = 0; i < merged.length; i++) {
+      merged[i] = context.nextTemporaryFile();
+      Files.write(context.getTemporaryFile(merged[i]).toPath(), new byte[10]);
+    }
+    // files are on disks 0, 0 and 2, so disk 3 is empty
+    for (int i = 0; i < 4; i++) {
+      var file = context.getTemporaryFile(context.nextTemporaryFile(merged));
+      assertThat(file.getParentFile().getParentFile()).isEqualTo(roots.get(3));
+    }
+  }
+
+  private List<File> createRoots(int count) throws IOException {
+    List<File> result = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      result.add(Files.createDirectory(directory.resolve("disk" + i)).toFile());
+    }
+    return result;
+  }
+}
@@ -0,0 +1,67 @@
+package org.example.io;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Random;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+class BlockDecompressingInputStreamTest {
+
+  @ParameterizedTest
+  @CsvSource({
+      "0, 16",
+      "1, 16",
+      "100, 16",
+      "1000, 64",
+      "10000, 1024",
+  })
+  void readAndSeek(int size, int blockSize) throws IOException {
+    var random = new Random(size);
+    var expected = new byte[size];
+    for (int i = 0; i < size; i++) {
+      // half of data is compressible
+      expected[i] = (byte) (i % 512 < 256 ? i % 7 : random.nextInt());
+    }
+
+    var file = new ByteArrayOutputStream();
+    try (var stream = new BlockCompressingOutputStream(file, blockSize)) {
+      stream.write(expected, 0, size / 2);
+      for (int i = size / 2; i < size; i++) {
+        stream.write(expected[i]);
+      }
+    }
+
+    try (var stream = open(file)) {
+      assertThat(stream.length()).isEqualTo(size);
+
+      var actual = new byte[size];
+      assertThat(stream.read(actual, 0, size)).isEqualTo(size);
+      assertThat(actual).isEqualTo(expected);
+      assertThat(stream.read()).isEqualTo(-1);
+      assertThat(stream.getFilePointer()).isEqualTo(size);
+
+      for (int i = 0; i < 20 && size > 0; i++) {
+        int position = random.nextInt(size);
+        stream.seek(position);
+        assertThat(stream.getFilePointer()).isEqualTo(position);
+        assertThat(stream.read()).isEqualTo(expected[position] & 0xFF);
+      }
+    }
+
+    try (var stream = open(file)) {
+      // seek forward before any read
+      stream.seek(size / 3);
+      assertThat(stream.getFilePointer()).isEqualTo(size / 3);
+      if (size > 0) {
+        assertThat(stream.read()).isEqualTo(expected[size / 3] & 0xFF);
+      }
+    }
+  }
+
+  private static BlockDecompressingInputStream open(ByteArrayOutputStream file) {
+    return new BlockDecompressingInputStream(new MockRandomAccessInputStream(file.toByteArray()));
+  }
+}
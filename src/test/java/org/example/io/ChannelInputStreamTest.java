@@ -0,0 +1,93 @@
+package org.example.io;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class ChannelInputStreamTest {
+
+  @TempDir
+  Path directory;
+
+  @ParameterizedTest
+  @ValueSource(ints = {1, 3, 16, 1024})
+  void readAndSeek(int bufferSize) throws IOException {
+    var expected = new byte[100];
+    for (int i = 0; i < expected.length; i++) {
+      expected[i] = (byte) i;
+    }
+    var file = Files.write(directory.resolve("data"), expected);
+
+    try (var stream = open(file, bufferSize)) {
+      assertThat(stream.length()).isEqualTo(expected.length);
+
+      assertThat(stream.read()).isEqualTo(0);
+      assertThat(stream.getFilePointer()).isEqualTo(1);
+
+      var actual = new byte[40];
+      assertThat(stream.read(actual, 0, actual.length)).isEqualTo(actual.length);
+      for (int i = 0; i < actual.length; i++) {
+        assertThat(actual[i]).isEqualTo(expected[i + 1]);
+      }
+      assertThat(stream.getFilePointer()).isEqualTo(41);
+
+      stream.seek(10);
+      assertThat(stream.read()).isEqualTo(10);
+
+      stream.seek(95);
+      assertThat(stream.read(actual, 0, actual.length)).isEqualTo(5);
+      assertThat(actual[0]).isEqualTo((byte) 95);
+      assertThat(stream.getFilePointer()).isEqualTo(100);
+
+      assertThat(stream.read()).isEqualTo(-1);
+      assertThat(stream.read(actual, 0, actual.length)).isEqualTo(-1);
+    }
+  }
+
+  @Test
+  void seekAfterDirectRead() throws IOException {
+    var expected = new byte[2000];
+    for (int i = 0; i < expected.length; i++) {
+      expected[i] = (byte) i;
+    }
+    var file = Files.write(directory.resolve("data"), expected);
+
+    try (var stream = open(file, 100)) {
+      var actual = new byte[1000];
+      assertThat(stream.read(actual, 0, 50)).isEqualTo(50);
+      assertThat(stream.read(actual, 0, 50)).isEqualTo(50);
+      // the read is bigger than buffer, so it bypasses buffer
+      assertThat(stream.read(actual, 0, 1000)).isEqualTo(1000);
+      assertThat(actual[0]).isEqualTo((byte) 100);
+
+      stream.seek(1050);
+      assertThat(stream.read()).isEqualTo(1050 & 0xFF);
+      stream.seek(60);
+      assertThat(stream.read()).isEqualTo(60);
+    }
+  }
+
+  @ParameterizedTest
+  @ValueSource(ints = {1, 2, 64})
+  void readVarint(int bufferSize) throws IOException {
+    var file = Files.write(directory.resolve("varint"), new byte[] {(byte) 0xAC, 0x02, 0x05});
+
+    try (var stream = open(file, bufferSize)) {
+      assertThat(stream.readVarint32(stream.read())).isEqualTo(300);
+      assertThat(stream.readVarint32(stream.read())).isEqualTo(5);
+      assertThat(stream.read()).isEqualTo(-1);
+    }
+  }
+
+  private static ChannelInputStream open(Path file, int bufferSize) throws IOException {
+    return new ChannelInputStream(FileChannel.open(file, StandardOpenOption.READ), bufferSize);
+  }
+}
@@ -0,0 +1,78 @@
+package org.example.io;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.example.context.ApplicationContext;
+import org.example.context.DefaultStringContext;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+class FrontCodedSerializerTest {
+
+  private static final String[] DATA = {
+      "",
+      "",
+      "http://example.org/",
+      "http://example.org/a/b/c",
+      "http://example.org/a/b/c",
+      "http://example.org/a/b/d",
+      "http://example.org/a/bc",
+      "http://пример.рф/путь",
+      "http://пример.рф/путь/2",
+      "z",
+  };
+
+  @ParameterizedTest
+  @CsvSource({
+      "true, 4, 16",
+      "true, 3, 1",
+      "false, 4, 16",
+      "false, 3, 1",
+  })
+  void writeAndRead(boolean reflectionFlag, int callSize, int readSize) throws Exception {
+    var stringContext = new DefaultStringContext(reflectionFlag);
+    var context = mock(ApplicationContext.class);
+    when(context.getStringContext()).thenReturn(stringContext);
+
+    var outputStream = new ByteArrayOutputStream();
+    var serializer = new FrontCodedSerializer(16, stringContext);
+    for (int from = 0; from < DATA.length; from += callSize) {
+      serializer.write(outputStream, DATA, from, Math.min(DATA.length, from + callSize));
+    }
+
+    var actual = new ArrayList<String>();
+    var deserializer = new FrontCodedDeserializer(context);
+    try (var inputStream = new MockRandomAccessInputStream(outputStream.toByteArray())) {
+      var data = new String[readSize];
+      int count;
+      while ((count = deserializer.read(inputStream, data, 0)) > 0) {
+        actual.addAll(Arrays.asList(data).subList(0, count));
+        Arrays.fill(data, null);
+      }
+    }
+
+    assertThat(actual).isEqualTo(List.of(DATA));
+  }
+
+  @ParameterizedTest
+  @CsvSource({"true", "false"})
+  void writeSharedPrefixOnce(boolean reflectionFlag) throws Exception {
+    var stringContext = new DefaultStringContext(reflectionFlag);
+    var line = "http://example.org/some/long/path/";
+    var data = new String[] {line + "1", line + "2", line + "3"};
+
+    var binary = new ByteArrayOutputStream();
+    new BinarySerializer(16, stringContext).write(binary, data, 0, data.length);
+
+    var frontCoded = new ByteArrayOutputStream();
+    new FrontCodedSerializer(16, stringContext).write(frontCoded, data, 0, data.length);
+
+    assertThat(frontCoded.size()).isLessThan(binary.size() / 2);
+  }
+}
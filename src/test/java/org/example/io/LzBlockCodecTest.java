@@ -0,0 +1,80 @@
+package org.example.io;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class LzBlockCodecTest {
+
+  @ParameterizedTest
+  @ValueSource(ints = {0, 1, 12, 13, 100, 1000, 65536})
+  void compressAndDecompressText(int size) throws IOException {
+    var line = "2023-01-01 INFO [main] org.example.Service: request processed\n";
+    var text = new StringBuilder();
+    var random = new Random(size);
+    while (text.length() < size) {
+      text.append(random.nextInt(100)).append(line);
+    }
+    var expected = text.substring(0, size).getBytes(StandardCharsets.UTF_8);
+
+    var compressed = new byte[expected.length + 16];
+    int len = new LzBlockCodec().compress(
+        expected, 0, expected.length, compressed, 0, compressed.length
+    );
+    assertThat(len).isPositive();
+    if (size >= 1000) {
+      assertThat(len).isLessThan(expected.length / 4);
+    }
+
+    var actual = new byte[expected.length];
+    LzBlockCodec.decompress(compressed, 0, len, actual, 0, actual.length);
+    assertThat(actual).isEqualTo(expected);
+  }
+
+  @Test
+  void compressOverlappedMatches() throws IOException {
+    var expected = new byte[1000];
+    for (int i = 0; i < expected.length; i++) {
+      expected[i] = (byte) (i % 3);
+    }
+
+    var compressed = new byte[expected.length];
+    int len = new LzBlockCodec().compress(
+        expected, 0, expected.length, compressed, 0, compressed.length
+    );
+    assertThat(len).isLessThan(32);
+
+    var actual = new byte[expected.length];
+    LzBlockCodec.decompress(compressed, 0, len, actual, 0, actual.length);
+    assertThat(actual).isEqualTo(expected);
+  }
+
+  @Test
+  void notCompressRandomData() {
+    var data = new byte[4096];
+    new Random(1).nextBytes(data);
+
+    var compressed = new byte[data.length];
+    int len = new LzBlockCodec().compress(data, 0, data.length, compressed, 0, data.length - 1);
+    assertThat(len).isEqualTo(-1);
+  }
+
+  @Test
+  void decompressCorruptedBlock() {
+    var data = "abcabcabcabcabcabcabcabcabcabc".getBytes(StandardCharsets.US_ASCII);
+    var compressed = new byte[data.length];
+    int len = new LzBlockCodec().compress(data, 0, data.length, compressed, 0, data.length);
+
+    var actual = new byte[data.length];
+    assertThatThrownBy(() -> LzBlockCodec.decompress(compressed, 0, len - 1, actual, 0, data.length))
+        .isInstanceOf(IOException.class);
+    assertThatThrownBy(() -> LzBlockCodec.decompress(compressed, 0, len, actual, 0, data.length - 1))
+        .isInstanceOf(IOException.class);
+  }
+}
@@ -0,0 +1,99 @@
+package org.example.io;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class MappedInputStreamTest {
+
+  @TempDir
+  Path directory;
+
+  @ParameterizedTest
+  @ValueSource(ints = {1, 3, 16, MappedInputStream.SEGMENT_SIZE})
+  void readAndSeek(int segmentSize) throws IOException {
+    var expected = new byte[100];
+    for (int i = 0; i < expected.length; i++) {
+      expected[i] = (byte) i;
+    }
+    var file = Files.write(directory.resolve("data"), expected);
+
+    try (var stream = open(file, segmentSize)) {
+      assertThat(stream.length()).isEqualTo(expected.length);
+
+      assertThat(stream.read()).isEqualTo(0);
+      assertThat(stream.getFilePointer()).isEqualTo(1);
+
+      var actual = new byte[40];
+      assertThat(stream.read(actual, 0, actual.length)).isEqualTo(actual.length);
+      for (int i = 0; i < actual.length; i++) {
+        assertThat(actual[i]).isEqualTo(expected[i + 1]);
+      }
+      assertThat(stream.getFilePointer()).isEqualTo(41);
+
+      stream.seek(10);
+      assertThat(stream.read()).isEqualTo(10);
+
+      stream.seek(95);
+      assertThat(stream.read(actual, 0, actual.length)).isEqualTo(5);
+      assertThat(actual[0]).isEqualTo((byte) 95);
+      assertThat(stream.getFilePointer()).isEqualTo(100);
+
+      assertThat(stream.read()).isEqualTo(-1);
+      assertThat(stream.read(actual, 0, actual.length)).isEqualTo(-1);
+    }
+  }
+
+  @ParameterizedTest
+  @ValueSource(ints = {1, 2, 64})
+  void readVarint(int segmentSize) throws IOException {
+    var file = Files.write(directory.resolve("varint"), new byte[] {(byte) 0xAC, 0x02, 0x05});
+
+    try (var stream = open(file, segmentSize)) {
+      assertThat(stream.readVarint32(stream.read())).isEqualTo(300);
+      assertThat(stream.readVarint32(stream.read())).isEqualTo(5);
+      assertThat(stream.read()).isEqualTo(-1);
+    }
+  }
+
+  @Test
+  void readEmptyFile() throws IOException {
+    var file = Files.write(directory.resolve("empty"), new byte[0]);
+
+    try (var stream = MappedFileStreamFactory.getInstance()
+        .getRandomAccessInputStream(file.toFile(), 1)) {
+      assertThat(stream.length()).isZero();
+      assertThat(stream.read()).isEqualTo(-1);
+      assertThat(stream.read(new byte[1], 0, 1)).isEqualTo(-1);
+    }
+  }
+
+  @Test
+  void unmapOnClose() throws IOException {
+    var maps = Path.of("/proc/self/maps");
+    assumeTrue(Files.isReadable(maps), "mappings of process are listed only by Linux");
+
+    var file = Files.write(directory.resolve("unmapped"), new byte[] {1, 2, 3});
+    var stream = open(file, MappedInputStream.SEGMENT_SIZE);
+    assertThat(stream.read()).isEqualTo(1);
+    assertThat(Files.readString(maps)).contains(file.toString());
+
+    stream.close();
+    assertThat(Files.readString(maps)).doesNotContain(file.toString());
+  }
+
+  private static MappedInputStream open(Path file, int segmentSize) throws IOException {
+    try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      return new MappedInputStream(channel, segmentSize);
+    }
+  }
+}
@@ -14,6 +14,12 @@ public class MockRandomAccessInputStream extends ByteArrayInputStream
     return buf.length;
   }
 
+  @Override
+  public synchronized int read(byte[] b, int off, int len) {
+    // as file streams, but unlike ByteArrayInputStream, empty read at the end isn't end of stream
+    return len == 0 ? 0 : super.read(b, off, len);
+  }
+
   @Override
   public synchronized long getFilePointer() {
     return pos;
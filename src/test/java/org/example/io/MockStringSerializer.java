@@ -13,8 +13,9 @@ public class MockStringSerializer implements StringSerializer {
   private final List<Args> args = new ArrayList<>();
 
   @Override
-  public void write(OutputStream stream, String[] data, int from, int to) {
+  public long write(OutputStream stream, String[] data, int from, int to) {
     args.add(new Args(stream, data, from, to));
+    return 0;
   }
 
   public void verify(int times, OutputStream stream, String[] data, int from, int to) {
@@ -0,0 +1,144 @@
+package org.example.io;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class SpillStoreTest {
+
+  private static final int EXTENT_SIZE = 16;
+
+  @TempDir
+  Path directory;
+
+  @ParameterizedTest
+  @ValueSource(ints = {1, 3, 16, 1024})
+  void writeAndReadInterleavedFiles(int bufferSize) throws IOException {
+    try (var store = open()) {
+      var first = directory.resolve("1").toFile();
+      var second = directory.resolve("2").toFile();
+      try (var firstStream = store.getOutputStream(first);
+           var secondStream = store.getOutputStream(second)) {
+        for (int i = 0; i < 100; i++) {
+          firstStream.write(i);
+          secondStream.write(new byte[] {(byte) -i, (byte) -i}, 0, 2);
+        }
+      }
+      assertThat(store.length(first)).isEqualTo(100);
+      assertThat(store.length(second)).isEqualTo(200);
+
+      try (var stream = store.getInputStream(first, bufferSize)) {
+        assertThat(stream.read()).isEqualTo(0);
+
+        var actual = new byte[40];
+        assertThat(stream.read(actual, 0, actual.length)).isEqualTo(actual.length);
+        for (int i = 0; i < actual.length; i++) {
+          assertThat(actual[i]).isEqualTo((byte) (i + 1));
+        }
+        assertThat(stream.getFilePointer()).isEqualTo(41);
+
+        stream.seek(95);
+        assertThat(stream.read(actual, 0, actual.length)).isEqualTo(5);
+        assertThat(actual[0]).isEqualTo((byte) 95);
+        assertThat(stream.read()).isEqualTo(-1);
+      }
+
+      try (var stream = store.getInputStream(second, bufferSize)) {
+        var actual = new byte[300];
+        assertThat(stream.read(actual, 0, actual.length)).isEqualTo(200);
+        for (int i = 0; i < 200; i++) {
+          assertThat(actual[i]).isEqualTo((byte) -(i / 2));
+        }
+      }
+    }
+  }
+
+  @Test
+  void seekAfterDirectRead() throws IOException {
+    try (var store = open()) {
+      var file = directory.resolve("1").toFile();
+      try (var stream = store.getOutputStream(file)) {
+        for (int i = 0; i < 2000; i++) {
+          stream.write(i);
+        }
+      }
+
+      try (var stream = store.getInputStream(file, 100)) {
+        var actual = new byte[1000];
+        assertThat(stream.read(actual, 0, 50)).isEqualTo(50);
+        assertThat(stream.read(actual, 0, 50)).isEqualTo(50);
+        // the read is bigger than buffer, so it bypasses buffer
+        assertThat(stream.read(actual, 0, 1000)).isEqualTo(1000);
+        assertThat(actual[0]).isEqualTo((byte) 100);
+
+        stream.seek(1050);
+        assertThat(stream.read()).isEqualTo(1050 & 0xFF);
+        stream.seek(60);
+        assertThat(stream.read()).isEqualTo(60);
+      }
+    }
+  }
+
+  @Test
+  void reuseExtentsOfDeletedFiles() throws IOException {
+    try (var store = open()) {
+      for (int i = 0; i < 3 * SpillStore.PREALLOCATED_EXTENTS; i++) {
+        var file = directory.resolve(Integer.toString(i)).toFile();
+        try (var stream = store.getOutputStream(file)) {
+          stream.write(new byte[3 * EXTENT_SIZE]);
+        }
+        assertThat(store.exists(file)).isTrue();
+        assertThat(store.delete(file)).isTrue();
+        assertThat(store.exists(file)).isFalse();
+      }
+
+      assertThat(store.size()).isEqualTo(SpillStore.PREALLOCATED_EXTENTS * EXTENT_SIZE);
+    }
+  }
+
+  @Test
+  void keepExtentsOfDeletedFileUntilClose() throws IOException {
+    try (var store = open()) {
+      var file = directory.resolve("1").toFile();
+      try (var stream = store.getOutputStream(file)) {
+        stream.write(new byte[] {1, 2, 3});
+      }
+
+      try (var stream = store.getInputStream(file, 1)) {
+        store.delete(file);
+        try (var other = store.getOutputStream(directory.resolve("2").toFile())) {
+          other.write(new byte[] {4, 5, 6});
+        }
+
+        var actual = new byte[3];
+        assertThat(stream.read(actual, 0, actual.length)).isEqualTo(3);
+        assertThat(actual).containsExactly(1, 2, 3);
+      }
+
+      assertThatThrownBy(() -> store.getInputStream(file))
+          .isInstanceOf(FileNotFoundException.class);
+    }
+  }
+
+  @Test
+  void ownFilesOfDirectory() throws IOException {
+    try (var store = open()) {
+      assertThat(store.owns(directory.resolve("1").toFile())).isTrue();
+      assertThat(store.owns(new File("1"))).isFalse();
+    }
+  }
+
+  private SpillStore open() throws IOException {
+    var store = new SpillStore(EXTENT_SIZE);
+    store.open(directory.toFile());
+    return store;
+  }
+}
@@ -1,6 +1,8 @@
 package org.example.io;
 
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
 import static java.nio.charset.StandardCharsets.US_ASCII;
+import static java.nio.charset.StandardCharsets.UTF_16;
 import static java.nio.charset.StandardCharsets.UTF_16LE;
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -42,6 +44,17 @@ class TextSerializerTest {
     );
   }
 
+  @SuppressWarnings("unused")
+  static Stream<Arguments> getLengthParametersProvider() {
+    // chars of all lengths in UTF-8, surrogate pair and unpaired surrogates
+    var pair = "😀";
+    var high = pair.substring(0, 1);
+    var low = pair.substring(1);
+    var data = new String[] {"", "foo", "été", "€", pair, "a" + high + "b", low + high, "x" + high};
+    return Stream.of(UTF_8, US_ASCII, ISO_8859_1, Charset.forName("windows-1251"), UTF_16)
+        .map(charset -> Arguments.of(charset, data, 0, data.length));
+  }
+
   @ParameterizedTest
   @MethodSource("getTextSerializerWriteParametersProvider")
   void write(Charset charset, String[] data, int from, int to) throws Exception {
@@ -65,4 +78,18 @@ class TextSerializerTest {
 
     assertThat(actual).isEqualTo(expected);
   }
+
+  @ParameterizedTest
+  @MethodSource({"getTextSerializerWriteParametersProvider", "getLengthParametersProvider"})
+  void getLength(Charset charset, String[] data, int from, int to) throws Exception {
+    var outputStream = new ByteArrayOutputStream();
+    var textSerializer = new TextSerializer(charset);
+    textSerializer.write(outputStream, data, from, to);
+
+    long length = 0;
+    for (int i = from; i < to; i++) {
+      length += textSerializer.getLength(data[i]);
+    }
+    assertThat(length).isEqualTo(outputStream.size());
+  }
 }
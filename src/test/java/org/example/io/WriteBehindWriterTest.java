@@ -0,0 +1,71 @@
+package org.example.io;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Random;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+class WriteBehindWriterTest {
+
+  @ParameterizedTest
+  @CsvSource({
+      "1, 4",
+      "7, 4",
+      "16, 5",
+      "1024, 8",
+  })
+  void writeSeveralStreams(int bufferSize, int buffersCount) throws IOException {
+    var random = new Random(bufferSize);
+    var expected = new byte[3][1000];
+    var targets = new ByteArrayOutputStream[expected.length];
+
+    try (var writer = new WriteBehindWriter(bufferSize, buffersCount)) {
+      var streams = new OutputStream[expected.length];
+      for (int i = 0; i < expected.length; i++) {
+        random.nextBytes(expected[i]);
+        targets[i] = new ByteArrayOutputStream();
+        streams[i] = writer.wrap(new MockOutputStream(targets[i]));
+      }
+
+      for (int position = 0; position < 1000; position += 10) {
+        for (int i = 0; i < expected.length; i++) {
+          streams[i].write(expected[i][position]);
+          streams[i].write(expected[i], position + 1, 9);
+        }
+      }
+
+      for (var stream : streams) {
+        stream.close();
+      }
+    }
+
+    for (int i = 0; i < expected.length; i++) {
+      assertThat(targets[i].toByteArray()).isEqualTo(expected[i]);
+    }
+  }
+
+  @ParameterizedTest
+  @CsvSource({
+      "1, 1",
+      "4, 2",
+  })
+  void reportFailureOfWriting(int callsBeforeException, int bufferSize) {
+    var exception = new IOException("Test");
+
+    try (var writer = new WriteBehindWriter(bufferSize, 1)) {
+      var stream = writer.wrap(new MockOutputStream(callsBeforeException, exception));
+
+      assertThatThrownBy(() -> {
+        for (int i = 0; i < 100; i++) {
+          stream.write(i);
+        }
+        stream.close();
+      }).isSameAs(exception);
+    }
+  }
+}
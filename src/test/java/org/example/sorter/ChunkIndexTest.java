@@ -0,0 +1,57 @@
+package org.example.sorter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Comparator;
+import org.junit.jupiter.api.Test;
+
+class ChunkIndexTest {
+
+  @Test
+  void findPositionOfRange() {
+    var index = new ChunkIndex();
+    index.add("b", 0);
+    index.add("d", 100);
+    index.add("d", 250);
+    index.add("f", 400);
+    index.setLength(500);
+
+    Comparator<String> comparator = Comparator.naturalOrder();
+    assertThat(index.findPosition(null, comparator)).isZero();
+    assertThat(index.findPosition("a", comparator)).isZero();
+    assertThat(index.findPosition("c", comparator)).isZero();
+    // the first block, which starts by "d", can follow strings equal to "d"
+    assertThat(index.findPosition("d", comparator)).isZero();
+    assertThat(index.findPosition("e", comparator)).isEqualTo(250);
+    assertThat(index.findPosition("z", comparator)).isEqualTo(400);
+  }
+
+  @Test
+  void getBlockLength() {
+    var index = new ChunkIndex();
+    index.add("a", 0);
+    index.add("c", 300);
+    index.setLength(1000);
+
+    assertThat(index.getBlockLength(0)).isEqualTo(300);
+    assertThat(index.getBlockLength(1)).isEqualTo(700);
+  }
+
+  @Test
+  void findBlockWithTextPosition() {
+    var index = new ChunkIndex();
+    index.add("b", 0, 0);
+    index.add("d", 100, 150);
+    index.add("f", 200, -1);
+    index.setLength(300);
+
+    Comparator<String> comparator = Comparator.naturalOrder();
+    assertThat(index.findBlock(null, comparator)).isEqualTo(-1);
+    assertThat(index.findBlock("b", comparator)).isEqualTo(-1);
+    assertThat(index.findBlock("d", comparator)).isZero();
+    assertThat(index.findBlock("e", comparator)).isEqualTo(1);
+    assertThat(index.getTextPosition(1)).isEqualTo(150);
+    // text isn't counted after raw data
+    assertThat(index.getTextPosition(2)).isEqualTo(-1);
+  }
+}
@@ -0,0 +1,57 @@
+package org.example.sorter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import org.junit.jupiter.api.Test;
+
+class ChunkRangesTest {
+
+  @Test
+  void chainDisjointChunks() {
+    var ranges = new ChunkRanges(Comparator.naturalOrder());
+    ranges.put(1, new ChunkRange("g", "i"));
+    ranges.put(2, new ChunkRange("a", "c"));
+    ranges.put(3, new ChunkRange("c", "f"));
+
+    var chains = ranges.chain(new long[] {1, 2, 3});
+
+    assertThat(chains).hasSize(1);
+    assertThat(chains.get(0).ids()).containsExactly(2, 3, 1);
+    assertThat(chains.get(0).range()).isEqualTo(new ChunkRange("a", "i"));
+  }
+
+  @Test
+  void chainOverlappedChunks() {
+    var ranges = new ChunkRanges(Comparator.naturalOrder());
+    ranges.put(1, new ChunkRange("a", "m"));
+    ranges.put(2, new ChunkRange("b", "d"));
+    ranges.put(3, new ChunkRange("e", "z"));
+    ranges.put(4, new ChunkRange("n", "p"));
+
+    var chains = ranges.chain(new long[] {1, 2, 3, 4, 5});
+
+    assertThat(chains).hasSize(3)
+        .extracting(chain -> Arrays.toString(chain.ids()))
+        .containsExactlyInAnyOrder("[5]", "[1, 4]", "[2, 3]");
+    assertThat(ranges.union(chains)).isNull();
+    assertThat(ranges.union(chains.subList(1, 3))).isEqualTo(new ChunkRange("a", "z"));
+  }
+
+  @Test
+  void takeFilesOfChain() {
+    var ranges = new ChunkRanges(Comparator.naturalOrder());
+    ranges.put(1, new ChunkRange("d", "f"));
+    ranges.put(2, new ChunkRange("a", "c"));
+    ranges.putChain(10, ranges.chain(new long[] {1, 2}).get(0));
+    ranges.put(3, new ChunkRange("g", "h"));
+
+    var chains = ranges.chain(new long[] {3, 10});
+
+    assertThat(chains).hasSize(1);
+    assertThat(chains.get(0).ids()).containsExactly(10, 3);
+    assertThat(ranges.takeFiles(10)).containsExactly(2, 1);
+    assertThat(ranges.takeFiles(3)).containsExactly(3);
+  }
+}
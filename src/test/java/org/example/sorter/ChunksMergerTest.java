@@ -0,0 +1,74 @@
+package org.example.sorter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import org.example.context.ApplicationContext;
+import org.example.io.MockOutputStream;
+import org.example.sorter.chunks.FinalOutputChunk;
+import org.example.sorter.chunks.MockInputChunk;
+import org.example.sorter.chunks.ids.OutputChunkId;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+class ChunksMergerTest {
+
+  @ParameterizedTest
+  @CsvSource({
+      "1, 10, 4, 4",
+      "2, 10, 4, 4",
+      "3, 10, 4, 4",
+      "3, 0, 4, 4",
+      "5, 100, 3, 7",
+      "8, 50, 16, 2",
+      "17, 200, 8, 32",
+      "100, 30, 5, 64",
+      "3, 1000, 1000, 8",
+      "4, 500, 128, 600",
+  })
+  void merge(int chunksCount, int maxLines, int inputChunkSize, int outputChunkSize)
+      throws Exception {
+    var random = new Random(chunksCount * 31L + maxLines);
+    Comparator<String> comparator = Comparator.naturalOrder();
+
+    List<String> expected = new ArrayList<>();
+    var chunks = new InputChunk[chunksCount];
+    for (int i = 0; i < chunksCount; i++) {
+      List<String> lines = new ArrayList<>();
+      int count = maxLines == 0 ? 0 : random.nextInt(maxLines);
+      for (int j = 0; j < count; j++) {
+        // small alphabet gives equal strings and long sequences from one chunk
+        lines.add(Integer.toString(random.nextInt(maxLines * (1 + i % 3)), 36));
+      }
+      lines.sort(comparator);
+      expected.addAll(lines);
+
+      chunks[i] = new MockInputChunk(i, inputChunkSize, lines);
+    }
+    expected.sort(comparator);
+
+    List<String> actual = new ArrayList<>();
+    var outputChunkId = mock(OutputChunkId.class);
+    when(outputChunkId.createOutputStream()).thenAnswer(invocation -> new MockOutputStream());
+
+    var outputChunk = new FinalOutputChunk(
+        outputChunkId,
+        outputChunkSize,
+        (stream, data, from, to) -> {
+          actual.addAll(Arrays.asList(data).subList(from, to));
+          return 0;
+        },
+        mock(ApplicationContext.class)
+    );
+
+    new ChunksMerger(outputChunk, comparator).merge(chunks);
+
+    assertThat(actual).isEqualTo(expected);
+  }
+}
@@ -3,6 +3,7 @@ package org.example.sorter;
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
@@ -16,10 +17,17 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.StringReader;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.List;
 import java.util.Map;
+import java.util.Random;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 import lombok.extern.log4j.Log4j2;
 import org.example.context.ApplicationContext;
 import org.example.context.DefaultStringContext;
@@ -28,8 +36,11 @@ import org.example.io.MockOutputStream;
 import org.example.io.MockRandomAccessInputStream;
 import org.example.io.StreamFactory;
 import org.example.sorter.parameters.ChunkParameters;
+import org.example.sorter.parameters.SortOptions;
 import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.MethodSource;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
 
@@ -38,6 +49,10 @@ class FileSorterTest {
 
   private static final ClassLoader loader = FileSorterTest.class.getClassLoader();
 
+  private static final int LINES = 3000;
+  private static final int BUFFER_SIZE = 512;
+  private static final long MEMORY_SIZE = 78643200;
+
   @ParameterizedTest
   @CsvSource({
       // Work without memory size
@@ -86,12 +101,262 @@ class FileSorterTest {
     String text = loadResource(resourceName);
     Comparator<String> comparator = Comparator.naturalOrder();
 
+    var actual = sort(
+        text,
+        comparator,
+        new ChunkParameters(availableChunks, chunkSize, bufferSize, threadsCount, memorySize),
+        new SortOptions(),
+        threadsCount,
+        reflectionFlag
+    );
+
+    assertThat(actual).isSortedAccordingTo(comparator).hasSize((int) text.lines().count());
+  }
+
+  @SuppressWarnings("unused")
+  static Stream<Arguments> getSortParametersProvider() throws IOException {
+    var smallInput = loadResource("small-input.txt");
+    return Stream.of(
+        // parallel partition
+        sortCase(options(o -> o.setParallelPartition(true)), smallInput, 1, 4, 4, null, true),
+        sortCase(options(o -> o.setParallelPartition(true)), smallInput, 2, 4, 4, null, true),
+        sortCase(options(o -> o.setParallelPartition(true)), smallInput, 4, 4, 4, null, false),
+        sortCase(
+            options(o -> o.setParallelPartition(true)),
+            generateText(2000, 2000), 1, 4, 16, null, true
+        ),
+        sortCase(
+            options(o -> o.setParallelPartition(true)),
+            generateText(2000, 2000), 2, 4, 16, null, false
+        ),
+        sortCase(
+            options(o -> o.setParallelPartition(true)),
+            generateText(2000, 2000), 4, 8, 32, null, true
+        ),
+        sortCase(
+            options(o -> o.setParallelPartition(true)),
+            generateText(2000, 2000), 8, 32, 64, null, false
+        ),
+        sortCase(
+            options(o -> o.setParallelPartition(true)),
+            generateText(2000, 2000), 4, null, null, MEMORY_SIZE, true
+        ),
+        sortCase(
+            options(o -> o.setParallelPartition(true)),
+            generateText(2000, 2000), 8, null, null, MEMORY_SIZE, false
+        ),
+        // read ahead
+        sortCase(
+            options(o -> o.setReadAheadThreads(1)),
+            generateText(LINES, 1), 1, 4, 4, null, true
+        ),
+        sortCase(
+            options(o -> o.setReadAheadThreads(1)),
+            generateText(LINES, 1), 2, 4, 8, null, false
+        ),
+        sortCase(
+            options(o -> o.setReadAheadThreads(2)),
+            generateText(LINES, 2), 4, 8, 16, null, true
+        ),
+        sortCase(
+            options(o -> o.setReadAheadThreads(2)),
+            generateText(LINES, 2), 2, 32, 64, null, false
+        ),
+        sortCase(
+            options(o -> o.setReadAheadThreads(2)),
+            generateText(LINES, 2), 2, null, null, MEMORY_SIZE, true
+        ),
+        sortCase(options(o -> o.setReadAheadThreads(2)), 4, 8, 16, null, false),
+        // write behind
+        sortCase(options(o -> o.setWriteBehind(true)), 1, 4, 4, null, true),
+        sortCase(options(o -> o.setWriteBehind(true)), 2, 4, 8, null, false),
+        sortCase(options(o -> o.setWriteBehind(true)), 4, 8, 16, null, true),
+        sortCase(options(o -> o.setWriteBehind(true)), 2, null, null, MEMORY_SIZE, true),
+        // compression of temporary files
+        sortCase(options(o -> o.setCompressTemporaryFiles(true)), 1, 4, 4, null, true),
+        sortCase(options(o -> o.setCompressTemporaryFiles(true)), 2, 4, 8, null, false),
+        sortCase(options(o -> o.setCompressTemporaryFiles(true)), 4, 8, 16, null, true),
+        sortCase(options(o -> o.setCompressTemporaryFiles(true)), 2, 3, 1000, null, false),
+        sortCase(options(o -> o.setCompressTemporaryFiles(true)), 2, null, null, MEMORY_SIZE, true),
+        // front coding
+        sortCase(options(o -> o.setFrontCoding(true)), 1, 4, 4, null, true),
+        sortCase(options(o -> o.setFrontCoding(true)), 2, 4, 8, null, false),
+        sortCase(
+            options(o -> o.setFrontCoding(true), o -> o.setReadAheadThreads(2)),
+            4, 8, 16, null, true
+        ),
+        sortCase(options(o -> o.setFrontCoding(true)), 2, 3, 1000, null, false),
+        sortCase(options(o -> o.setFrontCoding(true)), 2, null, null, MEMORY_SIZE, true),
+        // replacement selection
+        sortCase(options(o -> o.setReplacementSelection(true)), 1, 4, 4, null, true),
+        sortCase(
+            options(o -> o.setReplacementSelection(true)),
+            InputOrder.SORTED.generateText(2), 2, 4, 8, null, false
+        ),
+        sortCase(options(o -> o.setReplacementSelection(true)), 4, 8, 16, null, true),
+        sortCase(
+            options(o -> o.setReplacementSelection(true), o -> o.setParallelPartition(true)),
+            4, 8, 16, null, false
+        ),
+        sortCase(
+            options(o -> o.setReplacementSelection(true), o -> o.setParallelPartition(true)),
+            InputOrder.SORTED.generateText(4), 4, 8, 16, null, true
+        ),
+        sortCase(options(o -> o.setReplacementSelection(true)), 2, 3, 5000, null, false),
+        sortCase(
+            options(o -> o.setReplacementSelection(true), o -> o.setParallelPartition(true)),
+            2, null, null, MEMORY_SIZE, true
+        ),
+        // natural runs
+        sortCase(
+            options(o -> o.setNaturalRuns(true)),
+            InputOrder.SORTED.generateText(1), 1, 4, 16, null, true
+        ),
+        sortCase(
+            options(o -> o.setNaturalRuns(true)),
+            InputOrder.SORTED.generateText(2), 2, 4, 16, null, false
+        ),
+        sortCase(
+            options(o -> o.setNaturalRuns(true), o -> o.setParallelPartition(true)),
+            InputOrder.SORTED.generateText(4), 4, 8, 16, null, true
+        ),
+        sortCase(
+            options(o -> o.setNaturalRuns(true)),
+            InputOrder.REVERSED.generateText(2), 2, 4, 16, null, false
+        ),
+        sortCase(
+            options(o -> o.setNaturalRuns(true), o -> o.setParallelPartition(true)),
+            InputOrder.REVERSED.generateText(4), 4, 8, 16, null, true
+        ),
+        sortCase(
+            options(o -> o.setNaturalRuns(true)),
+            InputOrder.CONCATENATED.generateText(2), 2, 4, 16, null, true
+        ),
+        sortCase(
+            options(o -> o.setNaturalRuns(true)),
+            InputOrder.NEARLY_SORTED.generateText(4), 4, 8, 16, null, false
+        ),
+        sortCase(
+            options(o -> o.setNaturalRuns(true)),
+            InputOrder.RANDOM.generateText(4), 4, 8, 16, null, true
+        ),
+        sortCase(
+            options(o -> o.setNaturalRuns(true)),
+            InputOrder.NEARLY_SORTED.generateText(2), 2, null, null, MEMORY_SIZE, false
+        ),
+        sortCase(
+            options(o -> o.setNaturalRuns(true)),
+            InputOrder.LATE_DISORDERED.generateText(1), 1, 4, 16, null, false
+        ),
+        sortCase(
+            options(o -> o.setNaturalRuns(true), o -> o.setFrontCoding(true)),
+            InputOrder.LATE_DISORDERED.generateText(2), 2, null, null, MEMORY_SIZE, true
+        ),
+        // parallel merge
+        sortCase(options(o -> o.setParallelMerge(true)), 2, 4, 4, null, true),
+        sortCase(options(o -> o.setParallelMerge(true)), 4, 8, 16, null, false),
+        sortCase(
+            options(o -> o.setParallelMerge(true), o -> o.setFrontCoding(true)),
+            4, 8, 16, null, true
+        ),
+        sortCase(options(o -> o.setParallelMerge(true)), 8, 16, 16, null, false),
+        sortCase(options(o -> o.setParallelMerge(true)), 2, 3, 1000, null, false),
+        sortCase(
+            options(o -> o.setParallelMerge(true), o -> o.setFrontCoding(true)),
+            4, null, null, MEMORY_SIZE, true
+        ),
+        // pipelined merge
+        sortCase(options(o -> o.setPipelinedMerge(true)), 1, 4, 400, null, true),
+        sortCase(options(o -> o.setPipelinedMerge(true)), 2, 4, 400, null, false),
+        sortCase(
+            options(o -> o.setPipelinedMerge(true), o -> o.setFrontCoding(true)),
+            4, 3, 600, null, true
+        ),
+        sortCase(options(o -> o.setPipelinedMerge(true)), 4, 4, 16, null, false),
+        sortCase(
+            options(o -> o.setPipelinedMerge(true), o -> o.setFrontCoding(true)),
+            8, 8, 200, null, false
+        ),
+        // early merge
+        sortCase(options(o -> o.setEarlyMerge(true)), 1, 4, 16, null, true),
+        sortCase(options(o -> o.setEarlyMerge(true)), 2, 4, 16, null, false),
+        sortCase(
+            options(o -> o.setEarlyMerge(true), o -> o.setFrontCoding(true)),
+            4, 3, 50, null, true
+        ),
+        sortCase(
+            options(o -> o.setEarlyMerge(true), o -> o.setNaturalRuns(true)),
+            4, 8, 20, null, false
+        ),
+        sortCase(
+            options(
+                o -> o.setEarlyMerge(true), o -> o.setFrontCoding(true), o -> o.setNaturalRuns(true)
+            ),
+            8, 16, 8, null, true
+        ),
+        // off-heap chunks
+        sortCase(options(o -> o.setOffHeapChunks(true)), 1, 4, 16, null, true),
+        sortCase(
+            options(o -> o.setOffHeapChunks(true), o -> o.setParallelPartition(true)),
+            2, 4, 16, null, false
+        ),
+        sortCase(
+            options(o -> o.setOffHeapChunks(true), o -> o.setReplacementSelection(true)),
+            4, 3, 50, null, true
+        ),
+        sortCase(options(o -> o.setOffHeapChunks(true)), 2, null, null, MEMORY_SIZE, false),
+        sortCase(
+            options(o -> o.setOffHeapChunks(true), o -> o.setParallelPartition(true)),
+            4, null, null, MEMORY_SIZE, true
+        ),
+        // raw merge
+        sortCase(options(o -> o.setRawMerge(true)), 1, 4, 16, null, true),
+        sortCase(options(o -> o.setRawMerge(true)), 2, 4, 16, null, false),
+        sortCase(
+            options(o -> o.setRawMerge(true), o -> o.setCompressTemporaryFiles(true)),
+            4, 3, 50, null, true
+        ),
+        sortCase(
+            options(o -> o.setRawMerge(true), o -> o.setCompressTemporaryFiles(true)),
+            4, 8, 20, null, false
+        ),
+        sortCase(options(o -> o.setRawMerge(true)), 2, null, null, MEMORY_SIZE, true)
+    );
+  }
+
+  @ParameterizedTest(name = "[{index}] {0}, {1}, threads = {2}, reflection = {3}")
+  @MethodSource("getSortParametersProvider")
+  void integrationSort(
+      SortOptions options,
+      ChunkParameters parameters,
+      int threadsCount,
+      boolean reflectionFlag,
+      String text
+  ) throws Exception {
+    Comparator<String> comparator = Comparator.naturalOrder();
+
+    var actual = sort(text, comparator, parameters, options, threadsCount, reflectionFlag);
+
+    assertThat(actual).isEqualTo(text.lines().sorted(comparator).toList());
+  }
+
+  private List<String> sort(
+      String text,
+      Comparator<String> comparator,
+      ChunkParameters parameters,
+      SortOptions options,
+      int threadsCount,
+      boolean reflectionFlag
+  ) throws Exception {
     var input = Path.of("input");
-    var output = Path.of("output");
-    var counter = new AtomicLong();
+    final var output = Path.of("output");
 
     Map<File, ByteArrayOutputStream> outputStreams = new ConcurrentHashMap<>();
 
+    var inputStream = new ByteArrayOutputStream();
+    inputStream.write(text.getBytes(UTF_8));
+    outputStreams.put(input.toFile(), inputStream);
+
     var existsFileAnswer = new Answer<Boolean>() {
       @Override
       public Boolean answer(InvocationOnMock invocation) {
@@ -112,8 +377,20 @@ class FileSorterTest {
     when(fileSystemContext.isFile(any())).thenAnswer(existsFileAnswer);
     when(fileSystemContext.canRead(any())).thenAnswer(existsFileAnswer);
     when(fileSystemContext.exists(any())).thenAnswer(existsFileAnswer);
-    when(fileSystemContext.delete(any())).thenReturn(true);
+    // weights of chunks are sizes of their files, so the smallest chunks are merged first
+    when(fileSystemContext.length(any())).thenAnswer(invocation -> {
+      var outputStream = outputStreams.get(invocation.getArgument(0, File.class));
+      return outputStream == null ? 0L : (long) outputStream.size();
+    });
+    when(fileSystemContext.delete(any())).thenAnswer(invocation -> {
+      outputStreams.remove(invocation.getArgument(0, File.class));
+      return true;
+    });
+
+    final var counter = new AtomicLong();
     when(fileSystemContext.nextTemporaryFile()).thenAnswer(invocation -> counter.getAndIncrement());
+    when(fileSystemContext.nextTemporaryFile(any(long[].class)))
+        .thenAnswer(invocation -> counter.getAndIncrement());
     when(fileSystemContext.getTemporaryFile(anyLong())).thenAnswer(invocation -> {
       var id = invocation.getArgument(0, Long.class);
       return new File(String.valueOf(id));
@@ -121,26 +398,59 @@ class FileSorterTest {
 
     when(outputStreamFactory.getBufferedReader(eq(input), any()))
         .thenAnswer(invocation -> new BufferedReader(new StringReader(text)));
+    when(outputStreamFactory.getBufferedReader(eq(input), any(), anyLong(), anyLong()))
+        .thenAnswer(invocation -> {
+          var bytes = inputStream.toByteArray();
+          var position = invocation.getArgument(2, Long.class).intValue();
+          var length = invocation.getArgument(3, Long.class).intValue();
+          return new BufferedReader(new StringReader(new String(bytes, position, length, UTF_8)));
+        });
+    when(outputStreamFactory.getBufferedReader(eq(output), any()))
+        .thenAnswer(invocation -> {
+          var bytes = outputStreams.get(output.toFile()).toByteArray();
+          return new BufferedReader(new StringReader(new String(bytes, UTF_8)));
+        });
     when(outputStreamFactory.getOutputStream(any())).thenAnswer(invocation -> {
       var file = invocation.getArgument(0, File.class);
       var outputStream = outputStreams.computeIfAbsent(file, f -> new ByteArrayOutputStream());
       return new MockOutputStream(outputStream);
     });
-    when(outputStreamFactory.getRandomAccessInputStream(any())).thenAnswer(invocation -> {
+    when(outputStreamFactory.getOutputStream(any(), anyLong())).thenAnswer(invocation -> {
       var file = invocation.getArgument(0, File.class);
-      var outputStream = outputStreams.get(file);
-      if (outputStream == null) {
-        throw new FileNotFoundException();
-      }
-
-      return new MockRandomAccessInputStream(outputStream.toByteArray());
+      var position = invocation.getArgument(1, Long.class).intValue();
+      var outputStream = outputStreams.computeIfAbsent(file, f -> new ByteArrayOutputStream());
+      return new ByteArrayOutputStream() {
+        @Override
+        public void close() {
+          synchronized (outputStream) {
+            var bytes = outputStream.toByteArray();
+            bytes = Arrays.copyOf(bytes, Math.max(bytes.length, position + count));
+            System.arraycopy(buf, 0, bytes, position, count);
+            outputStream.reset();
+            outputStream.writeBytes(bytes);
+          }
+        }
+      };
     });
+    var randomAccessInputStreamAnswer = new Answer<MockRandomAccessInputStream>() {
+      @Override
+      public MockRandomAccessInputStream answer(InvocationOnMock invocation) throws Throwable {
+        var file = invocation.getArgument(0, File.class);
+        var outputStream = outputStreams.get(file);
+        if (outputStream == null) {
+          throw new FileNotFoundException();
+        }
+
+        return new MockRandomAccessInputStream(outputStream.toByteArray());
+      }
+    };
+    when(outputStreamFactory.getRandomAccessInputStream(any()))
+        .thenAnswer(randomAccessInputStreamAnswer);
+    when(outputStreamFactory.getRandomAccessInputStream(any(), anyInt()))
+        .thenAnswer(randomAccessInputStreamAnswer);
 
     try (var sorter = new FileSorter(input, UTF_8, threadsCount, context)) {
-      var parameters = new ChunkParameters(
-          availableChunks, chunkSize, bufferSize, threadsCount, memorySize
-      );
-      sorter.sort(parameters, comparator, output, UTF_8, true);
+      sorter.sort(parameters, comparator, output, UTF_8, options, true);
     }
 
     if (reflectionFlag != stringContext.hasSupportReflection()) {
@@ -151,15 +461,119 @@ class FileSorterTest {
 
     assertThat(resultOutputStream).isNotNull();
 
-    var actual = resultOutputStream.toString(UTF_8).lines().toList();
+    return resultOutputStream.toString(UTF_8).lines().toList();
+  }
 
-    assertThat(actual).isSortedAccordingTo(comparator).hasSize((int) text.lines().count());
+  private static Arguments sortCase(
+      SortOptions options,
+      int threadsCount,
+      Integer availableChunks,
+      Integer chunkSize,
+      Long memorySize,
+      boolean reflectionFlag
+  ) {
+    return sortCase(
+        options,
+        generateText(LINES, threadsCount),
+        threadsCount,
+        availableChunks,
+        chunkSize,
+        memorySize,
+        reflectionFlag
+    );
   }
 
-  private String loadResource(String name) throws IOException {
+  private static Arguments sortCase(
+      SortOptions options,
+      String text,
+      int threadsCount,
+      Integer availableChunks,
+      Integer chunkSize,
+      Long memorySize,
+      boolean reflectionFlag
+  ) {
+    var parameters = new ChunkParameters(
+        availableChunks, chunkSize, BUFFER_SIZE, threadsCount, memorySize
+    );
+    return Arguments.of(options, parameters, threadsCount, reflectionFlag, text);
+  }
+
+  @SafeVarargs
+  private static SortOptions options(Consumer<SortOptions>... setters) {
+    var options = new SortOptions();
+    for (var setter : setters) {
+      setter.accept(options);
+    }
+    return options;
+  }
+
+  private static String generateText(int lines, long seed) {
+    final var alphabet = "abcdefghijklmnopqrstuvwxyz0123456789 /:-абвгдеёжз";
+
+    var random = new Random(seed);
+    var builder = new StringBuilder();
+    for (int i = 0; i < lines; i++) {
+      // a lot of lines with common prefixes and some long lines
+      int prefix = random.nextInt(4);
+      builder.append("prefix-".repeat(prefix));
+
+      int length = random.nextInt(10) == 0 ? 50 + random.nextInt(200) : random.nextInt(20);
+      for (int j = 0; j < length; j++) {
+        builder.append(alphabet.charAt(random.nextInt(alphabet.length())));
+      }
+      builder.append('\n');
+    }
+    return builder.toString();
+  }
+
+  private static String loadResource(String name) throws IOException {
     try (var inputStream = loader.getResourceAsStream(name)) {
       assertThat(inputStream).isNotNull();
       return new String(inputStream.readAllBytes(), UTF_8);
     }
   }
+
+  private enum InputOrder {
+    SORTED,
+    REVERSED,
+    CONCATENATED,
+    NEARLY_SORTED,
+    // sorted lines, whose first disorder is close to the end
+    LATE_DISORDERED,
+    RANDOM;
+
+    /**
+     * Generate text of the given seed with lines in this order.
+     */
+    String generateText(int seed) {
+      var lines = FileSorterTest.generateText(LINES, seed).lines().toList();
+      return String.join("\n", apply(lines, Comparator.naturalOrder())) + "\n";
+    }
+
+    List<String> apply(List<String> lines, Comparator<String> comparator) {
+      var sorted = lines.stream().sorted(comparator).toList();
+      return switch (this) {
+        case SORTED -> sorted;
+        case REVERSED -> sorted.reversed();
+        case CONCATENATED -> Stream.concat(
+            lines.subList(0, lines.size() / 2).stream().sorted(comparator),
+            lines.subList(lines.size() / 2, lines.size()).stream().sorted(comparator)
+        ).toList();
+        case NEARLY_SORTED -> {
+          var result = new ArrayList<>(sorted);
+          var random = new Random(lines.size());
+          for (int i = 0; i < result.size() / 100; i++) {
+            Collections.swap(result, random.nextInt(result.size()), random.nextInt(result.size()));
+          }
+          yield result;
+        }
+        case LATE_DISORDERED -> {
+          var result = new ArrayList<>(sorted);
+          Collections.swap(result, result.size() * 9 / 10, result.size() * 19 / 20);
+          yield result;
+        }
+        case RANDOM -> lines;
+      };
+    }
+  }
 }
@@ -0,0 +1,69 @@
+package org.example.sorter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Comparator;
+import org.junit.jupiter.api.Test;
+
+class ReplacementSelectionTreeTest {
+
+  @Test
+  void replaceWinner() {
+    var tree = new ReplacementSelectionTree(
+        new String[] {"d", "b", "f", "a"}, Comparator.naturalOrder()
+    );
+
+    assertThat(tree.replaceWinner("e")).isEqualTo("a");
+    // key less than the written key goes to the next run
+    assertThat(tree.replaceWinner("a")).isEqualTo("b");
+    assertThat(tree.replaceWinner("g")).isEqualTo("d");
+    assertThat(tree.replaceWinner("c")).isEqualTo("e");
+    assertThat(tree.replaceWinner("0")).isEqualTo("f");
+    assertThat(tree.getWinnerRun()).isZero();
+    assertThat(tree.replaceWinner("0")).isEqualTo("g");
+
+    assertThat(tree.getWinnerRun()).isEqualTo(1);
+    assertThat(tree.getKeys()).containsExactlyInAnyOrder("0", "0", "a", "c");
+  }
+
+  @Test
+  void removeWinner() {
+    var tree = new ReplacementSelectionTree(
+        new String[] {"c", "a", "b"}, Comparator.naturalOrder()
+    );
+
+    assertThat(tree.removeWinner()).isEqualTo("a");
+    assertThat(tree.replaceWinner("d")).isEqualTo("b");
+    assertThat(tree.removeWinner()).isEqualTo("c");
+    // the removed keys are greater than keys of all runs
+    assertThat(tree.getWinnerRun()).isZero();
+    assertThat(tree.replaceWinner("a")).isEqualTo("d");
+    assertThat(tree.getWinnerRun()).isEqualTo(1);
+    assertThat(tree.getKeys()).containsExactlyInAnyOrder(null, null, "a");
+  }
+
+  @Test
+  void addKey() {
+    var tree = new ReplacementSelectionTree(
+        new String[] {"c", "a", "e", "b"}, Comparator.naturalOrder()
+    );
+
+    assertThat(tree.addKey("0")).isFalse();
+    assertThat(tree.removeWinner()).isEqualTo("a");
+    assertThat(tree.removeWinner()).isEqualTo("b");
+    // added keys go to the next run, even if they aren't less than the written key
+    assertThat(tree.addKey("d")).isTrue();
+    assertThat(tree.addKey("0")).isTrue();
+    assertThat(tree.addKey("1")).isFalse();
+
+    assertThat(tree.replaceWinner("f")).isEqualTo("c");
+    assertThat(tree.replaceWinner("1")).isEqualTo("e");
+    assertThat(tree.replaceWinner("2")).isEqualTo("f");
+    assertThat(tree.getWinnerRun()).isEqualTo(1);
+    assertThat(tree.replaceWinner("h")).isEqualTo("0");
+    assertThat(tree.replaceWinner("i")).isEqualTo("1");
+    assertThat(tree.replaceWinner("j")).isEqualTo("2");
+    assertThat(tree.replaceWinner("k")).isEqualTo("d");
+    assertThat(tree.getKeys()).containsExactlyInAnyOrder("h", "i", "j", "k");
+  }
+}
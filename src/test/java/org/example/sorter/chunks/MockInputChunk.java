@@ -0,0 +1,29 @@
+package org.example.sorter.chunks;
+
+import java.util.List;
+
+public class MockInputChunk extends AbstractInputChunk {
+
+  private final long id;
+  private final List<String> lines;
+  private int position;
+
+  public MockInputChunk(long id, int chunkSize, List<String> lines) {
+    super(chunkSize);
+    this.id = id;
+    this.lines = lines;
+  }
+
+  @Override
+  public long getId() {
+    return id;
+  }
+
+  @Override
+  public boolean load() {
+    while (size < data.length && position < lines.size()) {
+      data[size++] = lines.get(position++);
+    }
+    return size != 0;
+  }
+}
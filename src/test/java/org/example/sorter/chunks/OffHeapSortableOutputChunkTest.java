@@ -0,0 +1,103 @@
+package org.example.sorter.chunks;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import org.example.context.ApplicationContext;
+import org.example.io.MockOutputStream;
+import org.example.io.StringSerializer;
+import org.example.sorter.chunks.ids.OutputChunkId;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+class OffHeapSortableOutputChunkTest {
+
+  @ParameterizedTest
+  @CsvSource({
+      "0, 4",
+      "6, 6",
+      "100, 7",
+      "3000, 3000",
+      "3000, 100",
+  })
+  void sortAndSave(int count, int chunkSize) throws Exception {
+    var random = new Random(count);
+    var alphabet = "ab\u0000ÿяё￿";
+    List<String> lines = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      var builder = new StringBuilder("prefix".substring(0, random.nextInt(7)));
+      // some strings don't fit into page
+      int length = random.nextInt(100) == 0
+          ? OffHeapArena.PAGE_SIZE / 2 + random.nextInt(1000)
+          : random.nextInt(20);
+      for (int j = 0; j < length; j++) {
+        builder.append(alphabet.charAt(random.nextInt(alphabet.length())));
+      }
+      lines.add(builder.toString());
+    }
+
+    List<String> actual = new ArrayList<>();
+    var pool = new ConcurrentLinkedQueue<ByteBuffer>();
+    var chunk = createChunk(chunkSize, (stream, data, from, to) -> {
+      actual.addAll(Arrays.asList(data).subList(from, to));
+      return 0;
+    }, pool);
+    chunk.setMemoryLimit(Long.MAX_VALUE, count);
+    lines.forEach(line -> assertThat(chunk.add(line)).isTrue());
+    chunk.save();
+
+    assertThat(actual).isEqualTo(lines.stream().sorted(Comparator.naturalOrder()).toList());
+    assertThat(chunk.isEmpty()).isTrue();
+  }
+
+  @Test
+  void releasePagesAfterSave() throws Exception {
+    var pool = new ConcurrentLinkedQueue<ByteBuffer>();
+    var chunk = createChunk(4, (stream, data, from, to) -> 0, pool);
+    // strings of two bytes per char take a page each
+    chunk.add("я".repeat(OffHeapArena.PAGE_SIZE / 2));
+    chunk.add("ё".repeat(OffHeapArena.PAGE_SIZE / 2));
+    chunk.save();
+    assertThat(pool).hasSize(2);
+
+    chunk.add("c");
+    assertThat(pool).hasSize(1);
+  }
+
+  @Test
+  void limitByBytes() throws Exception {
+    var chunk = createChunk(1, (stream, data, from, to) -> 0, new ConcurrentLinkedQueue<>());
+    // Latin-1 string of 3 chars takes 3 bytes of arena and 28 bytes of table
+    chunk.setMemoryLimit(/* maxBytes = */ 3 * 31, /* maxSize = */ 100);
+
+    assertThat(List.of("qwe", "asd", "zxc", "wer").stream().map(chunk::add)).containsExactly(
+        true, true, true, false
+    );
+
+    chunk.clear();
+    // other string of 3 chars takes 6 bytes of arena
+    assertThat(List.of("qwe", "цук", "zxc").stream().map(chunk::add)).containsExactly(
+        true, true, false
+    );
+  }
+
+  private static OffHeapSortableOutputChunk createChunk(
+      int chunkSize, StringSerializer serializer, Queue<ByteBuffer> pool
+  ) throws Exception {
+    var outputChunkId = mock(OutputChunkId.class);
+    when(outputChunkId.createOutputStream()).thenReturn(new MockOutputStream());
+    return new OffHeapSortableOutputChunk(
+        outputChunkId, chunkSize, serializer, pool, null, mock(ApplicationContext.class)
+    );
+  }
+}
@@ -0,0 +1,77 @@
+package org.example.sorter.chunks;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+import org.example.context.ApplicationContext;
+import org.example.sorter.ChunksMerger;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+class PipeTest {
+
+  @ParameterizedTest
+  @CsvSource({
+      "0, 4, 4",
+      "1, 4, 4",
+      "100, 3, 7",
+      "1000, 16, 2",
+      "1000, 64, 64",
+  })
+  void passMergedStrings(int count, int chunkSize, int inputChunkSize) throws Exception {
+    var pipe = new Pipe(1, chunkSize, 1, mock(ApplicationContext.class));
+
+    List<String> first = new ArrayList<>();
+    List<String> second = new ArrayList<>();
+    List<String> expected = new ArrayList<>();
+    IntStream.range(0, count).mapToObj(i -> String.format("%06d", i)).forEach(line -> {
+      // long sequences from one chunk are copied by blocks
+      (line.hashCode() % 7 < 3 ? first : second).add(line);
+      expected.add(line);
+    });
+
+    var writer = new Thread(() -> {
+      var merger = new ChunksMerger(pipe.getOutput(), String::compareTo);
+      merger.merge(
+          new MockInputChunk(2, inputChunkSize, first),
+          new MockInputChunk(3, inputChunkSize, second)
+      );
+      pipe.getOutput().close();
+    });
+    writer.start();
+
+    List<String> actual = new ArrayList<>();
+    String line;
+    while ((line = pipe.getInput().pop()) != null) {
+      actual.add(line);
+    }
+    writer.join();
+
+    assertThat(actual).isEqualTo(expected);
+    assertThat(pipe.getInput().pop()).isNull();
+  }
+
+  @ParameterizedTest
+  @CsvSource({"0", "3"})
+  void passFailureOfWriter(int count) {
+    var pipe = new Pipe(1, 2, 1, mock(ApplicationContext.class));
+    var writer = new Thread(() -> {
+      for (int i = 0; i < count; i++) {
+        pipe.getOutput().add(Integer.toString(i));
+      }
+      pipe.fail(new IllegalArgumentException("failure"));
+    });
+    writer.start();
+
+    assertThatThrownBy(() -> {
+      while (pipe.getInput().pop() != null) {
+        // skip strings before failure
+      }
+    }).isInstanceOf(IllegalStateException.class)
+        .hasRootCauseInstanceOf(IllegalArgumentException.class);
+  }
+}
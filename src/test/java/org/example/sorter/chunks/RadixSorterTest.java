@@ -0,0 +1,94 @@
+package org.example.sorter.chunks;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+class RadixSorterTest {
+
+  private static final String[] ALPHABETS = {
+      "ab",
+      "abcABC\u0000ÿµ",
+      "abcxyzABCXYZ\u0000 /:-абвгдАБВГД",
+      "aAÿŸ𐐀𐐨😀Ａａ￿",
+  };
+
+  @ParameterizedTest
+  @CsvSource({
+      "0, 100, false",
+      "1, 5000, false",
+      "2, 1000, false",
+      "3, 1000, false",
+      "0, 100, true",
+      "1, 1000, true",
+      "2, 1000, true",
+      "3, 5000, true",
+  })
+  void sort(int alphabetIndex, int size, boolean ignoreCase) {
+    var alphabet = ALPHABETS[alphabetIndex];
+    var comparator = ignoreCase ? String.CASE_INSENSITIVE_ORDER : Comparator.<String>naturalOrder();
+
+    var random = new Random(alphabetIndex);
+    var data = new String[size + 10];
+    for (int i = 0; i < size; i++) {
+      // long common prefixes make groups of equal keys
+      var builder = new StringBuilder();
+      if (random.nextInt(3) == 0) {
+        builder.append("http://example.org/path/".repeat(random.nextInt(3)));
+      }
+      int length = random.nextInt(random.nextInt(10) == 0 ? 40 : 12);
+      for (int j = 0; j < length; j++) {
+        builder.append(alphabet.charAt(random.nextInt(alphabet.length())));
+      }
+      data[i] = builder.toString();
+    }
+
+    var expected = Arrays.copyOf(data, size);
+    Arrays.sort(expected, comparator);
+
+    RadixSorter.sort(data, size, comparator);
+
+    for (int i = size; i < data.length; i++) {
+      assertThat(data[i]).isNull();
+    }
+    for (int i = 1; i < size; i++) {
+      assertThat(comparator.compare(data[i - 1], data[i])).isLessThanOrEqualTo(0);
+    }
+    if (!ignoreCase) {
+      assertThat(Arrays.copyOf(data, size)).isEqualTo(expected);
+    } else {
+      var actual = Arrays.copyOf(data, size);
+      Arrays.sort(actual);
+      Arrays.sort(expected);
+      assertThat(actual).isEqualTo(expected);
+    }
+  }
+
+  @ParameterizedTest
+  @CsvSource({"false", "true"})
+  void sortLongCommonPrefixes(boolean ignoreCase) {
+    var comparator = ignoreCase ? String.CASE_INSENSITIVE_ORDER : Comparator.<String>naturalOrder();
+
+    // groups deeper than limit of depth must not be sorted by insertion sort in O(n^2)
+    var prefix = "a".repeat(1100);
+    var random = new Random(0);
+    var data = new String[40_000];
+    for (int i = 0; i < data.length; i++) {
+      data[i] = prefix + random.nextInt();
+    }
+
+    var expected = data.clone();
+    Arrays.sort(expected, comparator);
+
+    assertTimeoutPreemptively(
+        Duration.ofSeconds(10), () -> RadixSorter.sort(data, data.length, comparator)
+    );
+    assertThat(data).isEqualTo(expected);
+  }
+}
@@ -1,7 +1,10 @@
 package org.example.sorter.chunks;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.util.Arrays.asList;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.example.sorter.parameters.DefaultParameters.INDEX_BLOCK_SIZE;
+import static org.example.sorter.parameters.DefaultParameters.INDEX_BLOCK_STRINGS;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -11,11 +14,17 @@ import java.util.Comparator;
 import java.util.List;
 import java.util.stream.Stream;
 import org.example.context.ApplicationContext;
+import org.example.context.DefaultStringContext;
 import org.example.io.MockOutputStream;
 import org.example.io.MockStringSerializer;
+import org.example.io.StringSerializer;
+import org.example.io.TextSerializer;
 import org.example.sorter.chunks.ids.OutputChunkId;
+import org.example.sorter.parameters.SortEngine;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.EnumSource;
 import org.junit.jupiter.params.provider.MethodSource;
 
 class SortableOutputChunkTest {
@@ -68,4 +77,101 @@ class SortableOutputChunkTest {
     );
     assertThat(chunk.isEmpty()).isTrue();
   }
+
+  @ParameterizedTest
+  @EnumSource(SortEngine.class)
+  void sortAndSaveBySortEngine(SortEngine sortEngine) throws IOException {
+    var outputChunkId = mock(OutputChunkId.class);
+    var context = mock(ApplicationContext.class);
+    var serializer = new MockStringSerializer();
+    var outputStream = new MockOutputStream();
+
+    when(outputChunkId.createOutputStream()).thenReturn(outputStream);
+
+    int chunkSize = UNSORTED_LINES.size();
+    var sortStatistics = new SortStatistics();
+    var chunk = new SortableOutputChunk(
+        outputChunkId,
+        chunkSize,
+        serializer,
+        Comparator.naturalOrder(),
+        sortEngine,
+        /* detectNaturalOrder = */ true,
+        sortStatistics,
+        context
+    );
+    for (var line : UNSORTED_LINES) {
+      chunk.add(line);
+    }
+    chunk.save();
+    assertThat(sortStatistics.getChunks(sortEngine.name())).isEqualTo(1);
+
+    // sorted strings are saved without sorting
+    UNSORTED_LINES.stream().sorted().forEach(chunk::add);
+    chunk.save();
+    assertThat(sortStatistics.getChunks(SortStatistics.NATURAL_ORDER)).isEqualTo(1);
+
+    serializer.verify(
+        /* times = */ 2,
+        outputStream,
+        new String[] {"asd", "qwe", "sdf", "wer", "xcv", "цук"},
+        0,
+        chunkSize
+    );
+  }
+
+  @Test
+  void limitByRetainedBytes() {
+    var stringContext = new DefaultStringContext(false);
+    var context = mock(ApplicationContext.class);
+    when(context.getStringContext()).thenReturn(stringContext);
+
+    var chunk = new SortableOutputChunk(
+        mock(OutputChunkId.class),
+        /* chunkSize = */ 1,
+        new MockStringSerializer(),
+        Comparator.naturalOrder(),
+        context
+    );
+    // the limit fits the first 3 strings, so array of strings grows up to 3 strings
+    long maxBytes = UNSORTED_LINES.subList(0, 3).stream()
+        .mapToLong(stringContext::getRetainedSize)
+        .sum();
+    chunk.setMemoryLimit(maxBytes, /* maxSize = */ 100);
+
+    assertThat(UNSORTED_LINES.stream().map(chunk::add)).containsExactly(
+        true, true, true, false, false, false
+    );
+
+    chunk.clear();
+    // the first string is taken, even if it's bigger than the limit
+    assertThat(chunk.add("a".repeat(1000))).isTrue();
+    assertThat(chunk.add("a")).isFalse();
+  }
+
+  @Test
+  void countTextOfIndexedBlocks() throws IOException {
+    var outputChunkId = mock(OutputChunkId.class);
+    when(outputChunkId.createOutputStream()).thenReturn(new MockOutputStream());
+    // every serialized block is long enough to start the next indexed block
+    StringSerializer serializer = (stream, data, from, to) -> INDEX_BLOCK_SIZE;
+
+    int lines = 2 * INDEX_BLOCK_STRINGS + 1;
+    var chunk = new SortableOutputChunk(
+        outputChunkId, lines, serializer, Comparator.naturalOrder(), mock(ApplicationContext.class)
+    );
+    var textSerializer = new TextSerializer(UTF_8);
+    chunk.setTextCounter(textSerializer);
+    for (int i = 0; i < lines; i++) {
+      chunk.add("цук" + i % 10);
+    }
+    chunk.save();
+
+    var index = chunk.getSavedIndex();
+    long lineLength = textSerializer.getLength("цук0");
+    assertThat(index.size()).isEqualTo(3);
+    assertThat(index.getTextPosition(0)).isZero();
+    assertThat(index.getTextPosition(1)).isEqualTo(INDEX_BLOCK_STRINGS * lineLength);
+    assertThat(index.getTextPosition(2)).isEqualTo(2 * INDEX_BLOCK_STRINGS * lineLength);
+  }
 }
@@ -0,0 +1,55 @@
+package org.example.sorter.parameters;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.example.sorter.SortState;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+class ChunkParametersTest {
+
+  private static final int CHUNKS = 10;
+
+  @ParameterizedTest
+  @CsvSource({
+      // remaining chunks fit into the final merge
+      "1, 2",
+      "9, 10",
+      // the first merge is partial, so the final merge is full
+      "10, 3",
+      "12, 5",
+      "16, 9",
+      // exact multiples need only full merges
+      "17, 10",
+      "25, 10",
+      "33, 10",
+  })
+  void getAvailableChunks(long remainingChunks, int expected) {
+    var parameters = new ChunkParameters(CHUNKS, 4, 512, 1, null);
+
+    assertThat(parameters.getAvailableChunks(SortState.MERGE, remainingChunks))
+        .isEqualTo(expected);
+  }
+
+  @ParameterizedTest
+  @CsvSource({"10", "11", "12", "17", "18", "100", "1000"})
+  void fillFinalMerge(long remainingChunks) {
+    var parameters = new ChunkParameters(CHUNKS, 4, 512, 1, null);
+
+    long remaining = remainingChunks;
+    boolean first = true;
+    while (remaining >= CHUNKS) {
+      int chunks = parameters.getAvailableChunks(SortState.MERGE, remaining);
+      if (!first) {
+        assertThat(chunks).isEqualTo(CHUNKS);
+      }
+      first = false;
+
+      // merge of inputs into one chunk, one of available chunks is output
+      remaining -= chunks - 2;
+    }
+
+    // the final merge reads all allowable inputs
+    assertThat(remaining).isEqualTo(CHUNKS - 1);
+  }
+}
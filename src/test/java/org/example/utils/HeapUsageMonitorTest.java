@@ -0,0 +1,35 @@
+package org.example.utils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.ref.Reference;
+import org.junit.jupiter.api.Test;
+
+class HeapUsageMonitorTest {
+
+  private static final int SIZE = 32 << 20;
+  private static final int GARBAGE_SIZE = 1 << 10;
+  private static final long MAX_GARBAGE = 4L << 30;
+
+  private static volatile byte[] garbage;
+
+  @Test
+  void trackTenuredHeapAfterYoungGc() throws InterruptedException {
+    try (var monitor = new HeapUsageMonitor()) {
+      // large array is allocated in tenured pool, garbage starts young collections
+      var data = new byte[SIZE];
+      for (long allocated = 0; allocated < MAX_GARBAGE && monitor.getPeakUsage() < SIZE;
+          allocated += GARBAGE_SIZE) {
+        garbage = new byte[GARBAGE_SIZE];
+      }
+
+      // notifications of collections are sent asynchronously
+      for (int i = 0; i < 100 && monitor.getPeakUsage() < SIZE; i++) {
+        Thread.sleep(10);
+      }
+      Reference.reachabilityFence(data);
+
+      assertThat(monitor.getPeakUsage()).isGreaterThanOrEqualTo(SIZE);
+    }
+  }
+}
@@ -0,0 +1,56 @@
+package org.example.utils;
+
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static java.nio.charset.StandardCharsets.UTF_16;
+import static java.nio.charset.StandardCharsets.UTF_16LE;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.Charset;
+import java.util.stream.Stream;
+import org.example.io.MockRandomAccessInputStream;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+class StreamHelperTest {
+
+  @SuppressWarnings("unused")
+  static Stream<Arguments> getLineBoundariesParametersProvider() {
+    return Stream.of(
+        Arguments.of("", 3, new long[] {0, 0, 0, 0}),
+        Arguments.of("abc", 1, new long[] {0, 3}),
+        Arguments.of("abc", 3, new long[] {0, 3, 3, 3}),
+        Arguments.of("ab\ncd\nef\n", 3, new long[] {0, 3, 6, 9}),
+        Arguments.of("ab\ncd\nef\n", 2, new long[] {0, 6, 9}),
+        Arguments.of("ab\r\ncd\r\nef", 2, new long[] {0, 8, 10}),
+        Arguments.of("abcdefgh\nq\n", 4, new long[] {0, 9, 9, 9, 11})
+    );
+  }
+
+  @ParameterizedTest
+  @MethodSource("getLineBoundariesParametersProvider")
+  void getLineBoundaries(String text, int parts, long[] expected) throws Exception {
+    try (var stream = new MockRandomAccessInputStream(text.getBytes(US_ASCII))) {
+      assertThat(StreamHelper.getLineBoundaries(stream, parts)).isEqualTo(expected);
+    }
+  }
+
+  @SuppressWarnings("unused")
+  static Stream<Arguments> hasSingleByteLineSeparatorsParametersProvider() {
+    return Stream.of(
+        Arguments.of(UTF_8, true),
+        Arguments.of(US_ASCII, true),
+        Arguments.of(ISO_8859_1, true),
+        Arguments.of(UTF_16, false),
+        Arguments.of(UTF_16LE, false)
+    );
+  }
+
+  @ParameterizedTest
+  @MethodSource("hasSingleByteLineSeparatorsParametersProvider")
+  void hasSingleByteLineSeparators(Charset charset, boolean expected) {
+    assertThat(StreamHelper.hasSingleByteLineSeparators(charset)).isEqualTo(expected);
+  }
+}
@@ -0,0 +1,83 @@
+package org.example.utils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.management.ManagementFactory;
+import java.lang.ref.Reference;
+import java.util.Arrays;
+import org.example.context.DefaultStringContext;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+/**
+ * Calibration of retained sizes of strings by heap, which is measured after full collections.
+ * Calibration allocates hundreds of megabytes and depends on {@link System#gc()}, so it's run
+ * only by profile {@code calibration}: {@code mvn test -P calibration}.
+ */
+@Tag("calibration")
+class StringHelperCalibrationTest {
+
+  private static final int BLOCKS = 500;
+  private static final int BLOCK_SIZE = 1000;
+  private static final int ATTEMPTS = 5;
+  private static final double MAX_ERROR = 0.05;
+
+  @ParameterizedTest
+  @CsvSource({
+      "1, a, false",
+      "13, a, false",
+      "40, a, false",
+      "40, я, false",
+      "40, a, true",
+      "40, я, true",
+      "300, é, false",
+  })
+  void calibrateRetainedSize(int length, char value, boolean supportReflection) {
+    var stringContext = new DefaultStringContext(supportReflection);
+
+    // other threads can allocate or release objects while heap is measured, so the closest
+    // measure is taken
+    double error = Double.MAX_VALUE;
+    for (int attempt = 0; attempt < ATTEMPTS && error > MAX_ERROR; attempt++) {
+      double ratio = measureRetainedSize(length, value, stringContext);
+      error = Math.min(error, Math.abs(ratio - 1));
+    }
+
+    assertThat(error).isLessThanOrEqualTo(MAX_ERROR);
+  }
+
+  private static long getUsedHeap() {
+    // the second collection frees objects, which are finalized by the first one
+    System.gc();
+    System.gc();
+    return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+  }
+
+  /**
+   * Measure heap of strings before and after their release.
+   *
+   * @return ratio of measured heap to predicted retained size
+   */
+  private static double measureRetainedSize(
+      int length, char value, DefaultStringContext stringContext
+  ) {
+    // headers of blocks are negligible, references of strings are counted by retained sizes
+    var strings = new String[BLOCKS][];
+    long predicted = 0;
+    for (int i = 0; i < BLOCKS; i++) {
+      strings[i] = new String[BLOCK_SIZE];
+      for (int j = 0; j < BLOCK_SIZE; j++) {
+        var chars = new char[length];
+        Arrays.fill(chars, value);
+        strings[i][j] = new String(chars);
+        predicted += stringContext.getRetainedSize(strings[i][j]);
+      }
+    }
+
+    long used = getUsedHeap();
+    Reference.reachabilityFence(strings);
+    strings = null;
+    return (double) (used - getUsedHeap()) / predicted;
+  }
+}
@@ -0,0 +1,15 @@
+package org.example.utils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class StringHelperTest {
+
+  @Test
+  void checkLatin1() {
+    assertThat(StringHelper.isLatin1("")).isTrue();
+    assertThat(StringHelper.isLatin1("abcÿ")).isTrue();
+    assertThat(StringHelper.isLatin1("abcĀ")).isFalse();
+  }
+}